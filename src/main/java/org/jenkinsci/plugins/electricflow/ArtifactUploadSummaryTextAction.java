@@ -4,6 +4,7 @@ import hudson.model.Run;
 import java.util.ArrayList;
 import java.util.List;
 import org.jenkinsci.plugins.electricflow.extension.ArtifactUploadData;
+import org.jenkinsci.plugins.electricflow.ui.SummaryTable;
 
 public class ArtifactUploadSummaryTextAction extends SummaryTextAction {
 
@@ -18,6 +19,10 @@ public class ArtifactUploadSummaryTextAction extends SummaryTextAction {
     this.projectActions = projectActions;
   }
 
+  public ArtifactUploadSummaryTextAction(Run<?, ?> run, SummaryTable summary) {
+    super(run, summary);
+  }
+
   public ArtifactUploadData getArtifactUploadData() {
     return artifactUploadData;
   }
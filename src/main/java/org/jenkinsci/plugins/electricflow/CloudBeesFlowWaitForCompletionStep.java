@@ -0,0 +1,405 @@
+package org.jenkinsci.plugins.electricflow;
+
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.Item;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.util.ListBoxModel;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import javax.annotation.Nonnull;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jenkinsci.plugins.electricflow.runandwait.CdPendingRunsAction;
+import org.jenkinsci.plugins.electricflow.runandwait.CdPollingSchedule;
+import org.jenkinsci.plugins.electricflow.runandwait.CdRunAborter;
+import org.jenkinsci.plugins.electricflow.runandwait.CdRunStatus;
+import org.jenkinsci.plugins.electricflow.runandwait.CdRunType;
+import org.jenkinsci.plugins.electricflow.runandwait.CdWaitService;
+import org.jenkinsci.plugins.electricflow.runandwait.CdWaitTarget;
+import org.jenkinsci.plugins.electricflow.runandwait.CdWaitTimeoutException;
+import org.jenkinsci.plugins.electricflow.transport.CdAsyncExecutor;
+import org.jenkinsci.plugins.electricflow.utils.CallRestApiUtils;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.kohsuke.stapler.AncestorInPath;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Waits for CloudBees CD runs without occupying an executor. Without explicit ids the step waits
+ * for all runs launched earlier in the build by steps without "Wait for CD Job Completed".
+ *
+ * <p>The waited runs and the deadline are saved with the Pipeline program, after a controller
+ * restart the step continues to wait for the runs that were not completed yet. Runs recorded on
+ * the build are removed from it only when the step completes, so a restart before the program is
+ * saved does not lose them.
+ */
+public class CloudBeesFlowWaitForCompletionStep extends Step {
+
+  private static final Log log = LogFactory.getLog(CloudBeesFlowWaitForCompletionStep.class);
+
+  private String configuration;
+  private Credential overrideCredential;
+  private String jobId;
+  private String flowRuntimeId;
+  private RunAndWaitOption runAndWaitOption;
+
+  @DataBoundConstructor
+  public CloudBeesFlowWaitForCompletionStep() {}
+
+  public String getConfiguration() {
+    return configuration;
+  }
+
+  @DataBoundSetter
+  public void setConfiguration(String configuration) {
+    this.configuration = configuration;
+  }
+
+  public Credential getOverrideCredential() {
+    return overrideCredential;
+  }
+
+  @DataBoundSetter
+  public void setOverrideCredential(Credential overrideCredential) {
+    this.overrideCredential = overrideCredential;
+  }
+
+  public String getJobId() {
+    return jobId;
+  }
+
+  @DataBoundSetter
+  public void setJobId(String jobId) {
+    this.jobId = Util.fixEmptyAndTrim(jobId);
+  }
+
+  public String getFlowRuntimeId() {
+    return flowRuntimeId;
+  }
+
+  @DataBoundSetter
+  public void setFlowRuntimeId(String flowRuntimeId) {
+    this.flowRuntimeId = Util.fixEmptyAndTrim(flowRuntimeId);
+  }
+
+  public RunAndWaitOption getRunAndWaitOption() {
+    return runAndWaitOption;
+  }
+
+  @DataBoundSetter
+  public void setRunAndWaitOption(RunAndWaitOption runAndWaitOption) {
+    this.runAndWaitOption = runAndWaitOption;
+  }
+
+  @Override
+  public StepExecution start(StepContext stepContext) throws Exception {
+    Run<?, ?> run = stepContext.get(Run.class);
+    TaskListener listener = stepContext.get(TaskListener.class);
+
+    List<CdWaitTarget> targets = new ArrayList<>();
+    boolean pendingRuns = jobId == null && flowRuntimeId == null;
+
+    if (pendingRuns) {
+      targets.addAll(CdPendingRunsAction.getPendingRuns(run));
+    } else {
+      if (Util.fixEmptyAndTrim(configuration) == null) {
+        throw new IllegalArgumentException(
+            "Configuration is required when jobId or flowRuntimeId is specified");
+      }
+
+      String credentialId =
+          overrideCredential == null
+              ? null
+              : overrideCredential.getCredentialId(new EnvReplacer(run, listener));
+
+      if (jobId != null) {
+        targets.add(new CdWaitTarget(configuration, credentialId, CdRunType.JOB, jobId));
+      }
+      if (flowRuntimeId != null) {
+        targets.add(
+            new CdWaitTarget(
+                configuration, credentialId, CdRunType.PIPELINE_RUNTIME, flowRuntimeId));
+      }
+    }
+
+    RunAndWaitOption option = runAndWaitOption == null ? new RunAndWaitOption() : runAndWaitOption;
+
+    return new Execution(stepContext, targets, pendingRuns, option);
+  }
+
+  private static class Execution extends StepExecution {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<CdWaitTarget> targets;
+    // True if the targets were recorded on the build, they are removed from it on completion
+    private final boolean pendingRuns;
+    private final RunAndWaitOption runAndWaitOption;
+    private final long deadline;
+    // Kept with the build, so that only the remaining runs are waited for after a restart
+    private final Set<CdWaitTarget> completedTargets = new HashSet<>();
+
+    private transient List<CdWaitService.Registration> registrations;
+    private transient boolean finished;
+
+    Execution(
+        @Nonnull StepContext context,
+        @Nonnull List<CdWaitTarget> targets,
+        boolean pendingRuns,
+        @Nonnull RunAndWaitOption runAndWaitOption) {
+      super(context);
+      this.targets = targets;
+      this.pendingRuns = pendingRuns;
+      this.runAndWaitOption = runAndWaitOption;
+      this.deadline = runAndWaitOption.getDeadline(System.currentTimeMillis());
+    }
+
+    @Override
+    public boolean start() throws Exception {
+      if (targets.isEmpty()) {
+        PrintStream logger = getContext().get(TaskListener.class).getLogger();
+        logger.println("No CloudBees CD runs to wait for");
+        succeed();
+        return true;
+      }
+
+      register("Waiting till ");
+      return false;
+    }
+
+    @Override
+    public void onResume() {
+      try {
+        register("Resuming wait till ");
+      } catch (Exception e) {
+        if (finish()) {
+          fail(e);
+        }
+      }
+    }
+
+    @Override
+    public void stop(@Nonnull Throwable cause) throws Exception {
+      if (finish()) {
+        abortAndFail(cause);
+      }
+    }
+
+    @Override
+    public String getStatus() {
+      return "waiting for " + getRemainingTargets();
+    }
+
+    private void register(String message) throws Exception {
+      PrintStream logger = getContext().get(TaskListener.class).getLogger();
+      Run<?, ?> run = getContext().get(Run.class);
+      List<CdWaitTarget> remaining = getRemainingTargets();
+      List<ElectricFlowClient> clients = new ArrayList<>(remaining.size());
+
+      for (CdWaitTarget target : remaining) {
+        clients.add(target.createClient(run));
+      }
+
+      synchronized (this) {
+        registrations = new ArrayList<>(remaining.size());
+
+        if (remaining.isEmpty()) {
+          finished = true;
+          succeed();
+          return;
+        }
+
+        for (int i = 0; i < remaining.size(); i++) {
+          CdWaitTarget target = remaining.get(i);
+
+          logger.println(
+              message + target + " is completed, " + CdPollingSchedule.describe(runAndWaitOption));
+
+          registrations.add(
+              CdWaitService.get()
+                  .register(
+                      clients.get(i),
+                      run,
+                      target.getType(),
+                      target.getId(),
+                      runAndWaitOption,
+                      deadline,
+                      new TargetCallback(target, logger)));
+        }
+      }
+    }
+
+    private synchronized List<CdWaitTarget> getRemainingTargets() {
+      List<CdWaitTarget> remaining = new ArrayList<>(targets);
+      remaining.removeAll(completedTargets);
+      return remaining;
+    }
+
+    // Returns true if this call finished the step, cancels the remaining waits
+    private synchronized boolean finish() {
+      if (finished) {
+        return false;
+      }
+      finished = true;
+
+      if (registrations != null) {
+        registrations.forEach(CdWaitService.Registration::cancel);
+      }
+      return true;
+    }
+
+    // Fails the finished step, after aborting the runs that are not completed if requested
+    private void abortAndFail(Throwable cause) {
+      if (!runAndWaitOption.isAbortCdRun()) {
+        fail(cause);
+        return;
+      }
+
+      List<CdWaitTarget> remaining = getRemainingTargets();
+
+      // Aborting blocks on HTTP requests and retries, so it must not hold a shared timer thread
+      try {
+        CdAsyncExecutor.execute(
+            () -> {
+              try {
+                PrintStream logger = getContext().get(TaskListener.class).getLogger();
+                Run<?, ?> run = getContext().get(Run.class);
+
+                for (CdWaitTarget target : remaining) {
+                  try {
+                    CdRunAborter.abort(
+                        target.createClient(run), target.getType(), target.getId(), logger);
+                  } catch (Exception e) {
+                    log.warn("Failed to abort " + target + ": " + e.getMessage(), e);
+                  }
+                }
+              } catch (Exception e) {
+                log.warn("Failed to abort CloudBees CD runs: " + e.getMessage(), e);
+              } finally {
+                fail(cause);
+              }
+            });
+      } catch (RejectedExecutionException e) {
+        log.warn("Cannot abort CloudBees CD runs " + remaining + ": " + e.getMessage());
+        fail(cause);
+      }
+    }
+
+    private void succeed() {
+      removePendingRuns();
+      getContext().onSuccess(null);
+    }
+
+    private void fail(Throwable cause) {
+      removePendingRuns();
+      getContext().onFailure(cause);
+    }
+
+    // The runs stay recorded on the build until here, the step may be replayed before it is saved
+    private void removePendingRuns() {
+      if (!pendingRuns) {
+        return;
+      }
+
+      try {
+        CdPendingRunsAction.removePendingRuns(getContext().get(Run.class), targets);
+      } catch (Exception e) {
+        log.warn("Failed to remove waited CloudBees CD runs from the build: " + e.getMessage(), e);
+      }
+    }
+
+    // Returns true if the target was the last one and this call finished the step
+    private synchronized boolean complete(CdWaitTarget target) {
+      completedTargets.add(target);
+      return completedTargets.containsAll(targets) && finish();
+    }
+
+    private class TargetCallback implements CdWaitService.Callback {
+
+      private final CdWaitTarget target;
+      private final PrintStream logger;
+      private CdRunStatus previous;
+
+      TargetCallback(CdWaitTarget target, PrintStream logger) {
+        this.target = target;
+        this.logger = logger;
+      }
+
+      @Override
+      public void onStatus(CdRunStatus status) {
+        for (String change : status.getChangesSince(previous)) {
+          logger.println(change);
+        }
+        previous = status;
+      }
+
+      @Override
+      public void onCompleted(CdRunStatus status) {
+        if (runAndWaitOption.isDependOnCdJobOutcome()) {
+          try {
+            status.checkOutcome();
+          } catch (Exception e) {
+            onFailure(e);
+            return;
+          }
+        }
+
+        if (complete(target)) {
+          succeed();
+        }
+      }
+
+      @Override
+      public void onFailure(Throwable cause) {
+        log.info("Waiting for " + target + " failed: " + cause.getMessage());
+
+        if (!finish()) {
+          return;
+        }
+
+        if (cause instanceof CdWaitTimeoutException) {
+          abortAndFail(cause);
+        } else {
+          fail(cause);
+        }
+      }
+    }
+  }
+
+  @Extension
+  public static final class DescriptorImpl extends StepDescriptor {
+
+    public ListBoxModel doFillConfigurationItems(@AncestorInPath Item item) {
+      return CallRestApiUtils.doFillConfigurationItems(item);
+    }
+
+    public ListBoxModel doFillCredentialIdItems(@AncestorInPath Item item) {
+      return Credential.DescriptorImpl.doFillCredentialIdItems(item);
+    }
+
+    @Override
+    public String getDisplayName() {
+      return "CloudBees CD - Wait for Completion";
+    }
+
+    @Override
+    public Set<? extends Class<?>> getRequiredContext() {
+      return new HashSet<>(Arrays.asList(Run.class, TaskListener.class));
+    }
+
+    @Override
+    public String getFunctionName() {
+      return "cloudBeesFlowWaitForCompletion";
+    }
+  }
+}
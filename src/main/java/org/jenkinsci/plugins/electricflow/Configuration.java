@@ -18,7 +18,9 @@ import java.io.IOException;
 import jenkins.model.Jenkins;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.jenkinsci.plugins.electricflow.transport.CdHttpTransportSettings;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.interceptor.RequirePOST;
 
@@ -34,6 +36,9 @@ public class Configuration extends AbstractDescribableImpl<Configuration> {
   private final String electricFlowApiVersion;
   private final boolean ignoreSslConnectionErrors;
   private final boolean doNotSendBuildDetails;
+  private int httpConnectTimeout;
+  private int httpReadTimeout;
+  private int httpMaxConnections;
 
   // ~ Constructors -----------------------------------------------------------
 
@@ -87,6 +92,45 @@ public class Configuration extends AbstractDescribableImpl<Configuration> {
     return this.electricFlowUser;
   }
 
+  public int getHttpConnectTimeout() {
+    return httpConnectTimeout > 0
+        ? httpConnectTimeout
+        : CdHttpTransportSettings.CONNECT_TIMEOUT_DEFAULT;
+  }
+
+  @DataBoundSetter
+  public void setHttpConnectTimeout(int httpConnectTimeout) {
+    this.httpConnectTimeout = httpConnectTimeout;
+  }
+
+  public int getHttpReadTimeout() {
+    return httpReadTimeout > 0 ? httpReadTimeout : CdHttpTransportSettings.READ_TIMEOUT_DEFAULT;
+  }
+
+  @DataBoundSetter
+  public void setHttpReadTimeout(int httpReadTimeout) {
+    this.httpReadTimeout = httpReadTimeout;
+  }
+
+  public int getHttpMaxConnections() {
+    return httpMaxConnections > 0
+        ? httpMaxConnections
+        : CdHttpTransportSettings.MAX_CONNECTIONS_DEFAULT;
+  }
+
+  @DataBoundSetter
+  public void setHttpMaxConnections(int httpMaxConnections) {
+    this.httpMaxConnections = httpMaxConnections;
+  }
+
+  public CdHttpTransportSettings getHttpTransportSettings() {
+    return new CdHttpTransportSettings(
+        ignoreSslConnectionErrors,
+        getHttpConnectTimeout(),
+        getHttpReadTimeout(),
+        getHttpMaxConnections());
+  }
+
   // ~ Inner Classes ----------------------------------------------------------
 
   @Extension
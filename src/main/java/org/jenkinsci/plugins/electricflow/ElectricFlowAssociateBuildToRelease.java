@@ -47,8 +47,8 @@ import org.jenkinsci.plugins.electricflow.factories.ElectricFlowClientFactory;
 import org.jenkinsci.plugins.electricflow.models.CIBuildDetail;
 import org.jenkinsci.plugins.electricflow.models.CIBuildDetail.BuildAssociationType;
 import org.jenkinsci.plugins.electricflow.models.CIBuildDetail.BuildTriggerSource;
-import org.jenkinsci.plugins.electricflow.ui.HtmlUtils;
 import org.jenkinsci.plugins.electricflow.ui.SelectFieldUtils;
+import org.jenkinsci.plugins.electricflow.ui.SummaryTable;
 import org.kohsuke.stapler.AncestorInPath;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
@@ -111,7 +111,7 @@ public class ElectricFlowAssociateBuildToRelease extends Recorder implements Sim
       }
 
       // Adding text to the summary page
-      run.addAction(new SummaryTextAction(run, getSummaryHtml(efClient, args, logger)));
+      run.addAction(new SummaryTextAction(run, getSummary(efClient, args, logger)));
 
       run.setResult(Result.SUCCESS);
       run.save();
@@ -161,9 +161,8 @@ public class ElectricFlowAssociateBuildToRelease extends Recorder implements Sim
     return result;
   }
 
-  private String getSummaryHtml(
+  private SummaryTable getSummary(
       ElectricFlowClient electricFlowClient, Map<String, String> args, PrintStream logger) {
-
     String releaseName = args.get("releaseName");
     String releaseId = args.get("releaseId");
     String flowRuntimeId = args.get("flowRuntimeId");
@@ -174,19 +173,8 @@ public class ElectricFlowAssociateBuildToRelease extends Recorder implements Sim
     String releaseRunLink = electricFlowClient.getElectricFlowUrl() + path;
     logger.println(String.format("INFO: link to the release: %s", releaseRunLink));
 
-    return "<h3>CloudBees CD - Associate Build To Release</h3>"
-        + "<table cellspacing=\"2\" cellpadding=\"4\"> \n"
-        + "  <tr>\n"
-        + "    <td>Build details were attached to the release </td>\n"
-        + "    <td>"
-        + "<a target='_blank' href='"
-        + HtmlUtils.encodeForHtml(releaseRunLink)
-        + "'>"
-        + HtmlUtils.encodeForHtml(releaseName)
-        + "</a>"
-        + "</td>\n"
-        + "  </tr>"
-        + "</table>";
+    return new SummaryTable("CloudBees CD - Associate Build To Release")
+        .addLink("Build details were attached to the release", releaseRunLink, releaseName);
   }
 
   public String getConfiguration() {
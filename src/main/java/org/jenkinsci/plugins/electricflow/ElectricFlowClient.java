@@ -1,39 +1,65 @@
 package org.jenkinsci.plugins.electricflow;
 
 import static org.jenkinsci.plugins.electricflow.FileHelper.getPublishArtifactWorkspaceOnMaster;
+import static org.jenkinsci.plugins.electricflow.HttpMethod.DELETE;
 import static org.jenkinsci.plugins.electricflow.HttpMethod.GET;
 import static org.jenkinsci.plugins.electricflow.HttpMethod.POST;
 import static org.jenkinsci.plugins.electricflow.HttpMethod.PUT;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import hudson.AbortException;
 import hudson.FilePath;
 import hudson.model.Run;
 import hudson.model.TaskListener;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
 import java.io.PrintStream;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
-import javax.net.ssl.HttpsURLConnection;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.jenkinsci.plugins.electricflow.models.CIBuildDetail;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdJobStatus;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdPipelineStatus;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.FindJobsResponseData;
 import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.GetJobStatusResponseData;
 import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.GetPipelineRuntimeDetailsResponseData;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.GetPipelineRuntimesDetailsResponseData;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.parameters.FindFormalParametersResponseData;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.parameters.FormalParameterData;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.parameters.GetFormalParametersResponseData;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.pipelines.FindPipelinesResponseData;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.pipelines.GetPipelinesResponseData;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.pipelines.PipelineData;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.projects.GetProjectsResponseData;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.projects.ProjectData;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.releases.GetReleasesResponseData;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.releases.ReleaseData;
+import org.jenkinsci.plugins.electricflow.transport.CdAsyncExecutor;
+import org.jenkinsci.plugins.electricflow.transport.CdHttpRequest;
+import org.jenkinsci.plugins.electricflow.transport.CdHttpResponseHandler;
+import org.jenkinsci.plugins.electricflow.transport.CdHttpTransport;
+import org.jenkinsci.plugins.electricflow.transport.CdHttpTransports;
+import org.jenkinsci.plugins.electricflow.transport.CdRequestCoalescer;
+import org.jenkinsci.plugins.electricflow.transport.CdSessionManager;
+import org.jenkinsci.plugins.electricflow.upload.AgentArtifactUpload;
+import org.jenkinsci.plugins.electricflow.upload.ArtifactUploadRequest;
+import org.jenkinsci.plugins.electricflow.utils.CdJsonReaders;
 
 public class ElectricFlowClient {
 
@@ -49,6 +75,7 @@ public class ElectricFlowClient {
   private boolean ignoreSslConnectionErrors;
   private List<Release> releasesList = new ArrayList<>();
   private EnvReplacer envReplacer;
+  private CdHttpTransport transport;
 
   public ElectricFlowClient(String configurationName, EnvReplacer envReplacer) {
     this(configurationName);
@@ -72,6 +99,7 @@ public class ElectricFlowClient {
       String electricFlowApiVersion = cred.getElectricFlowApiVersion();
 
       apiVersion = electricFlowApiVersion != null ? electricFlowApiVersion : "";
+      transport = CdHttpTransports.forConfiguration(cred);
     }
   }
 
@@ -81,6 +109,22 @@ public class ElectricFlowClient {
       String password,
       String apiVersion,
       boolean ignoreSslConnectionErrors) {
+    this(url, name, password, apiVersion, ignoreSslConnectionErrors, null);
+  }
+
+  /**
+   * Creates a client which sends its REST requests through the given transport.
+   *
+   * @param transport shared transport, or null to use the default pool for the url
+   */
+  public ElectricFlowClient(
+      String url,
+      String name,
+      String password,
+      String apiVersion,
+      boolean ignoreSslConnectionErrors,
+      CdHttpTransport transport) {
+    this.transport = transport;
     this.electricFlowUrl = url;
     this.userName = name;
     this.password = password;
@@ -221,33 +265,14 @@ public class ElectricFlowClient {
   public String runRestAPI(
       String urlPath, HttpMethod httpMethod, String body, List<Pair> parameters)
       throws IOException {
-    StringBuilder result = new StringBuilder();
-    JSONObject obj = new JSONObject();
-
     if (!urlPath.startsWith("/")) {
       urlPath = "/" + urlPath;
     }
 
-    HttpsURLConnection conn = this.getConnection(apiVersion + urlPath);
-
-    conn.setRequestMethod(httpMethod.name());
-    conn.setUseCaches(false);
-    conn.setDoInput(true);
-    conn.setDoOutput(true);
-
-    if (this.getIgnoreSslConnectionErrors()) {
-      try {
-        conn.setSSLSocketFactory(RelaxedSSLContext.getInstance().getSocketFactory());
-      } catch (KeyManagementException | NoSuchAlgorithmException e) {
-        if (log.isDebugEnabled()) {
-          log.debug(e.getMessage(), e);
-        }
-      }
-      conn.setHostnameVerifier(RelaxedSSLContext.allHostsValid);
-    }
+    byte[] outputInBytes = new byte[0];
 
     if (!GET.equals(httpMethod)) {
-      byte[] outputInBytes = new byte[0];
+      JSONObject obj = new JSONObject();
 
       if (!parameters.isEmpty()) {
 
@@ -259,66 +284,192 @@ public class ElectricFlowClient {
       } else if (!body.isEmpty()) {
         outputInBytes = body.getBytes(CHARSET);
       }
+    }
 
-      if (outputInBytes.length != 0) {
-
-        try (OutputStream outputStream = conn.getOutputStream()) {
-          outputStream.write(outputInBytes);
-          outputStream.close();
-        }
-      }
+    // Only reads are coalesced, identical writes must all reach the server
+    if (GET.equals(httpMethod)) {
+      return readRestAPI(
+          urlPath,
+          GET,
+          "",
+          "string",
+          content -> IOUtils.toString(content, CHARSET),
+          UnaryOperator.identity());
     }
 
-    List<Integer> successCodes = new ArrayList<>();
+    return execute(
+        httpMethod, apiVersion + urlPath, outputInBytes, ElectricFlowClient::readResponse);
+  }
 
-    successCodes.add(200);
-    successCodes.add(201);
+  /**
+   * Asynchronous variant of {@link #runRestAPI(String, HttpMethod, String)}. The request runs on
+   * the bounded {@link CdAsyncExecutor}; cancelling the returned future aborts the request.
+   *
+   * @param urlPath endpoint relative to the API version
+   * @param httpMethod request method
+   * @param body request body, ignored for GET requests
+   * @return future completed with the response body
+   */
+  public CompletableFuture<String> runRestAPIAsync(
+      String urlPath, HttpMethod httpMethod, String body) {
+    return CdAsyncExecutor.supplyAsync(() -> runRestAPI(urlPath, httpMethod, body));
+  }
 
-    if (!successCodes.contains(conn.getResponseCode())) {
-      try {
-        InputStream stream =
-            (conn.getResponseCode() >= 200 && conn.getResponseCode() <= 299)
-                ? conn.getInputStream()
-                : conn.getErrorStream();
+  public CompletableFuture<String> runRestAPIAsync(
+      String urlPath, HttpMethod httpMethod, String body, List<Pair> parameters) {
+    return CdAsyncExecutor.supplyAsync(() -> runRestAPI(urlPath, httpMethod, body, parameters));
+  }
 
-        if (stream != null) {
-          BufferedReader br = new BufferedReader(new InputStreamReader(stream, CHARSET));
-          String output;
-          while ((output = br.readLine()) != null) {
-            result.append(output);
-          }
-        } else {
-          log.info("Connection input or error stream is null");
-        }
-      } catch (IOException e) {
-        log.error("Error on reading response body. Error: " + e.getMessage());
-      } finally {
-        conn.disconnect();
+  /**
+   * Runs a read-only REST API request and returns the items of the decoded response. The items
+   * are read-only once decoded, so callers that joined an in-flight request share them and only
+   * get their own list.
+   *
+   * @param urlPath endpoint relative to the API version
+   * @param httpMethod request method
+   * @param body request body, ignored for GET requests
+   * @param type type of the decoded response
+   * @param items extracts the items from the decoded response
+   * @param <R> type of the decoded response
+   * @param <T> item type
+   * @return items of the response
+   * @throws IOException if the request or decoding fails
+   */
+  private <R, T> List<T> readList(
+      String urlPath,
+      HttpMethod httpMethod,
+      String body,
+      Class<R> type,
+      Function<R, List<T>> items)
+      throws IOException {
+    return readRestAPI(
+        urlPath,
+        httpMethod,
+        body,
+        type.getName(),
+        content -> items.apply(CdJsonReaders.read(content, type)),
+        ArrayList::new);
+  }
+
+  private List<String> readNames(String urlPath, String arrayField, String nameField)
+      throws IOException {
+    return readRestAPI(
+        urlPath,
+        GET,
+        "",
+        "names:" + arrayField + "." + nameField,
+        content -> CdJsonReaders.readNames(content, arrayField, nameField),
+        ArrayList::new);
+  }
+
+  /**
+   * Runs a read-only REST API request and decodes the response body directly from the connection
+   * stream. Identical requests running concurrently are coalesced into a single call, the callers
+   * that joined it get a copy of the decoded result.
+   *
+   * @param resultKind identifies the decoding, requests decoded differently are not coalesced
+   * @param reader decodes the response body
+   * @param copy copies the decoded result for a caller that joined the in-flight request
+   */
+  private <T> T readRestAPI(
+      String urlPath,
+      HttpMethod httpMethod,
+      String body,
+      String resultKind,
+      CdJsonReaders.StreamReader<T> reader,
+      UnaryOperator<T> copy)
+      throws IOException {
+    byte[] outputInBytes =
+        GET.equals(httpMethod) || body.isEmpty() ? new byte[0] : body.getBytes(CHARSET);
+    String endpoint = apiVersion + urlPath;
+    String key =
+        getSessionKey() + "\n" + httpMethod + " " + endpoint + "\n" + body + "\n" + resultKind;
+
+    return CdRequestCoalescer.get()
+        .execute(key, () -> execute(httpMethod, endpoint, outputInBytes, read(reader)), copy);
+  }
+
+  /**
+   * Runs a status request and reads the whole response body, which is kept to report statuses
+   * that cannot be interpreted. Status requests are not coalesced, the waits of all builds are
+   * already checked with one request per server.
+   */
+  private byte[] readStatusBytes(String urlPath, HttpMethod httpMethod, String body)
+      throws IOException {
+    byte[] outputInBytes =
+        GET.equals(httpMethod) || body.isEmpty() ? new byte[0] : body.getBytes(CHARSET);
+
+    return execute(httpMethod, apiVersion + urlPath, outputInBytes, read(IOUtils::toByteArray));
+  }
+
+  private static <T> CdHttpResponseHandler<T> read(CdJsonReaders.StreamReader<T> reader) {
+    return (statusCode, reasonPhrase, content) -> {
+      if (statusCode == 200 || statusCode == 201) {
+        return reader.read(content);
       }
 
-      String errorMessage =
-          "Failed : HTTP error code : " + conn.getResponseCode() + ", " + conn.getResponseMessage();
-      if (!result.toString().isEmpty()) {
-        errorMessage += ", " + result.toString();
+      throw newHttpError(statusCode, reasonPhrase, content);
+    };
+  }
+
+  private <T> T execute(
+      HttpMethod httpMethod, String endpoint, byte[] body, CdHttpResponseHandler<T> handler)
+      throws IOException {
+    CdSessionManager sessionManager = CdSessionManager.get();
+    String sessionKey = getSessionKey();
+    String sessionId = sessionManager.getSessionId(sessionKey, this::getSessionId);
+
+    try {
+      return getTransport()
+          .execute(
+              newRequest(httpMethod, endpoint, sessionId).setBody(body),
+              rejectExpiredSession(sessionId, handler));
+    } catch (SessionRejectedException e) {
+      // Session has expired on the server side, log in again and repeat the request once
+      sessionManager.invalidate(sessionKey, sessionId);
+      sessionId = sessionManager.getSessionId(sessionKey, this::getSessionId);
+
+      return getTransport()
+          .execute(newRequest(httpMethod, endpoint, sessionId).setBody(body), handler);
+    }
+  }
+
+  private static <T> CdHttpResponseHandler<T> rejectExpiredSession(
+      String sessionId, CdHttpResponseHandler<T> handler) {
+    return (statusCode, reasonPhrase, content) -> {
+      if (sessionId != null && statusCode == 401) {
+        throw new SessionRejectedException();
       }
 
-      throw new RuntimeException(errorMessage);
+      return handler.handle(statusCode, reasonPhrase, content);
+    };
+  }
+
+  private static String readResponse(int statusCode, String reasonPhrase, InputStream content)
+      throws IOException {
+    if (statusCode == 200 || statusCode == 201) {
+      return IOUtils.toString(content, CHARSET);
     }
 
-    try (BufferedReader br =
-        new BufferedReader(new InputStreamReader((conn.getInputStream()), CHARSET))) {
-      String output;
+    throw newHttpError(statusCode, reasonPhrase, content);
+  }
 
-      while ((output = br.readLine()) != null) {
-        result.append(output);
-      }
+  private static RuntimeException newHttpError(
+      int statusCode, String reasonPhrase, InputStream content) {
+    String result = "";
 
-      return result.toString();
+    try {
+      result = IOUtils.toString(content, CHARSET);
     } catch (IOException e) {
-      throw new IOException(e);
-    } finally {
-      conn.disconnect();
+      log.error("Error on reading response body. Error: " + e.getMessage());
+    }
+
+    String errorMessage = "Failed : HTTP error code : " + statusCode + ", " + reasonPhrase;
+    if (!result.isEmpty()) {
+      errorMessage += ", " + result;
     }
+
+    return new RuntimeException(errorMessage);
   }
 
   public JSONObject attachCIBuildDetails(CIBuildDetail details) throws IOException {
@@ -337,6 +488,27 @@ public class ElectricFlowClient {
       boolean uploadDirectory,
       FilePath workspace)
       throws IOException, KeyManagementException, NoSuchAlgorithmException, InterruptedException {
+    return uploadArtifact(
+        build, listener, repo, name, version, path, uploadDirectory, workspace, 0);
+  }
+
+  /**
+   * Publishes files of the workspace as an artifact version, they are copied to the controller
+   * first.
+   *
+   * @param compressionLevel gzip level for the request body, 1 to 9, 0 to send it uncompressed
+   */
+  public String uploadArtifact(
+      Run<?, ?> build,
+      TaskListener listener,
+      String repo,
+      String name,
+      String version,
+      String path,
+      boolean uploadDirectory,
+      FilePath workspace,
+      int compressionLevel)
+      throws IOException, KeyManagementException, NoSuchAlgorithmException, InterruptedException {
 
     PrintStream logger = listener.getLogger();
     // here we're getting files from directory using wildcard:
@@ -351,7 +523,9 @@ public class ElectricFlowClient {
     String uploadWorkspace = getPublishArtifactWorkspaceOnMaster(build).getRemote();
 
     logger.println("Uploading artifact to the repository");
-    String result = uploadArtifact(fileList, uploadWorkspace, repo, name, version, uploadDirectory);
+    String result =
+        uploadArtifact(
+            fileList, uploadWorkspace, repo, name, version, uploadDirectory, compressionLevel);
     logger.println("Upload result: " + result);
 
     // Removing temp
@@ -375,52 +549,104 @@ public class ElectricFlowClient {
       String version,
       boolean uploadDirectory)
       throws IOException, KeyManagementException, NoSuchAlgorithmException, InterruptedException {
-    String sessionId = this.getSessionId();
-
-    // to make it working, this file should be installed:
-    // http://swarm/reviews/137432/
-    String requestURL = this.electricFlowUrl + "/commander/cgi-bin/publishArtifactAPI.cgi";
-
-    MultipartUtility multipart =
-        new MultipartUtility(requestURL, CHARSET, this.getIgnoreSslConnectionErrors());
+    return uploadArtifact(fileList, uploadWorkspace, repo, name, version, uploadDirectory, 0);
+  }
 
-    multipart.addFormField("artifactName", name);
-    multipart.addFormField("artifactVersionVersion", version);
-    multipart.addFormField("repositoryName", repo);
-    multipart.addFormField("compress", "1");
-    multipart.addFormField("commanderSessionId", sessionId);
+  public String uploadArtifact(
+      List<File> fileList,
+      String uploadWorkspace,
+      String repo,
+      String name,
+      String version,
+      boolean uploadDirectory,
+      int compressionLevel)
+      throws IOException, KeyManagementException, NoSuchAlgorithmException, InterruptedException {
+    CdSessionManager sessionManager = CdSessionManager.get();
+    String sessionId = sessionManager.getSessionId(getSessionKey(), this::getSessionId);
 
-    for (File file : fileList) {
-      if (file.isDirectory()) {
+    if (sessionId == null) {
+      sessionId = this.getSessionId();
+    }
 
-        if (!uploadDirectory) {
-          continue;
-        }
+    ArtifactUploadRequest request =
+        new ArtifactUploadRequest(
+            electricFlowUrl,
+            getIgnoreSslConnectionErrors(),
+            sessionId,
+            repo,
+            name,
+            version,
+            uploadDirectory);
 
-        List<File> dirFiles = FileHelper.getFilesFromDirectory(file);
+    request.setCompressionLevel(compressionLevel);
 
-        for (File f : dirFiles) {
-          multipart.addFilePart("files", f, uploadWorkspace);
-        }
-      } else {
-        multipart.addFilePart("files", file, uploadWorkspace);
-      }
+    try {
+      return request.send(fileList, uploadWorkspace);
+    } catch (IOException e) {
+      // Do not reuse a session the server might have rejected
+      sessionManager.invalidate(getSessionKey(), sessionId);
+      throw e;
     }
+  }
 
-    List<String> response = multipart.finish();
+  /**
+   * Publishes files of the workspace as an artifact version directly from the node the workspace
+   * is on. The files are not copied to the controller.
+   *
+   * <p>The session id is sent to the node with the request. The upload therefore logs in to a
+   * session of its own, which is not shared with other requests of the controller, and logs it
+   * out once the upload is done.
+   *
+   * @param listener task listener
+   * @param repo artifact repository
+   * @param name artifact name
+   * @param version artifact version
+   * @param path comma separated file patterns, relative to the workspace
+   * @param uploadDirectory true to upload the files of matched directories
+   * @param workspace workspace, local or on an agent
+   * @param compressionLevel gzip level for the request body, 1 to 9, 0 to send it uncompressed
+   * @return response of the server
+   * @throws AbortException if no files match
+   * @throws IOException if the upload fails
+   * @throws InterruptedException if the upload is interrupted
+   */
+  public String uploadArtifactFromAgent(
+      TaskListener listener,
+      String repo,
+      String name,
+      String version,
+      String path,
+      boolean uploadDirectory,
+      FilePath workspace,
+      int compressionLevel)
+      throws IOException, InterruptedException {
+    PrintStream logger = listener.getLogger();
+    String sessionId = getSessionId();
 
-    String resultLine = "";
+    ArtifactUploadRequest request =
+        new ArtifactUploadRequest(
+            electricFlowUrl,
+            getIgnoreSslConnectionErrors(),
+            sessionId,
+            repo,
+            name,
+            version,
+            uploadDirectory);
 
-    for (String line : response) {
+    request.setCompressionLevel(compressionLevel);
+    logger.println("Uploading artifact to the repository from " + workspace.getRemote());
 
-      resultLine = resultLine + line;
+    String result;
 
-      if (log.isDebugEnabled()) {
-        log.debug("Response: " + line);
-      }
+    try {
+      result = workspace.act(new AgentArtifactUpload(request, path));
+    } finally {
+      logout(sessionId);
     }
 
-    return resultLine;
+    logger.println("Upload result: " + result);
+
+    return result;
   }
 
   private String expandVariable(String var) {
@@ -429,90 +655,61 @@ public class ElectricFlowClient {
 
   public List<String> getApplications(String projectName) throws IOException {
     String endpoint = "/projects/" + Utils.encodeURL(projectName) + "/applications";
-    String jsonResult = runRestAPI(endpoint, GET);
-    List<String> result = new ArrayList<>();
-    JSONObject jsonObject = JSONObject.fromObject(jsonResult);
 
-    if (jsonObject.isEmpty()
-        || !jsonObject.containsKey("application")
-        || !(jsonObject.get("application") instanceof JSONArray)) {
-      return result;
-    }
-
-    JSONArray application = jsonObject.getJSONArray("application");
-
-    for (int i = 0; i < application.size(); i++) {
-      JSONObject applicationObject = application.getJSONObject(i);
-      String applicationName = applicationObject.getString("applicationName");
-
-      result.add(applicationName);
-    }
-
-    return result;
+    return readNames(endpoint, "application", "applicationName");
   }
 
   public List<String> getProcedures(String projectName) throws IOException {
     String endpoint = "/projects/" + Utils.encodeURL(projectName) + "/procedures";
-    String jsonResult = runRestAPI(endpoint, GET);
-    List<String> result = new ArrayList<>();
-    JSONObject jsonObject = JSONObject.fromObject(jsonResult);
-
-    if (jsonObject.isEmpty()
-        || !jsonObject.containsKey("procedure")
-        || !(jsonObject.get("procedure") instanceof JSONArray)) {
-      return result;
-    }
-
-    JSONArray procedure = jsonObject.getJSONArray("procedure");
-
-    for (int i = 0; i < procedure.size(); i++) {
-      JSONObject procedureObject = procedure.getJSONObject(i);
-      String procedureName = procedureObject.getString("procedureName");
-
-      result.add(procedureName);
-    }
 
-    return result;
+    return readNames(endpoint, "procedure", "procedureName");
   }
 
   public List<String> getArtifactRepositories() throws Exception {
     String requestEndpoint = "/repositories";
-    String result = runRestAPI(requestEndpoint, GET);
-    JSONObject jsonObject = JSONObject.fromObject(result);
-    JSONArray arr = jsonObject.getJSONArray("repository");
-    List<String> repositories = new ArrayList<>();
-
-    for (int i = 0; i < arr.size(); i++) {
-      String repositoryName = arr.getJSONObject(i).getString("repositoryName");
-
-      repositories.add(repositoryName);
+    List<String> repositories = readNames(requestEndpoint, "repository", "repositoryName");
 
-      if (log.isDebugEnabled()) {
-        log.debug("Repository name: " + repositoryName);
-      }
+    if (log.isDebugEnabled()) {
+      log.debug("Repository names: " + repositories);
     }
 
     return repositories;
   }
 
-  private HttpsURLConnection getConnection(String endpoint) throws IOException {
-    URL url = new URL(this.electricFlowUrl + endpoint);
+  private CdHttpRequest newRequest(HttpMethod httpMethod, String endpoint, String sessionId)
+      throws IOException {
+    CdHttpRequest request =
+        new CdHttpRequest(httpMethod, this.electricFlowUrl + endpoint)
+            .setHeader("Accept", "application/json")
+            .setHeader("Content-Type", "application/json");
 
-    if (log.isDebugEnabled()) {
-      log.debug("Endpoint: " + url.toString());
+    if (sessionId != null) {
+      return request.setHeader("Cookie", "sessionId=" + sessionId);
     }
 
-    HttpsURLConnection conn = (HttpsURLConnection) url.openConnection();
     String authString = this.userName + ":" + this.password;
-
-    //
     byte[] encodedBytes = Base64.encodeBase64(authString.getBytes(CHARSET));
     String encoded = new String(encodedBytes, StandardCharsets.UTF_8);
 
-    conn.setRequestProperty("Authorization", "Basic " + encoded);
-    conn.setRequestProperty("Accept", "application/json");
+    return request.setHeader("Authorization", "Basic " + encoded);
+  }
+
+  /**
+   * Identifies the server and user of this client. Clients with equal keys share the CloudBees CD
+   * session and can be used interchangeably.
+   *
+   * @return session key
+   */
+  public String getSessionKey() {
+    return CdSessionManager.getSessionKey(electricFlowUrl, userName, password);
+  }
+
+  private CdHttpTransport getTransport() {
+    if (transport == null) {
+      transport = CdHttpTransports.forUrl(electricFlowUrl, ignoreSslConnectionErrors);
+    }
 
-    return conn;
+    return transport;
   }
 
   public String getElectricFlowUrl() {
@@ -525,26 +722,8 @@ public class ElectricFlowClient {
 
   public List<String> getEnvironments(String projectName) throws IOException {
     String endpoint = "/projects/" + Utils.encodeURL(projectName) + "/environments";
-    String jsonResult = runRestAPI(endpoint, GET);
-    List<String> result = new ArrayList<>();
-    JSONObject jsonObject = JSONObject.fromObject(jsonResult);
 
-    if (jsonObject.isEmpty()
-        || !jsonObject.containsKey("environment")
-        || !(jsonObject.get("environment") instanceof JSONArray)) {
-      return result;
-    }
-
-    JSONArray environments = jsonObject.getJSONArray("environment");
-
-    for (int i = 0; i < environments.size(); i++) {
-      JSONObject environmentObject = environments.getJSONObject(i);
-      String environment = environmentObject.getString("environmentName");
-
-      result.add(environment);
-    }
-
-    return result;
+    return readNames(endpoint, "environment", "environmentName");
   }
 
   public List<String> getFormalParameters(
@@ -558,28 +737,8 @@ public class ElectricFlowClient {
             + "/processes/"
             + Utils.encodeURL(applicationProcessName)
             + "/formalParameters";
-    String jsonResult = runRestAPI(endpoint, GET);
-    List<String> result = new ArrayList<>();
-    JSONObject jsonObject = JSONObject.fromObject(jsonResult);
 
-    if (jsonObject.isEmpty()) {
-      return result;
-    }
-
-    JSONArray environments = jsonObject.getJSONArray("formalParameter");
-
-    for (int i = 0; i < environments.size(); i++) {
-      JSONObject environmentObject = environments.getJSONObject(i);
-      String expansionDeferred = environmentObject.getString("expansionDeferred");
-
-      if ("0".equals(expansionDeferred)) {
-        String parameterName = environmentObject.getString("formalParameterName");
-
-        result.add(parameterName);
-      }
-    }
-
-    return result;
+    return getNotDeferredParameterNames(endpoint);
   }
 
   public List<String> getProcedureFormalParameters(String projectName, String procedureName)
@@ -590,30 +749,23 @@ public class ElectricFlowClient {
             + "/procedures/"
             + Utils.encodeURL(procedureName)
             + "/formalParameters";
-    String jsonResult = runRestAPI(endpoint, GET);
-    List<String> result = new ArrayList<>();
-    JSONObject jsonObject = JSONObject.fromObject(jsonResult);
-
-    if (jsonObject.isEmpty()
-        || !jsonObject.containsKey("formalParameter")
-        || !(jsonObject.get("formalParameter") instanceof JSONArray)) {
-      return result;
-    }
-
-    JSONArray environments = jsonObject.getJSONArray("formalParameter");
-
-    for (int i = 0; i < environments.size(); i++) {
-      JSONObject environmentObject = environments.getJSONObject(i);
-      String expansionDeferred = environmentObject.getString("expansionDeferred");
 
-      if ("0".equals(expansionDeferred)) {
-        String parameterName = environmentObject.getString("formalParameterName");
-
-        result.add(parameterName);
-      }
-    }
+    return getNotDeferredParameterNames(endpoint);
+  }
 
-    return result;
+  private List<String> getNotDeferredParameterNames(String endpoint) throws IOException {
+    List<FormalParameterData> parameters =
+        readList(
+            endpoint,
+            GET,
+            "",
+            GetFormalParametersResponseData.class,
+            GetFormalParametersResponseData::getFormalParameters);
+
+    return parameters.stream()
+        .filter(parameter -> !parameter.isExpansionDeferred())
+        .map(FormalParameterData::getFormalParameterName)
+        .collect(Collectors.toList());
   }
 
   private JSONArray getParameters(
@@ -659,21 +811,18 @@ public class ElectricFlowClient {
     obj.put("filter", filter);
     obj.put("objectType", "formalParameter");
 
-    String result = runRestAPI(requestEndpoint, PUT, obj.toString());
-    JSONObject jsonObject = JSONObject.fromObject(result);
+    List<FormalParameterData> parameters =
+        readList(
+            requestEndpoint,
+            PUT,
+            obj.toString(),
+            FindFormalParametersResponseData.class,
+            FindFormalParametersResponseData::getFormalParameters);
 
-    if (jsonObject.isEmpty()
-        || !jsonObject.containsKey("object")
-        || !(jsonObject.get("object") instanceof JSONArray)) {
-      return formalParameters;
-    }
+    for (FormalParameterData formalParameter : parameters) {
+      String parameterName = formalParameter.getFormalParameterName();
 
-    JSONArray arr = jsonObject.getJSONArray("object");
-    for (int i = 0; i < arr.size(); i++) {
-      String parameterName =
-          arr.getJSONObject(i).getJSONObject("formalParameter").getString("formalParameterName");
-
-      if (parameterName.equals("ec_stagesToRun")) {
+      if (parameterName == null || parameterName.equals("ec_stagesToRun")) {
         continue;
       }
 
@@ -712,24 +861,17 @@ public class ElectricFlowClient {
     obj.put("filter", filterTop);
     obj.put("objectType", "pipeline");
 
-    String result = runRestAPI(requestEndpoint, PUT, obj.toString());
-    JSONObject jsonObject = JSONObject.fromObject(result);
-
-    if (jsonObject.isEmpty()
-        || !jsonObject.containsKey("object")
-        || !(jsonObject.get("object") instanceof JSONArray)) {
-      return "";
-    }
-
-    JSONArray arr = jsonObject.getJSONArray("object");
-
-    for (int i = 0; i < arr.size(); i++) {
-      String pipelineName2 =
-          arr.getJSONObject(i).getJSONObject("pipeline").getString("pipelineName");
-      String pipelineId = arr.getJSONObject(i).getJSONObject("pipeline").getString("pipelineId");
-
-      if (pipelineName.equals(pipelineName2)) {
-        return pipelineId;
+    List<PipelineData> pipelines =
+        readList(
+            requestEndpoint,
+            PUT,
+            obj.toString(),
+            FindPipelinesResponseData.class,
+            FindPipelinesResponseData::getPipelines);
+
+    for (PipelineData pipeline : pipelines) {
+      if (pipelineName.equals(pipeline.getPipelineName())) {
+        return pipeline.getPipelineId();
       }
     }
 
@@ -742,6 +884,17 @@ public class ElectricFlowClient {
     return runRestAPI(requestEndpoint, GET);
   }
 
+  public List<PipelineData> getPipelineList(String projectName) throws IOException {
+    String requestEndpoint = "/projects/" + Utils.encodeURL(projectName) + "/pipelines";
+
+    return readList(
+        requestEndpoint,
+        GET,
+        "",
+        GetPipelinesResponseData.class,
+        GetPipelinesResponseData::getPipelines);
+  }
+
   public JSONObject getProcess(String projectName, String applicationName, String processName)
       throws IOException {
     String endpoint =
@@ -763,26 +916,8 @@ public class ElectricFlowClient {
             + "/applications/"
             + Utils.encodeURL(applicationName)
             + "/processes";
-    String jsonResult = runRestAPI(endpoint, GET);
-    List<String> result = new ArrayList<>();
-    JSONObject jsonObject = JSONObject.fromObject(jsonResult);
-
-    if (jsonObject.isEmpty()
-        || !jsonObject.containsKey("process")
-        || !(jsonObject.get("process") instanceof JSONArray)) {
-      return result;
-    }
-
-    JSONArray processes = jsonObject.getJSONArray("process");
 
-    for (int i = 0; i < processes.size(); i++) {
-      JSONObject applicationObject = processes.getJSONObject(i);
-      String process = applicationObject.getString("processName");
-
-      result.add(process);
-    }
-
-    return result;
+    return readNames(endpoint, "process", "processName");
   }
 
   public String getProjects() throws IOException {
@@ -791,6 +926,17 @@ public class ElectricFlowClient {
     return runRestAPI(requestEndpoint, GET);
   }
 
+  public List<ProjectData> getProjectList() throws IOException {
+    String requestEndpoint = "/projects";
+
+    return readList(
+        requestEndpoint,
+        GET,
+        "",
+        GetProjectsResponseData.class,
+        GetProjectsResponseData::getProjects);
+  }
+
   public Release getRelease(String configuration, String projectName, String releaseName)
       throws Exception {
 
@@ -875,53 +1021,45 @@ public class ElectricFlowClient {
     releasesList.clear();
 
     String requestEndpoint = "/projects/" + Utils.encodeURL(projectName) + "/releases";
-    String result = runRestAPI(requestEndpoint, GET);
-    JSONObject jsonObject = JSONObject.fromObject(result);
-
-    if (jsonObject.isEmpty()
-        || !jsonObject.containsKey("release")
-        || !(jsonObject.get("release") instanceof JSONArray)) {
-      return new ArrayList<>(0);
-    }
+    List<ReleaseData> releases =
+        readList(
+            requestEndpoint,
+            GET,
+            "",
+            GetReleasesResponseData.class,
+            GetReleasesResponseData::getReleases);
+
+    // Formal parameters are fetched on first access, once per pipeline
+    Map<String, List<String>> pipelineParameters = new ConcurrentHashMap<>();
+    Release.PipelineParametersLoader pipelineParametersLoader =
+        pipelineId -> {
+          if (pipelineId == null) {
+            return new ArrayList<>(0);
+          }
 
-    JSONArray releases = jsonObject.getJSONArray("release");
+          List<String> parameters = pipelineParameters.get(pipelineId);
 
-    for (int i = 0; i < releases.size(); i++) {
-      JSONObject releaseObject = releases.getJSONObject(i);
+          if (parameters == null) {
+            parameters = getPipelineFormalParameters(pipelineId);
+            pipelineParameters.put(pipelineId, parameters);
+          }
 
-      String gotReleaseId = releaseObject.getString("releaseId");
-      String gotReleaseName = releaseObject.getString("releaseName");
-      String gotPipelineName = releaseObject.getString("pipelineName");
-      String gotPipelineId = releaseObject.getString("pipelineId");
+          return parameters;
+        };
 
-      Release release = new Release(conf, projectName, gotReleaseName);
-      release.setPipelineName(gotPipelineName);
-      release.setPipelineId(gotPipelineId);
-      release.setPipelineParameters(getPipelineFormalParameters(gotPipelineId));
-      release.setReleaseId(gotReleaseId);
+    for (ReleaseData releaseData : releases) {
+      Release release = new Release(conf, projectName, releaseData.getReleaseName());
+      release.setPipelineName(releaseData.getPipelineName());
+      release.setPipelineId(releaseData.getPipelineId());
+      release.setPipelineParametersLoader(pipelineParametersLoader);
+      release.setReleaseId(releaseData.getReleaseId());
 
       // This can be missing if release wasn't run before
-      if (releaseObject.containsKey("flowRuntimeId")) {
-        release.setFlowRuntimeId(releaseObject.getString("flowRuntimeId"));
-      }
-
-      JSONObject stages = releaseObject.getJSONObject("stages");
-      if (!stages.isEmpty()) {
-        JSONArray stagesArray = stages.getJSONArray("stage");
-
-        if (stagesArray != null && !stagesArray.isEmpty()) {
-          List<String> stagesList = new ArrayList<>();
+      release.setFlowRuntimeId(releaseData.getFlowRuntimeId());
 
-          for (int j = 0; j < stagesArray.size(); j++) {
-            String stageName = stagesArray.getJSONObject(j).getString("name");
-            if (stagesList.contains(stageName)) {
-              continue;
-            }
-            stagesList.add(stageName);
-          }
-
-          release.setStartStages(stagesList);
-        }
+      List<String> stagesList = releaseData.getStageNames();
+      if (!stagesList.isEmpty()) {
+        release.setStartStages(stagesList);
       }
 
       releasesList.add(release);
@@ -934,40 +1072,213 @@ public class ElectricFlowClient {
     getSessionId();
   }
 
+  /**
+   * Logs in to CloudBees CD with the configured credentials. Always opens a new session, use
+   * {@link CdSessionManager} to share sessions between requests.
+   *
+   * @return new session id
+   * @throws IOException if the server cannot be reached
+   */
   public String getSessionId() throws IOException {
-    String requestEndpoint = "/sessions";
+    String requestEndpoint = apiVersion + "/sessions";
     JSONObject requestObject = new JSONObject();
 
     requestObject.put("userName", this.userName);
     requestObject.put("password", this.password);
 
-    String result = runRestAPI(requestEndpoint, POST, requestObject.toString());
+    String result =
+        getTransport()
+            .execute(
+                newRequest(POST, requestEndpoint, null)
+                    .setBody(requestObject.toString().getBytes(CHARSET)),
+                ElectricFlowClient::readResponse);
     JSONObject jsonObject = JSONObject.fromObject(result);
 
     return jsonObject.getString("sessionId");
   }
 
+  /**
+   * Ends a session opened by {@link #getSessionId()}. A failure is only logged, the session
+   * expires on the server anyway.
+   *
+   * @param sessionId session to end
+   */
+  private void logout(String sessionId) {
+    try {
+      getTransport()
+          .execute(
+              newRequest(DELETE, apiVersion + "/sessions", sessionId),
+              ElectricFlowClient::readResponse);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Failed to log out of the CloudBees CD session: " + e.getMessage());
+    }
+  }
+
   public GetJobStatusResponseData getCdJobStatus(String cdJobId) throws IOException {
     String requestEndpoint = "/jobs/" + cdJobId + "?request=getJobStatus";
-    String result = runRestAPI(requestEndpoint, GET);
-    GetJobStatusResponseData getJobStatusResponseData = new ObjectMapper()
-        .enable(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_USING_DEFAULT_VALUE)
-        .readValue(result, GetJobStatusResponseData.class);
-    getJobStatusResponseData.setContent(result);
+    byte[] result = readStatusBytes(requestEndpoint, GET, "");
+    GetJobStatusResponseData getJobStatusResponseData =
+        CdJsonReaders.read(result, GetJobStatusResponseData.class);
+
+    // Raw content is only needed to report responses that we were not able to interpret
+    if (getJobStatusResponseData.getStatus() == CdJobStatus.unknown) {
+      getJobStatusResponseData.setContent(new String(result, StandardCharsets.UTF_8));
+    }
+
     return getJobStatusResponseData;
   }
 
+  /**
+   * Requests the statuses of several jobs with a single findObjects call.
+   *
+   * @param cdJobIds job ids
+   * @return statuses by jobId, jobs that were not found are missing
+   * @throws IOException if the request fails
+   */
+  public Map<String, GetJobStatusResponseData> getCdJobStatuses(Collection<String> cdJobIds)
+      throws IOException {
+    String requestEndpoint = "/objects?request=findObjects";
+    JSONObject obj = new JSONObject();
+    JSONObject filterTop = new JSONObject();
+    JSONArray filters = new JSONArray();
+
+    for (String cdJobId : cdJobIds) {
+      JSONObject filterPerJob = new JSONObject();
+
+      filterPerJob.put("operator", "equals");
+      filterPerJob.put("propertyName", "jobId");
+      filterPerJob.put("operand1", cdJobId);
+      filters.add(filterPerJob);
+    }
+
+    filterTop.put("operator", "or");
+    filterTop.put("filter", filters);
+
+    obj.put("filter", filterTop);
+    obj.put("objectType", "job");
+    obj.put("maxIds", cdJobIds.size());
+    obj.put("numObjects", cdJobIds.size());
+
+    byte[] result = readStatusBytes(requestEndpoint, PUT, obj.toString());
+    Map<String, GetJobStatusResponseData> statuses = new HashMap<>();
+
+    for (GetJobStatusResponseData job :
+        CdJsonReaders.read(result, FindJobsResponseData.class).getJobs()) {
+      // Raw content is only needed to report responses that we were not able to interpret
+      if (job.getStatus() == CdJobStatus.unknown) {
+        job.setContent(new String(result, StandardCharsets.UTF_8));
+      }
+
+      statuses.put(job.getJobId(), job);
+    }
+
+    return statuses;
+  }
+
+  /**
+   * Aborts a running job.
+   *
+   * @param cdJobId job id
+   * @return response of the abortJob request
+   * @throws IOException if the request fails
+   */
+  public String abortCdJob(String cdJobId) throws IOException {
+    String requestEndpoint = "/jobs/" + cdJobId + "?request=abortJob";
+
+    return runRestAPI(requestEndpoint, POST);
+  }
+
+  public CompletableFuture<GetJobStatusResponseData> getCdJobStatusAsync(String cdJobId) {
+    return CdAsyncExecutor.supplyAsync(() -> getCdJobStatus(cdJobId));
+  }
+
   public GetPipelineRuntimeDetailsResponseData getCdPipelineRuntimeDetails(String flowRuntimeId)
       throws IOException {
     String requestEndpoint = "/pipelineRuntimeDetails?request=getPipelineRuntimeDetails";
-    String result =
-        runRestAPI(requestEndpoint, PUT, "{\"flowRuntimeId\":[\"" + flowRuntimeId + "\"]}");
-    GetPipelineRuntimeDetailsResponseData getPipelineRuntimeDetailsResponseData = new ObjectMapper()
-        .enable(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_USING_DEFAULT_VALUE)
-        .readValue(
-            JSONObject.fromObject(result).getJSONArray("flowRuntime").getJSONObject(0).toString(),
-            GetPipelineRuntimeDetailsResponseData.class);
-    getPipelineRuntimeDetailsResponseData.setContent(result);
+    byte[] result =
+        readStatusBytes(requestEndpoint, PUT, "{\"flowRuntimeId\":[\"" + flowRuntimeId + "\"]}");
+    List<GetPipelineRuntimeDetailsResponseData> flowRuntimes =
+        CdJsonReaders.read(result, GetPipelineRuntimesDetailsResponseData.class)
+            .getFlowRuntimes();
+
+    if (flowRuntimes.isEmpty()) {
+      throw new IOException(
+          "No pipeline runtime details returned for flowRuntimeId "
+              + flowRuntimeId
+              + ": "
+              + new String(result, StandardCharsets.UTF_8));
+    }
+
+    GetPipelineRuntimeDetailsResponseData getPipelineRuntimeDetailsResponseData =
+        flowRuntimes.get(0);
+
+    // Raw content is only needed to report responses that we were not able to interpret
+    if (getPipelineRuntimeDetailsResponseData.getStatus() == CdPipelineStatus.unknown) {
+      getPipelineRuntimeDetailsResponseData.setContent(new String(result, StandardCharsets.UTF_8));
+    }
+
     return getPipelineRuntimeDetailsResponseData;
   }
+
+  /**
+   * Requests the details of several pipeline runtimes with a single call.
+   *
+   * @param flowRuntimeIds flow runtime ids
+   * @return details by flowRuntimeId, runtimes that were not found are missing
+   * @throws IOException if the request fails
+   */
+  public Map<String, GetPipelineRuntimeDetailsResponseData> getCdPipelineRuntimeDetails(
+      Collection<String> flowRuntimeIds) throws IOException {
+    String requestEndpoint = "/pipelineRuntimeDetails?request=getPipelineRuntimeDetails";
+    JSONObject obj = new JSONObject();
+
+    obj.put("flowRuntimeId", JSONArray.fromObject(flowRuntimeIds));
+
+    byte[] result = readStatusBytes(requestEndpoint, PUT, obj.toString());
+    Map<String, GetPipelineRuntimeDetailsResponseData> details = new HashMap<>();
+
+    for (GetPipelineRuntimeDetailsResponseData flowRuntime :
+        CdJsonReaders.read(result, GetPipelineRuntimesDetailsResponseData.class)
+            .getFlowRuntimes()) {
+      // Raw content is only needed to report responses that we were not able to interpret
+      if (flowRuntime.getStatus() == CdPipelineStatus.unknown) {
+        flowRuntime.setContent(new String(result, StandardCharsets.UTF_8));
+      }
+
+      details.put(flowRuntime.getFlowRuntimeId(), flowRuntime);
+    }
+
+    return details;
+  }
+
+  /**
+   * Aborts a running pipeline runtime.
+   *
+   * @param flowRuntimeId flow runtime id
+   * @return response of the abortPipelineRuntime request
+   * @throws IOException if the request fails
+   */
+  public String abortCdPipelineRuntime(String flowRuntimeId) throws IOException {
+    String requestEndpoint = "/flowRuntimes/" + flowRuntimeId + "?request=abortPipelineRuntime";
+
+    return runRestAPI(requestEndpoint, POST);
+  }
+
+  public CompletableFuture<GetPipelineRuntimeDetailsResponseData> getCdPipelineRuntimeDetailsAsync(
+      String flowRuntimeId) {
+    return CdAsyncExecutor.supplyAsync(() -> getCdPipelineRuntimeDetails(flowRuntimeId));
+  }
+
+  public CompletableFuture<JSONObject> attachCIBuildDetailsAsync(CIBuildDetail details) {
+    return CdAsyncExecutor.supplyAsync(() -> attachCIBuildDetails(details));
+  }
+
+  private static class SessionRejectedException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    SessionRejectedException() {
+      super("CloudBees CD session was rejected");
+    }
+  }
 }
@@ -38,7 +38,6 @@ import java.io.PrintStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
 import jenkins.tasks.SimpleBuildStep;
 import net.sf.json.JSONArray;
@@ -46,15 +45,17 @@ import net.sf.json.JSONObject;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.jenkinsci.Symbol;
+import org.jenkinsci.plugins.electricflow.cache.CdMetadataCache;
+import org.jenkinsci.plugins.electricflow.cache.CdMetadataCache.MetadataType;
 import org.jenkinsci.plugins.electricflow.exceptions.PluginException;
 import org.jenkinsci.plugins.electricflow.factories.ElectricFlowClientFactory;
-import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdJobOutcome;
-import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdJobStatus;
-import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.GetJobStatusResponseData;
+import org.jenkinsci.plugins.electricflow.runandwait.CdPendingRunsAction;
+import org.jenkinsci.plugins.electricflow.runandwait.CdRunType;
+import org.jenkinsci.plugins.electricflow.runandwait.CdRunWaiter;
 import org.jenkinsci.plugins.electricflow.ui.FieldValidationStatus;
-import org.jenkinsci.plugins.electricflow.ui.HtmlUtils;
 import org.jenkinsci.plugins.electricflow.ui.SelectFieldUtils;
 import org.jenkinsci.plugins.electricflow.ui.SelectItemValidationWrapper;
+import org.jenkinsci.plugins.electricflow.ui.SummaryTable;
 import org.kohsuke.stapler.AncestorInPath;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
@@ -141,45 +142,31 @@ public class ElectricFlowDeployApplication extends Recorder implements SimpleBui
       args.put("result", result);
       args.put("applicationId", process.getJSONObject("process").getString("applicationId"));
 
-      String summaryHtml = getSummaryHtml(efClient, parameter, args, null);
-      SummaryTextAction action = new SummaryTextAction(run, summaryHtml);
+      SummaryTable summary = getSummary(efClient, parameter, args);
+      SummaryTextAction action = new SummaryTextAction(run, summary);
+
+      String jobId = JSONObject.fromObject(result).optString("jobId", null);
+
+      if (runAndWaitOption == null) {
+        CdPendingRunsAction.addPendingRun(
+            run, configuration, overrideCredential, env, CdRunType.JOB, jobId);
+      }
 
       run.addAction(action);
       run.save();
       logger.println("Deploy application result: " + formatJsonOutput(result));
 
       if (runAndWaitOption != null) {
-        int checkInterval = runAndWaitOption.getCheckInterval();
-
-        logger.println(
-            "Waiting till CloudBees CD job is completed, checking every "
-                + checkInterval
-                + " seconds");
-
-        String jobId = JSONObject.fromObject(result).getString("jobId");
-        GetJobStatusResponseData getJobStatusResponseData;
-        do {
-          TimeUnit.SECONDS.sleep(checkInterval);
-
-          getJobStatusResponseData = efClient.getCdJobStatus(jobId);
-          logger.println(getJobStatusResponseData);
-
-          summaryHtml = getSummaryHtml(efClient, parameter, args, getJobStatusResponseData);
-          action = new SummaryTextAction(run, summaryHtml);
-          run.addOrReplaceAction(action);
-          run.save();
-          if (getJobStatusResponseData.getStatus() == CdJobStatus.unknown) {
-            throw new PluginException("Unexpected format of CD job status response");
-          }
-        } while (getJobStatusResponseData.getStatus() != CdJobStatus.completed);
-
-        if (runAndWaitOption.isDependOnCdJobOutcome()) {
-          if (getJobStatusResponseData.getOutcome() == CdJobOutcome.error
-              || getJobStatusResponseData.getOutcome() == CdJobOutcome.unknown) {
-            throw new PluginException(
-                "CD job completed with " + getJobStatusResponseData.getOutcome() + " outcome");
-          }
-        }
+        CdRunWaiter.waitFor(
+            efClient,
+            CdRunType.JOB,
+            jobId,
+            runAndWaitOption,
+            run,
+            logger,
+            status -> {
+              run.addOrReplaceAction(new SummaryTextAction(run, status.addTo(summary.copy())));
+            });
       }
     } catch (PluginException | InterruptedException | IOException e) {
       logger.println(e.getMessage());
@@ -299,11 +286,8 @@ public class ElectricFlowDeployApplication extends Recorder implements SimpleBui
     return BuildStepMonitor.NONE;
   }
 
-  private String getSummaryHtml(
-      ElectricFlowClient configuration,
-      JSONArray parameters,
-      Map<String, String> args,
-      GetJobStatusResponseData getJobStatusResponseData) {
+  private SummaryTable getSummary(
+      ElectricFlowClient configuration, JSONArray parameters, Map<String, String> args) {
     String result = args.get("result");
     String applicationName = args.get("applicationName");
     String processId = args.get("processId");
@@ -318,48 +302,11 @@ public class ElectricFlowDeployApplication extends Recorder implements SimpleBui
             + "/"
             + jobId
             + "/runningProcess";
-    String summaryText =
-        "<h3>CloudBees CD Deploy Application</h3>"
-            + "<table cellspacing=\"2\" cellpadding=\"4\"> \n"
-            + "  <tr>\n"
-            + "    <td>Application Name:</td>\n"
-            + "    <td><a href='"
-            + HtmlUtils.encodeForHtml(applicationUrl)
-            + "'>"
-            + HtmlUtils.encodeForHtml(applicationName)
-            + "</a></td>   \n"
-            + "  </tr>\n"
-            + "  <tr>\n"
-            + "    <td>Deploy run URL:</td>\n"
-            + "    <td><a href='"
-            + HtmlUtils.encodeForHtml(deployRunUrl)
-            + "'>"
-            + HtmlUtils.encodeForHtml(deployRunUrl)
-            + "</a></td>   \n"
-            + "  </tr>";
-
-    summaryText = Utils.getParametersHTML(parameters, summaryText, "actualParameterName", "value");
-    if (getJobStatusResponseData != null) {
-      summaryText =
-          summaryText
-              + "  <tr>\n"
-              + "    <td>CD Job Status:</td>\n"
-              + "    <td>\n"
-              + HtmlUtils.encodeForHtml(getJobStatusResponseData.getStatus().name())
-              + "    </td>\n"
-              + "  </tr>\n";
-      summaryText =
-          summaryText
-              + "  <tr>\n"
-              + "    <td>CD Job Outcome:</td>\n"
-              + "    <td>\n"
-              + HtmlUtils.encodeForHtml(getJobStatusResponseData.getOutcome().name())
-              + "    </td>\n"
-              + "  </tr>\n";
-    }
-    summaryText = summaryText + "</table>";
 
-    return summaryText;
+    return new SummaryTable("CloudBees CD Deploy Application")
+        .addLink("Application Name:", applicationUrl, applicationName)
+        .addLink("Deploy run URL:", deployRunUrl, deployRunUrl)
+        .addParameters(parameters, "actualParameterName", "value");
   }
 
   @Symbol("cloudBeesFlowDeployApplication")
@@ -493,8 +440,14 @@ public class ElectricFlowDeployApplication extends Recorder implements SimpleBui
           ElectricFlowClient client =
               ElectricFlowClientFactory.getElectricFlowClient(
                   configuration, overrideCredentialObj, null, true);
-
-          List<String> applications = client.getApplications(projectName);
+          List<String> applications =
+              CdMetadataCache.get()
+                  .get(
+                      configuration,
+                      client,
+                      MetadataType.APPLICATIONS,
+                      () -> client.getApplications(projectName),
+                      projectName);
 
           for (String application : applications) {
             m.add(application);
@@ -541,7 +494,15 @@ public class ElectricFlowDeployApplication extends Recorder implements SimpleBui
           ElectricFlowClient client =
               ElectricFlowClientFactory.getElectricFlowClient(
                   configuration, overrideCredentialObj, null, true);
-          List<String> processes = client.getProcesses(projectName, applicationName);
+          List<String> processes =
+              CdMetadataCache.get()
+                  .get(
+                      configuration,
+                      client,
+                      MetadataType.APPLICATION_PROCESSES,
+                      () -> client.getProcesses(projectName, applicationName),
+                      projectName,
+                      applicationName);
 
           for (String process : processes) {
             m.add(process);
@@ -601,10 +562,6 @@ public class ElectricFlowDeployApplication extends Recorder implements SimpleBui
         }
 
         Credential overrideCredentialObj = overrideCredential ? new Credential(credentialId) : null;
-        ElectricFlowClient client =
-            ElectricFlowClientFactory.getElectricFlowClient(
-                configuration, overrideCredentialObj, null, true);
-
         Map<String, String> storedParams = new HashMap<>();
 
         String deployParametersValue = getSelectItemValue(deployParameters);
@@ -620,8 +577,21 @@ public class ElectricFlowDeployApplication extends Recorder implements SimpleBui
           }
         }
 
+        ElectricFlowClient client =
+            ElectricFlowClientFactory.getElectricFlowClient(
+                configuration, overrideCredentialObj, null, true);
         List<String> parameters =
-            client.getFormalParameters(projectName, applicationName, applicationProcessName);
+            CdMetadataCache.get()
+                .get(
+                    configuration,
+                    client,
+                    MetadataType.APPLICATION_PROCESS_PARAMETERS,
+                    () ->
+                        client.getFormalParameters(
+                            projectName, applicationName, applicationProcessName),
+                    projectName,
+                    applicationName,
+                    applicationProcessName);
         JSONObject main =
             JSONObject.fromObject(
                 "{'runProcess':{'applicationName':'"
@@ -687,7 +657,14 @@ public class ElectricFlowDeployApplication extends Recorder implements SimpleBui
           ElectricFlowClient client =
               ElectricFlowClientFactory.getElectricFlowClient(
                   configuration, overrideCredentialObj, null, true);
-          List<String> environments = client.getEnvironments(projectName);
+          List<String> environments =
+              CdMetadataCache.get()
+                  .get(
+                      configuration,
+                      client,
+                      MetadataType.ENVIRONMENTS,
+                      () -> client.getEnvironments(projectName),
+                      projectName);
 
           for (String environment : environments) {
             m.add(environment);
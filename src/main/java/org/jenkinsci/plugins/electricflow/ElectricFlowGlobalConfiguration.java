@@ -9,12 +9,18 @@
 package org.jenkinsci.plugins.electricflow;
 
 import hudson.Extension;
+import hudson.util.FormValidation;
 import java.util.List;
 import jenkins.model.GlobalConfiguration;
+import jenkins.model.Jenkins;
 import net.sf.json.JSONObject;
 import org.jenkinsci.Symbol;
+import org.jenkinsci.plugins.electricflow.cache.CdMetadataCache;
+import org.jenkinsci.plugins.electricflow.health.CdConnectionHealthMonitor;
+import org.jenkinsci.plugins.electricflow.transport.CdHttpTransports;
 import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.interceptor.RequirePOST;
 
 @Extension
 @Symbol("electricflow")
@@ -38,10 +44,25 @@ public class ElectricFlowGlobalConfiguration extends GlobalConfiguration {
     this.configurations = null;
     req.bindJSON(this, formData);
     save();
+    CdHttpTransports.retainConfigurations(configurations);
+    CdConnectionHealthMonitor.get().retainConfigurations(configurations);
+    CdMetadataCache.get().flush();
 
     return true;
   }
 
+  @RequirePOST
+  public FormValidation doFlushMetadataCache() {
+    Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+
+    CdMetadataCache cache = CdMetadataCache.get();
+    String statistics = cache.getStatistics();
+    int flushed = cache.flush();
+
+    return FormValidation.ok(
+        "Flushed " + flushed + " cached entries. Statistics before flush: " + statistics);
+  }
+
   public List<Configuration> getConfigurations() {
     return this.configurations;
   }
@@ -49,6 +70,9 @@ public class ElectricFlowGlobalConfiguration extends GlobalConfiguration {
   @DataBoundSetter
   public void setConfigurations(List<Configuration> configurations) {
     this.configurations = configurations;
+    CdHttpTransports.retainConfigurations(configurations);
+    CdConnectionHealthMonitor.get().retainConfigurations(configurations);
+    CdMetadataCache.get().flush();
   }
 
   /*
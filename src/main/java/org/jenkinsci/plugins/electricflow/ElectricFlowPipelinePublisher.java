@@ -41,7 +41,6 @@ import java.io.PrintStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
 import javax.servlet.ServletException;
 import jenkins.tasks.SimpleBuildStep;
@@ -50,17 +49,19 @@ import net.sf.json.JSONObject;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.jenkinsci.Symbol;
+import org.jenkinsci.plugins.electricflow.cache.CdMetadataCache;
+import org.jenkinsci.plugins.electricflow.cache.CdMetadataCache.MetadataType;
 import org.jenkinsci.plugins.electricflow.data.CloudBeesFlowBuildData;
-import org.jenkinsci.plugins.electricflow.exceptions.PluginException;
 import org.jenkinsci.plugins.electricflow.factories.ElectricFlowClientFactory;
 import org.jenkinsci.plugins.electricflow.models.CIBuildDetail;
 import org.jenkinsci.plugins.electricflow.models.CIBuildDetail.BuildAssociationType;
-import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdPipelineStatus;
-import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.GetPipelineRuntimeDetailsResponseData;
+import org.jenkinsci.plugins.electricflow.runandwait.CdPendingRunsAction;
+import org.jenkinsci.plugins.electricflow.runandwait.CdRunType;
+import org.jenkinsci.plugins.electricflow.runandwait.CdRunWaiter;
 import org.jenkinsci.plugins.electricflow.ui.FieldValidationStatus;
-import org.jenkinsci.plugins.electricflow.ui.HtmlUtils;
 import org.jenkinsci.plugins.electricflow.ui.SelectFieldUtils;
 import org.jenkinsci.plugins.electricflow.ui.SelectItemValidationWrapper;
+import org.jenkinsci.plugins.electricflow.ui.SummaryTable;
 import org.kohsuke.stapler.AncestorInPath;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
@@ -175,8 +176,8 @@ public class ElectricFlowPipelinePublisher extends Recorder implements SimpleBui
         pipelineResult = efClient.runPipeline(projectName, pipelineName, parameters);
       }
 
-      String summaryHtml = getSummaryHtml(efClient, pipelineResult, parameters, null);
-      SummaryTextAction action = new SummaryTextAction(run, summaryHtml);
+      SummaryTable summary = getSummary(efClient, pipelineResult, parameters);
+      SummaryTextAction action = new SummaryTextAction(run, summary);
 
       String flowRuntimeId = getFlowRuntimeIdFromResponse(pipelineResult);
       String projectName = getProjectNameFromResponse(pipelineResult);
@@ -204,43 +205,31 @@ public class ElectricFlowPipelinePublisher extends Recorder implements SimpleBui
         log.info("Can't attach CIBuildData to the pipeline run: " + exception.getMessage());
       }
 
+      if (runAndWaitOption == null) {
+        CdPendingRunsAction.addPendingRun(
+            run,
+            configuration,
+            overrideCredential,
+            env,
+            CdRunType.PIPELINE_RUNTIME,
+            flowRuntimeId);
+      }
+
       run.addAction(action);
       run.save();
       logger.println("Pipeline triggered. Response JSON: " + formatJsonOutput(pipelineResult));
 
       if (runAndWaitOption != null) {
-        int checkInterval = runAndWaitOption.getCheckInterval();
-
-        logger.println(
-            "Waiting till CloudBees CD pipeline is completed, checking every "
-                + checkInterval
-                + " seconds");
-
-        GetPipelineRuntimeDetailsResponseData getPipelineRuntimeDetailsResponseData;
-        do {
-          TimeUnit.SECONDS.sleep(checkInterval);
-
-          getPipelineRuntimeDetailsResponseData =
-              efClient.getCdPipelineRuntimeDetails(flowRuntimeId);
-          logger.println(getPipelineRuntimeDetailsResponseData);
-
-          summaryHtml =
-              getSummaryHtml(
-                  efClient, pipelineResult, parameters, getPipelineRuntimeDetailsResponseData);
-          action = new SummaryTextAction(run, summaryHtml);
-          run.addOrReplaceAction(action);
-          run.save();
-        } while (!getPipelineRuntimeDetailsResponseData.isCompleted());
-
-        if (runAndWaitOption.isDependOnCdJobOutcome()) {
-          if (getPipelineRuntimeDetailsResponseData.getStatus() != CdPipelineStatus.success
-              && getPipelineRuntimeDetailsResponseData.getStatus() != CdPipelineStatus.warning) {
-            throw new PluginException(
-                "CD pipeline completed with "
-                    + getPipelineRuntimeDetailsResponseData.getStatus()
-                    + " status");
-          }
-        }
+        CdRunWaiter.waitFor(
+            efClient,
+            CdRunType.PIPELINE_RUNTIME,
+            flowRuntimeId,
+            runAndWaitOption,
+            run,
+            logger,
+            status -> {
+              run.addOrReplaceAction(new SummaryTextAction(run, status.addTo(summary.copy())));
+            });
       }
 
     } catch (Exception e) {
@@ -372,65 +361,19 @@ public class ElectricFlowPipelinePublisher extends Recorder implements SimpleBui
     return projectName;
   }
 
-  private String getSummaryHtml(
-      ElectricFlowClient efClient,
-      String pipelineResult,
-      JSONArray parameters,
-      GetPipelineRuntimeDetailsResponseData getPipelineRuntimeDetailsResponseData) {
+  private SummaryTable getSummary(
+      ElectricFlowClient efClient, String pipelineResult, JSONArray parameters) {
     JSONObject flowRuntime = JSONObject.fromObject(pipelineResult).getJSONObject("flowRuntime");
     String pipelineId = (String) flowRuntime.get("pipelineId");
     String flowRuntimeId = (String) flowRuntime.get("flowRuntimeId");
     String url =
         efClient.getElectricFlowUrl() + "/flow/#pipeline-run/" + pipelineId + "/" + flowRuntimeId;
-    String summaryText =
-        "<h3>CloudBees CD Run Pipeline</h3>"
-            + "<table cellspacing=\"2\" cellpadding=\"4\"> \n"
-            + "  <tr>\n"
-            + "    <td>Pipeline URL:</td>\n"
-            + "    <td><a href='"
-            + HtmlUtils.encodeForHtml(url)
-            + "'>"
-            + HtmlUtils.encodeForHtml(url)
-            + "</a></td>   \n"
-            + "  </tr>\n"
-            + "  <tr>\n"
-            + "    <td>Pipeline Name:</td>\n"
-            + "    <td><a href='"
-            + HtmlUtils.encodeForHtml(url)
-            + "'>"
-            + HtmlUtils.encodeForHtml(pipelineName)
-            + "</a></td>   \n"
-            + "  </tr>\n"
-            + "  <tr>\n"
-            + "    <td>Project Name:</td>\n"
-            + "    <td>"
-            + HtmlUtils.encodeForHtml(projectName)
-            + "</td>    \n"
-            + "  </tr>";
-
-    summaryText =
-        Utils.getParametersHTML(parameters, summaryText, "parameterName", "parameterValue");
-    if (getPipelineRuntimeDetailsResponseData != null) {
-      summaryText =
-          summaryText
-              + "  <tr>\n"
-              + "    <td>CD Pipeline Completed:</td>\n"
-              + "    <td>\n"
-              + getPipelineRuntimeDetailsResponseData.isCompleted()
-              + "    </td>\n"
-              + "  </tr>\n";
-      summaryText =
-          summaryText
-              + "  <tr>\n"
-              + "    <td>CD Pipeline Status:</td>\n"
-              + "    <td>\n"
-              + HtmlUtils.encodeForHtml(getPipelineRuntimeDetailsResponseData.getStatus().name())
-              + "    </td>\n"
-              + "  </tr>\n";
-    }
-    summaryText = summaryText + "</table>";
 
-    return summaryText;
+    return new SummaryTable("CloudBees CD Run Pipeline")
+        .addLink("Pipeline URL:", url, url)
+        .addLink("Pipeline Name:", url, pipelineName)
+        .add("Project Name:", projectName)
+        .addParameters(parameters, "parameterName", "parameterValue");
   }
 
   // ~ Inner Classes ----------------------------------------------------------
@@ -565,7 +508,15 @@ public class ElectricFlowPipelinePublisher extends Recorder implements SimpleBui
         ElectricFlowClient efClient =
             ElectricFlowClientFactory.getElectricFlowClient(
                 configuration, overrideCredentialObj, null, true);
-        List<String> parameters = efClient.getPipelineFormalParameters(projectName, pipelineName);
+        List<String> parameters =
+            CdMetadataCache.get()
+                .get(
+                    configuration,
+                    efClient,
+                    MetadataType.PIPELINE_PARAMETERS,
+                    () -> efClient.getPipelineFormalParameters(projectName, pipelineName),
+                    projectName,
+                    pipelineName);
         JSONObject main =
             JSONObject.fromObject(
                 "{'pipeline':{'pipelineName':'" + pipelineName + "','parameters':[]}}");
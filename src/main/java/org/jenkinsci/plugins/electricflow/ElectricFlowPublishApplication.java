@@ -39,7 +39,6 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
 import jenkins.tasks.SimpleBuildStep;
 import net.sf.json.JSONObject;
@@ -48,10 +47,10 @@ import org.apache.commons.logging.LogFactory;
 import org.jenkinsci.Symbol;
 import org.jenkinsci.plugins.electricflow.exceptions.PluginException;
 import org.jenkinsci.plugins.electricflow.factories.ElectricFlowClientFactory;
-import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdJobOutcome;
-import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdJobStatus;
-import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.GetJobStatusResponseData;
-import org.jenkinsci.plugins.electricflow.ui.HtmlUtils;
+import org.jenkinsci.plugins.electricflow.runandwait.CdPendingRunsAction;
+import org.jenkinsci.plugins.electricflow.runandwait.CdRunType;
+import org.jenkinsci.plugins.electricflow.runandwait.CdRunWaiter;
+import org.jenkinsci.plugins.electricflow.ui.SummaryTable;
 import org.kohsuke.stapler.AncestorInPath;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
@@ -214,51 +213,30 @@ public class ElectricFlowPublishApplication extends Recorder implements SimpleBu
       logger.println(
           "Flow response on triggering CreateApplicationFromDeploymentPackage: " + deployResponse);
 
-      String summaryHtml =
-          getSummaryHtml(efClient, deployResponse, workspace.getRemote(), logger, null);
-      SummaryTextAction action = new SummaryTextAction(run, summaryHtml);
+      SummaryTable summary = getSummary(efClient, deployResponse, workspace.getRemote(), logger);
+      SummaryTextAction action = new SummaryTextAction(run, summary);
+
+      String jobId = JSONObject.fromObject(deployResponse).optString("jobId", null);
+
+      if (runAndWaitOption == null) {
+        CdPendingRunsAction.addPendingRun(
+            run, configuration, overrideCredential, env, CdRunType.JOB, jobId);
+      }
 
       run.addAction(action);
       run.save();
 
       if (runAndWaitOption != null) {
-        int checkInterval = runAndWaitOption.getCheckInterval();
-
-        logger.println(
-            "Waiting till CloudBees CD job is completed, checking every "
-                + checkInterval
-                + " seconds");
-
-        String jobId = JSONObject.fromObject(deployResponse).getString("jobId");
-        GetJobStatusResponseData getJobStatusResponseData;
-        do {
-          TimeUnit.SECONDS.sleep(checkInterval);
-
-          getJobStatusResponseData = efClient.getCdJobStatus(jobId);
-          logger.println(getJobStatusResponseData);
-
-          summaryHtml =
-              getSummaryHtml(
-                  efClient,
-                  deployResponse,
-                  workspace.getRemote(),
-                  logger,
-                  getJobStatusResponseData);
-          action = new SummaryTextAction(run, summaryHtml);
-          run.addOrReplaceAction(action);
-          run.save();
-          if (getJobStatusResponseData.getStatus() == CdJobStatus.unknown) {
-            throw new PluginException("Unexpected format of CD job status response");
-          }
-        } while (getJobStatusResponseData.getStatus() != CdJobStatus.completed);
-
-        if (runAndWaitOption.isDependOnCdJobOutcome()) {
-          if (getJobStatusResponseData.getOutcome() == CdJobOutcome.error
-              || getJobStatusResponseData.getOutcome() == CdJobOutcome.unknown) {
-            throw new PluginException(
-                "CD job completed with " + getJobStatusResponseData.getOutcome() + " outcome");
-          }
-        }
+        CdRunWaiter.waitFor(
+            efClient,
+            CdRunType.JOB,
+            jobId,
+            runAndWaitOption,
+            run,
+            logger,
+            status -> {
+              run.addOrReplaceAction(new SummaryTextAction(run, status.addTo(summary.copy())));
+            });
       }
     } catch (PluginException
         | IOException
@@ -318,41 +296,19 @@ public class ElectricFlowPublishApplication extends Recorder implements SimpleBu
     return BuildStepMonitor.NONE;
   }
 
-  private String getSummaryHtml(
-      ElectricFlowClient efClient,
-      String deployResponse,
-      String workspaceDir,
-      PrintStream logger,
-      GetJobStatusResponseData getJobStatusResponseData) {
+  private SummaryTable getSummary(
+      ElectricFlowClient efClient, String deployResponse, String workspaceDir, PrintStream logger) {
     String url = efClient.getElectricFlowUrl() + "/flow/#applications";
     String jobId = JSONObject.fromObject(deployResponse).getString("jobId");
     String jobUrl = efClient.getElectricFlowUrl() + "/commander/link/jobDetails/jobs/" + jobId;
-    String summaryText =
-        "<h3>CloudBees CD Create/Deploy Application from Deployment Package</h3>"
-            + "<table cellspacing=\"2\" cellpadding=\"4\"> \n"
-            + "  <tr>\n"
-            + "    <td>Application URL:</td>\n"
-            + "    <td><a href='"
-            + HtmlUtils.encodeForHtml(url)
-            + "'>"
-            + HtmlUtils.encodeForHtml(url)
-            + "</a></td>   \n"
-            + "  </tr>\n"
-            + "  <tr>\n"
-            + "    <td>CloudBees CD Job:</td>\n"
-            + "    <td><a href='"
-            + HtmlUtils.encodeForHtml(jobUrl)
-            + "'>link to createApplicationFromDeploymentPackage job</a></td>   \n"
-            + "  </tr>\n";
+    SummaryTable summary =
+        new SummaryTable("CloudBees CD Create/Deploy Application from Deployment Package")
+            .addLink("Application URL:", url, url)
+            .addLink(
+                "CloudBees CD Job:", jobUrl, "link to createApplicationFromDeploymentPackage job");
 
     if (!zipFiles.isEmpty()) {
-      StringBuilder strBuilder = new StringBuilder(summaryText);
-
-      strBuilder.append(
-          "  <tr>\n"
-              + "    <td><b>Deployment Package Details:</b></td>\n"
-              + "    <td></td>    \n"
-              + "  </tr>\n");
+      summary.addSection("Deployment Package Details:");
 
       String jsonContent = "";
 
@@ -378,48 +334,15 @@ public class ElectricFlowPublishApplication extends Recorder implements SimpleBu
           continue;
         }
 
-        strBuilder
-            .append("  <tr>\n" + "    <td>&nbsp;&nbsp;&nbsp;&nbsp;")
-            .append(HtmlUtils.encodeForHtml(fileName))
-            .append("</td>\n" + "    <td>")
-            .append("</td>    \n" + "  </tr>\n");
+        summary.addItem(fileName, null);
       }
 
       if (!jsonContent.isEmpty()) {
-        strBuilder
-            .append("  <tr>\n" + "    <td>&nbsp;&nbsp;&nbsp;&nbsp;")
-            .append(HtmlUtils.encodeForHtml(MANIFEST_NAME))
-            .append("</td>\n" + "    <td>")
-            .append("<pre>")
-            .append(HtmlUtils.encodeForHtml(jsonContent))
-            .append("</pre>")
-            .append("</td>    \n" + "  </tr>\n");
+        summary.addPreformatted(MANIFEST_NAME, jsonContent);
       }
-
-      summaryText = strBuilder.toString();
     }
-    if (getJobStatusResponseData != null) {
-      summaryText =
-          summaryText
-              + "  <tr>\n"
-              + "    <td>CD Job Status:</td>\n"
-              + "    <td>\n"
-              + HtmlUtils.encodeForHtml(getJobStatusResponseData.getStatus().name())
-              + "    </td>\n"
-              + "  </tr>\n";
-      summaryText =
-          summaryText
-              + "  <tr>\n"
-              + "    <td>CD Job Outcome:</td>\n"
-              + "    <td>\n"
-              + HtmlUtils.encodeForHtml(getJobStatusResponseData.getOutcome().name())
-              + "    </td>\n"
-              + "  </tr>\n";
-    }
-
-    summaryText = summaryText + "</table>";
 
-    return summaryText;
+    return summary;
   }
 
   // ~ Inner Classes ----------------------------------------------------------
@@ -39,7 +39,6 @@ import java.io.PrintStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 import java.util.Optional;
 import javax.annotation.Nonnull;
 import jenkins.tasks.SimpleBuildStep;
@@ -48,15 +47,17 @@ import net.sf.json.JSONObject;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.jenkinsci.Symbol;
+import org.jenkinsci.plugins.electricflow.cache.CdMetadataCache;
+import org.jenkinsci.plugins.electricflow.cache.CdMetadataCache.MetadataType;
 import org.jenkinsci.plugins.electricflow.exceptions.PluginException;
 import org.jenkinsci.plugins.electricflow.factories.ElectricFlowClientFactory;
-import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdJobOutcome;
-import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdJobStatus;
-import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.GetJobStatusResponseData;
+import org.jenkinsci.plugins.electricflow.runandwait.CdPendingRunsAction;
+import org.jenkinsci.plugins.electricflow.runandwait.CdRunType;
+import org.jenkinsci.plugins.electricflow.runandwait.CdRunWaiter;
 import org.jenkinsci.plugins.electricflow.ui.FieldValidationStatus;
-import org.jenkinsci.plugins.electricflow.ui.HtmlUtils;
 import org.jenkinsci.plugins.electricflow.ui.SelectFieldUtils;
 import org.jenkinsci.plugins.electricflow.ui.SelectItemValidationWrapper;
+import org.jenkinsci.plugins.electricflow.ui.SummaryTable;
 import org.kohsuke.stapler.AncestorInPath;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
@@ -114,45 +115,30 @@ public class ElectricFlowRunProcedure extends Recorder implements SimpleBuildSte
       args.put("procedureName", procedureName);
       args.put("result", result);
 
-      String summaryHtml = getSummaryHtml(efClient, parameter, args, null);
-      SummaryTextAction action = new SummaryTextAction(run, summaryHtml);
+      SummaryTable summary = getSummary(efClient, parameter, args);
+      SummaryTextAction action = new SummaryTextAction(run, summary);
+
+      String jobId = JSONObject.fromObject(result).optString("jobId", null);
+
+      if (runAndWaitOption == null) {
+        CdPendingRunsAction.addPendingRun(
+            run, configuration, overrideCredential, env, CdRunType.JOB, jobId);
+      }
 
       run.addAction(action);
       run.save();
 
       if (runAndWaitOption != null) {
-        int checkInterval = runAndWaitOption.getCheckInterval();
-
-        logger.println(
-            "Waiting till CloudBees CD job is completed, checking every "
-                + checkInterval
-                + " seconds");
-
-        String jobId = JSONObject.fromObject(result).getString("jobId");
-        GetJobStatusResponseData getJobStatusResponseData;
-        do {
-          TimeUnit.SECONDS.sleep(checkInterval);
-
-          getJobStatusResponseData = efClient.getCdJobStatus(jobId);
-          logger.println(getJobStatusResponseData);
-
-          summaryHtml =
-              getSummaryHtml(efClient, parameter, args, getJobStatusResponseData);
-          action = new SummaryTextAction(run, summaryHtml);
-          run.addOrReplaceAction(action);
-          run.save();
-          if (getJobStatusResponseData.getStatus() == CdJobStatus.unknown) {
-            throw new PluginException("Unexpected format of CD job status response");
-          }
-        } while (getJobStatusResponseData.getStatus() != CdJobStatus.completed);
-
-        if (runAndWaitOption.isDependOnCdJobOutcome()) {
-          if (getJobStatusResponseData.getOutcome() == CdJobOutcome.error
-              || getJobStatusResponseData.getOutcome() == CdJobOutcome.unknown) {
-            throw new PluginException(
-                "CD job completed with " + getJobStatusResponseData.getOutcome() + " outcome");
-          }
-        }
+        CdRunWaiter.waitFor(
+            efClient,
+            CdRunType.JOB,
+            jobId,
+            runAndWaitOption,
+            run,
+            logger,
+            status -> {
+              run.addOrReplaceAction(new SummaryTextAction(run, status.addTo(summary.copy())));
+            });
       }
     } catch (PluginException | IOException | InterruptedException e) {
       logger.println(e.getMessage());
@@ -238,50 +224,16 @@ public class ElectricFlowRunProcedure extends Recorder implements SimpleBuildSte
     return BuildStepMonitor.NONE;
   }
 
-  private String getSummaryHtml(
-      ElectricFlowClient configuration,
-      JSONArray parameters,
-      Map<String, String> args,
-      GetJobStatusResponseData getJobStatusResponseData) {
+  private SummaryTable getSummary(
+      ElectricFlowClient configuration, JSONArray parameters, Map<String, String> args) {
     String result = args.get("result");
     String procedureName = args.get("procedureName");
     String jobId = JSONObject.fromObject(result).getString("jobId");
     String jobUrl = configuration.getElectricFlowUrl() + "/commander/link/jobDetails/jobs/" + jobId;
-    String summaryText =
-        "<h3>CloudBees CD Run Procedure</h3>"
-            + "<table cellspacing=\"2\" cellpadding=\"4\"> \n"
-            + "  <tr>\n"
-            + "    <td>Procedure Name:</td>\n"
-            + "    <td><a href='"
-            + HtmlUtils.encodeForHtml(jobUrl)
-            + "'>"
-            + HtmlUtils.encodeForHtml(procedureName)
-            + "</a></td>   \n"
-            + "  </tr>";
-
-    summaryText = Utils.getParametersHTML(parameters, summaryText, "actualParameterName", "value");
-    if (getJobStatusResponseData != null) {
-      summaryText =
-          summaryText
-              + "  <tr>\n"
-              + "    <td>CD Job Status:</td>\n"
-              + "    <td>\n"
-              + HtmlUtils.encodeForHtml(getJobStatusResponseData.getStatus().name())
-              + "    </td>\n"
-              + "  </tr>\n";
-      summaryText =
-          summaryText
-              + "  <tr>\n"
-              + "    <td>CD Job Outcome:</td>\n"
-              + "    <td>\n"
-              + HtmlUtils.encodeForHtml(getJobStatusResponseData.getOutcome().name())
-              + "    </td>\n"
-              + "  </tr>\n";
-    }
-
-    summaryText = summaryText + "</table>";
 
-    return summaryText;
+    return new SummaryTable("CloudBees CD Run Procedure")
+        .addLink("Procedure Name:", jobUrl, procedureName)
+        .addParameters(parameters, "actualParameterName", "value");
   }
 
   @Symbol("cloudBeesFlowRunProcedure")
@@ -409,8 +361,14 @@ public class ElectricFlowRunProcedure extends Recorder implements SimpleBuildSte
           ElectricFlowClient client =
               ElectricFlowClientFactory.getElectricFlowClient(
                   configuration, overrideCredentialObj, null, true);
-
-          List<String> procedures = client.getProcedures(projectName);
+          List<String> procedures =
+              CdMetadataCache.get()
+                  .get(
+                      configuration,
+                      client,
+                      MetadataType.PROCEDURES,
+                      () -> client.getProcedures(projectName),
+                      projectName);
 
           for (String procedure : procedures) {
             m.add(procedure);
@@ -456,10 +414,6 @@ public class ElectricFlowRunProcedure extends Recorder implements SimpleBuildSte
         }
 
         Credential overrideCredentialObj = overrideCredential ? new Credential(credentialId) : null;
-        ElectricFlowClient client =
-            ElectricFlowClientFactory.getElectricFlowClient(
-                configuration, overrideCredentialObj, null, true);
-
         Map<String, String> storedParams = new HashMap<>();
 
         String deployParametersValue = getSelectItemValue(procedureParameters);
@@ -473,7 +427,18 @@ public class ElectricFlowRunProcedure extends Recorder implements SimpleBuildSte
           }
         }
 
-        List<String> parameters = client.getProcedureFormalParameters(projectName, procedureName);
+        ElectricFlowClient client =
+            ElectricFlowClientFactory.getElectricFlowClient(
+                configuration, overrideCredentialObj, null, true);
+        List<String> parameters =
+            CdMetadataCache.get()
+                .get(
+                    configuration,
+                    client,
+                    MetadataType.PROCEDURE_PARAMETERS,
+                    () -> client.getProcedureFormalParameters(projectName, procedureName),
+                    projectName,
+                    procedureName);
         JSONObject main =
             JSONObject.fromObject(
                 "{'procedure':{'procedureName':'" + procedureName + "',   'parameters':[]}}");
@@ -11,7 +11,6 @@ package org.jenkinsci.plugins.electricflow;
 import static org.jenkinsci.plugins.electricflow.Utils.addParametersToJsonAndPreserveStored;
 import static org.jenkinsci.plugins.electricflow.Utils.expandParameters;
 import static org.jenkinsci.plugins.electricflow.Utils.formatJsonOutput;
-import static org.jenkinsci.plugins.electricflow.Utils.getParametersHTML;
 import static org.jenkinsci.plugins.electricflow.Utils.getParamsMap;
 import static org.jenkinsci.plugins.electricflow.Utils.getValidationComparisonHeaderRow;
 import static org.jenkinsci.plugins.electricflow.Utils.getValidationComparisonRow;
@@ -41,7 +40,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
 import jenkins.tasks.SimpleBuildStep;
 import net.sf.json.JSONArray;
@@ -55,12 +53,13 @@ import org.jenkinsci.plugins.electricflow.factories.ElectricFlowClientFactory;
 import org.jenkinsci.plugins.electricflow.models.CIBuildDetail;
 import org.jenkinsci.plugins.electricflow.models.CIBuildDetail.BuildAssociationType;
 import org.jenkinsci.plugins.electricflow.models.CIBuildDetail.BuildTriggerSource;
-import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdPipelineStatus;
-import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.GetPipelineRuntimeDetailsResponseData;
+import org.jenkinsci.plugins.electricflow.runandwait.CdPendingRunsAction;
+import org.jenkinsci.plugins.electricflow.runandwait.CdRunType;
+import org.jenkinsci.plugins.electricflow.runandwait.CdRunWaiter;
 import org.jenkinsci.plugins.electricflow.ui.FieldValidationStatus;
-import org.jenkinsci.plugins.electricflow.ui.HtmlUtils;
 import org.jenkinsci.plugins.electricflow.ui.SelectFieldUtils;
 import org.jenkinsci.plugins.electricflow.ui.SelectItemValidationWrapper;
+import org.jenkinsci.plugins.electricflow.ui.SummaryTable;
 import org.kohsuke.stapler.AncestorInPath;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
@@ -129,9 +128,8 @@ public class ElectricFlowTriggerRelease extends Recorder implements SimpleBuildS
       JSONObject flowRuntime = JSONObject.fromObject(releaseResult).getJSONObject("flowRuntime");
       String flowRuntimeId = flowRuntime.getString("flowRuntimeId");
 
-      String summaryHtml =
-          getSummaryHtml(efClient, flowRuntime, pipelineParameters, stagesToRun, null);
-      SummaryTextAction action = new SummaryTextAction(run, summaryHtml);
+      SummaryTable summary = getSummary(efClient, flowRuntime, pipelineParameters, stagesToRun);
+      SummaryTextAction action = new SummaryTextAction(run, summary);
 
       try {
         CloudBeesFlowBuildData cbfdb = new CloudBeesFlowBuildData(run);
@@ -156,47 +154,31 @@ public class ElectricFlowTriggerRelease extends Recorder implements SimpleBuildS
         log.info("Can't attach CIBuildData to the pipeline run: " + ex.getMessage());
       }
 
+      if (runAndWaitOption == null) {
+        CdPendingRunsAction.addPendingRun(
+            run,
+            configuration,
+            overrideCredential,
+            env,
+            CdRunType.PIPELINE_RUNTIME,
+            flowRuntimeId);
+      }
+
       run.addAction(action);
       run.save();
       logger.println("TriggerRelease  result: " + formatJsonOutput(releaseResult));
 
       if (runAndWaitOption != null) {
-        int checkInterval = runAndWaitOption.getCheckInterval();
-
-        logger.println(
-            "Waiting till CloudBees CD pipeline is completed, checking every "
-                + checkInterval
-                + " seconds");
-
-        GetPipelineRuntimeDetailsResponseData getPipelineRuntimeDetailsResponseData;
-        do {
-          TimeUnit.SECONDS.sleep(checkInterval);
-
-          getPipelineRuntimeDetailsResponseData =
-              efClient.getCdPipelineRuntimeDetails(flowRuntimeId);
-          logger.println(getPipelineRuntimeDetailsResponseData);
-
-          summaryHtml =
-              getSummaryHtml(
-                  efClient,
-                  flowRuntime,
-                  pipelineParameters,
-                  stagesToRun,
-                  getPipelineRuntimeDetailsResponseData);
-          action = new SummaryTextAction(run, summaryHtml);
-          run.addOrReplaceAction(action);
-          run.save();
-        } while (!getPipelineRuntimeDetailsResponseData.isCompleted());
-
-        if (runAndWaitOption.isDependOnCdJobOutcome()) {
-          if (getPipelineRuntimeDetailsResponseData.getStatus() != CdPipelineStatus.success
-              && getPipelineRuntimeDetailsResponseData.getStatus() != CdPipelineStatus.warning) {
-            throw new PluginException(
-                "CD pipeline completed with "
-                    + getPipelineRuntimeDetailsResponseData.getStatus()
-                    + " status");
-          }
-        }
+        CdRunWaiter.waitFor(
+            efClient,
+            CdRunType.PIPELINE_RUNTIME,
+            flowRuntimeId,
+            runAndWaitOption,
+            run,
+            logger,
+            status -> {
+              run.addOrReplaceAction(new SummaryTextAction(run, status.addTo(summary.copy())));
+            });
       }
 
     } catch (IOException | InterruptedException | PluginException e) {
@@ -322,89 +304,31 @@ public class ElectricFlowTriggerRelease extends Recorder implements SimpleBuildS
   @DataBoundSetter
   public void setValidationTrigger(String validationTrigger) {}
 
-  private String getSummaryHtml(
+  private SummaryTable getSummary(
       ElectricFlowClient efClient,
       JSONObject flowRuntime,
       JSONArray parameters,
-      List<String> stagesToRun,
-      GetPipelineRuntimeDetailsResponseData getPipelineRuntimeDetailsResponseData) {
+      List<String> stagesToRun) {
     String pipelineId = flowRuntime.getString("pipelineId");
     String flowRuntimeId = flowRuntime.getString("flowRuntimeId");
     String pipelineName = flowRuntime.getString("pipelineName");
     String urlPipeline =
         efClient.getElectricFlowUrl() + "/flow/#pipeline-run/" + pipelineId + "/" + flowRuntimeId;
     String urlRelease = efClient.getElectricFlowUrl() + "/flow/#releases";
-    String summaryText =
-        "<h3>CloudBees CD Trigger Release</h3>"
-            + "<table cellspacing=\"2\" cellpadding=\"4\"> \n"
-            + "  <tr>\n"
-            + "    <td>Release Name:</td>\n"
-            + "    <td><a href='"
-            + HtmlUtils.encodeForHtml(urlRelease)
-            + "'>"
-            + HtmlUtils.encodeForHtml(releaseName)
-            + "</a></td>   \n"
-            + "  </tr>\n"
-            + "  <tr>\n"
-            + "    <td>Pipeline URL:</td>\n"
-            + "    <td><a href='"
-            + HtmlUtils.encodeForHtml(urlPipeline)
-            + "'>"
-            + HtmlUtils.encodeForHtml(urlPipeline)
-            + "</a></td>   \n"
-            + "  </tr>\n"
-            + "  <tr>\n"
-            + "    <td>Pipeline Name:</td>\n"
-            + "    <td><a href='"
-            + HtmlUtils.encodeForHtml(urlPipeline)
-            + "'>"
-            + HtmlUtils.encodeForHtml(pipelineName)
-            + "</a></td>   \n"
-            + "  </tr>\n"
-            + "  <tr>\n"
-            + "    <td>Project Name:</td>\n"
-            + "    <td>"
-            + HtmlUtils.encodeForHtml(projectName)
-            + "</td>    \n"
-            + "  </tr>";
+    SummaryTable summary =
+        new SummaryTable("CloudBees CD Trigger Release")
+            .addLink("Release Name:", urlRelease, releaseName)
+            .addLink("Pipeline URL:", urlPipeline, urlPipeline)
+            .addLink("Pipeline Name:", urlPipeline, pipelineName)
+            .add("Project Name:", projectName);
 
     if (!startingStage.isEmpty()) {
-      summaryText =
-          summaryText
-              + "  <tr>\n"
-              + "    <td>Starting stage:</td>\n"
-              + "    <td>"
-              + HtmlUtils.encodeForHtml(startingStage)
-              + "</td>    \n"
-              + "  </tr>";
-    }
-
-    if (!stagesToRun.isEmpty()) {
-      summaryText = getParametersHTML(stagesToRun, summaryText);
-    }
-
-    summaryText = getParametersHTML(parameters, summaryText, "parameterName", "parameterValue");
-    if (getPipelineRuntimeDetailsResponseData != null) {
-      summaryText =
-          summaryText
-              + "  <tr>\n"
-              + "    <td>CD Pipeline Completed:</td>\n"
-              + "    <td>\n"
-              + getPipelineRuntimeDetailsResponseData.isCompleted()
-              + "    </td>\n"
-              + "  </tr>\n";
-      summaryText =
-          summaryText
-              + "  <tr>\n"
-              + "    <td>CD Pipeline Status:</td>\n"
-              + "    <td>\n"
-              + HtmlUtils.encodeForHtml(getPipelineRuntimeDetailsResponseData.getStatus().name())
-              + "    </td>\n"
-              + "  </tr>\n";
+      summary.add("Starting stage:", startingStage);
     }
-    summaryText = summaryText + "</table>";
 
-    return summaryText;
+    return summary
+        .addStages(stagesToRun)
+        .addParameters(parameters, "parameterName", "parameterValue");
   }
 
   @Symbol("cloudBeesFlowTriggerRelease")
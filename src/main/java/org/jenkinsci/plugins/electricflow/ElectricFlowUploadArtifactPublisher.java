@@ -28,6 +28,7 @@ import java.io.PrintStream;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import java.util.Map;
 import javax.annotation.Nonnull;
 import jenkins.tasks.SimpleBuildStep;
 import net.sf.json.JSONObject;
@@ -36,7 +37,9 @@ import org.apache.commons.logging.LogFactory;
 import org.jenkinsci.Symbol;
 import org.jenkinsci.plugins.electricflow.extension.ArtifactUploadData;
 import org.jenkinsci.plugins.electricflow.factories.ElectricFlowClientFactory;
-import org.jenkinsci.plugins.electricflow.ui.HtmlUtils;
+import org.jenkinsci.plugins.electricflow.ui.SummaryTable;
+import org.jenkinsci.plugins.electricflow.upload.ArtifactHasher;
+import org.jenkinsci.plugins.electricflow.upload.PublishedArtifactCache;
 import org.kohsuke.stapler.AncestorInPath;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
@@ -58,6 +61,9 @@ public class ElectricFlowUploadArtifactPublisher extends Recorder implements Sim
   private String artifactVersion;
   private String filePath;
   private String relativeWorkspace;
+  private boolean uploadFromAgent;
+  private boolean skipUnchangedUpload;
+  private int compressionLevel;
 
   // ~ Constructors -----------------------------------------------------------
 
@@ -121,23 +127,66 @@ public class ElectricFlowUploadArtifactPublisher extends Recorder implements Sim
           ElectricFlowClientFactory.getElectricFlowClient(
               configuration, overrideCredential, run, env, false);
 
-      String result =
-          efClient.uploadArtifact(
-              run,
-              taskListener,
-              repositoryName,
-              newArtifactName,
-              newArtifactVersion,
-              newFilePath,
-              true,
-              new FilePath(workspace, newRelativeWorkspace));
-
-      if (!"Artifact-Published-OK".equals(result)) {
+      FilePath uploadWorkspace = new FilePath(workspace, newRelativeWorkspace);
+      PublishedArtifactCache publishedArtifacts = PublishedArtifactCache.get();
+      String serverUrl = efClient.getElectricFlowUrl();
+      Map<String, String> hashes = null;
+      String result = null;
+
+      if (skipUnchangedUpload) {
+        hashes = uploadWorkspace.act(new ArtifactHasher(newFilePath));
+      }
+
+      boolean unchanged =
+          hashes != null
+              && publishedArtifacts.isPublished(
+                  serverUrl, configuration, repositoryName, artifactVersionName, hashes);
+
+      if (unchanged) {
+        logger.println(
+            "Artifact "
+                + artifactVersionName
+                + " was already published to "
+                + serverUrl
+                + " with the same "
+                + hashes.size()
+                + " files, skipping the upload");
+      } else if (uploadFromAgent) {
+        result =
+            efClient.uploadArtifactFromAgent(
+                taskListener,
+                repositoryName,
+                newArtifactName,
+                newArtifactVersion,
+                newFilePath,
+                true,
+                uploadWorkspace,
+                compressionLevel);
+      } else {
+        result =
+            efClient.uploadArtifact(
+                run,
+                taskListener,
+                repositoryName,
+                newArtifactName,
+                newArtifactVersion,
+                newFilePath,
+                true,
+                uploadWorkspace,
+                compressionLevel);
+      }
+
+      if (!unchanged && !"Artifact-Published-OK".equals(result)) {
         logger.println("Upload result: " + result);
 
         return false;
       }
 
+      if (hashes != null && !unchanged) {
+        publishedArtifacts.recordPublished(
+            serverUrl, configuration, repositoryName, artifactVersionName, hashes);
+      }
+
       String efArtifactUrl =
           efClient.getElectricFlowUrl()
               + "/commander/link/artifactVersionDetails/artifactVersions/"
@@ -146,10 +195,9 @@ public class ElectricFlowUploadArtifactPublisher extends Recorder implements Sim
 
       String repository = repositoryName.isEmpty() ? "default" : repositoryName;
 
-      String summaryHtml = getSummaryHtml(newArtifactVersion, repository, efArtifactUrl);
+      SummaryTable summary = getSummary(newArtifactVersion, repository, efArtifactUrl);
 
-      ArtifactUploadSummaryTextAction action =
-          new ArtifactUploadSummaryTextAction(run, summaryHtml);
+      ArtifactUploadSummaryTextAction action = new ArtifactUploadSummaryTextAction(run, summary);
 
       ArtifactUploadData artifactUploadData = new ArtifactUploadData();
       artifactUploadData.setArtifactName(newArtifactName);
@@ -172,7 +220,8 @@ public class ElectricFlowUploadArtifactPublisher extends Recorder implements Sim
 
       run.addAction(action);
       run.save();
-      logger.println("Upload result: " + result);
+      logger.println(
+          unchanged ? "Upload result: skipped, no files have changed" : "Upload result: " + result);
     } catch (NoSuchAlgorithmException
         | KeyManagementException
         | InterruptedException
@@ -237,44 +286,44 @@ public class ElectricFlowUploadArtifactPublisher extends Recorder implements Sim
     this.relativeWorkspace = relativeWorkspace;
   }
 
+  public boolean isUploadFromAgent() {
+    return uploadFromAgent;
+  }
+
+  @DataBoundSetter
+  public void setUploadFromAgent(boolean uploadFromAgent) {
+    this.uploadFromAgent = uploadFromAgent;
+  }
+
+  public boolean isSkipUnchangedUpload() {
+    return skipUnchangedUpload;
+  }
+
+  @DataBoundSetter
+  public void setSkipUnchangedUpload(boolean skipUnchangedUpload) {
+    this.skipUnchangedUpload = skipUnchangedUpload;
+  }
+
+  public int getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  @DataBoundSetter
+  public void setCompressionLevel(int compressionLevel) {
+    this.compressionLevel = compressionLevel;
+  }
+
   @Override
   public BuildStepMonitor getRequiredMonitorService() {
     return BuildStepMonitor.NONE;
   }
 
-  private String getSummaryHtml(String newArtifactVersion, String repository, String efUrl) {
-
-    return "<h3>CloudBees CD Publish Artifact</h3>"
-        + "<table cellspacing=\"2\" cellpadding=\"4\">\n"
-        + "  <tr>\n"
-        + "    <td>Artifact URL:</td>\n"
-        + "    <td><a href ='"
-        + HtmlUtils.encodeForHtml(efUrl)
-        + "'>"
-        + HtmlUtils.encodeForHtml(efUrl)
-        + "</a></td> \n"
-        + "  </tr>\n"
-        + "  <tr>\n"
-        + "    <td>Artifact Name:</td>\n"
-        + "    <td><a href ='"
-        + HtmlUtils.encodeForHtml(efUrl)
-        + "'>"
-        + HtmlUtils.encodeForHtml(artifactName)
-        + "</a></td> \n"
-        + "  </tr>\n"
-        + "  <tr>\n"
-        + "    <td>Artifact Version:</td>\n"
-        + "    <td>"
-        + HtmlUtils.encodeForHtml(newArtifactVersion)
-        + "</td> \n"
-        + "  </tr>\n"
-        + "  <tr>\n"
-        + "    <td>Repository Name:</td>\n"
-        + "    <td>"
-        + HtmlUtils.encodeForHtml(repository)
-        + "</td> \n"
-        + "  </tr>\n"
-        + "</table>";
+  private SummaryTable getSummary(String newArtifactVersion, String repository, String efUrl) {
+    return new SummaryTable("CloudBees CD Publish Artifact")
+        .addLink("Artifact URL:", efUrl, efUrl)
+        .addLink("Artifact Name:", efUrl, artifactName)
+        .add("Artifact Version:", newArtifactVersion)
+        .add("Repository Name:", repository);
   }
 
   // ~ Inner Classes ----------------------------------------------------------
@@ -374,6 +423,21 @@ public class ElectricFlowUploadArtifactPublisher extends Recorder implements Sim
       return Credential.DescriptorImpl.doFillCredentialIdItems(item);
     }
 
+    public ListBoxModel doFillCompressionLevelItems() {
+      ListBoxModel m = new ListBoxModel();
+
+      m.add("None", "0");
+      m.add("1 (fastest)", "1");
+
+      for (int level = 2; level < 9; level++) {
+        m.add(String.valueOf(level), String.valueOf(level));
+      }
+
+      m.add("9 (smallest)", "9");
+
+      return m;
+    }
+
     public ListBoxModel doFillRepositoryNameItems(
         @QueryParameter String configuration,
         @QueryParameter boolean overrideCredential,
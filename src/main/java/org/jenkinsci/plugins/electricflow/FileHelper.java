@@ -11,6 +11,8 @@ package org.jenkinsci.plugins.electricflow;
 import hudson.FilePath;
 import hudson.model.Run;
 import hudson.model.TaskListener;
+import hudson.util.DirScanner;
+import hudson.util.FileVisitor;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
@@ -112,7 +114,7 @@ public class FileHelper {
     return list;
   }
 
-  static List<File> getFilesFromDirectory(final File folder) {
+  public static List<File> getFilesFromDirectory(final File folder) {
     List<File> fileList = new ArrayList<>();
     File[] list = folder.listFiles();
 
@@ -149,34 +151,28 @@ public class FileHelper {
       boolean copyToMasterBuildDir)
       throws IOException, InterruptedException {
     PrintStream logger = listener.getLogger();
-    String[] splitResult = splitPath(path);
     List<File> result = new ArrayList<>();
-    DirectoryScanner scanner = new DirectoryScanner();
 
     String basePathActual = basePathInitial.getRemote();
 
     if (copyToMasterBuildDir) {
       FilePath basePathOnMaster = getPublishArtifactWorkspaceOnMaster(build);
       logger.println(
-          "Copying files from: "
+          "Copying files matching \""
+              + path
+              + "\" from: "
               + basePathInitial.toURI()
               + " to reports directory: "
               + basePathOnMaster.toURI());
-      basePathInitial.copyRecursiveTo("**", "", basePathOnMaster);
+      // Patterns are resolved where the workspace is, only the matching files are sent
+      int copied =
+          basePathInitial.copyRecursiveTo(
+              new IncludedFilesScanner(path), basePathOnMaster, "artifact files");
+      logger.println("Copied " + copied + " files");
       basePathActual = basePathOnMaster.getRemote();
     }
 
-    scanner.setBasedir(basePathActual);
-
-    // Now let's locate files
-
-    scanner.setIncludes(splitResult);
-    scanner.setCaseSensitive(false);
-    scanner.scan();
-
-    String[] files = scanner.getIncludedFiles();
-
-    for (String str : files) {
+    for (String str : scan(basePathActual, path)) {
 
       if (fullPath) {
         result.add(new File(buildPath(basePathActual, "/", str)));
@@ -197,6 +193,53 @@ public class FileHelper {
     return result;
   }
 
+  /**
+   * Finds the files matching comma separated patterns, case insensitive.
+   *
+   * @param baseDir directory the patterns are relative to
+   * @param path comma separated file patterns
+   * @return matching files with their full paths, empty if none match
+   */
+  public static List<File> findFiles(File baseDir, String path) {
+    List<File> result = new ArrayList<>();
+
+    for (String str : scan(baseDir.getAbsolutePath(), path)) {
+      result.add(new File(baseDir, str));
+    }
+
+    return result;
+  }
+
+  private static String[] scan(String baseDir, String path) {
+    DirectoryScanner scanner = new DirectoryScanner();
+
+    scanner.setBasedir(baseDir);
+    scanner.setIncludes(splitPath(path));
+    scanner.setCaseSensitive(false);
+    scanner.scan();
+
+    return scanner.getIncludedFiles();
+  }
+
+  /** Visits the files matching comma separated patterns, case insensitive. */
+  private static final class IncludedFilesScanner extends DirScanner {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String path;
+
+    IncludedFilesScanner(String path) {
+      this.path = path;
+    }
+
+    @Override
+    public void scan(File dir, FileVisitor visitor) throws IOException {
+      for (String str : FileHelper.scan(dir.getAbsolutePath(), path)) {
+        visitor.visit(new File(dir, str), str.replace('\\', '/'));
+      }
+    }
+  }
+
   public static boolean isTopLevelDirSame(List<File> files) {
     String buffer = "";
     boolean sameRoot = false;
@@ -10,37 +10,69 @@ package org.jenkinsci.plugins.electricflow;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 import javax.net.ssl.HttpsURLConnection;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+/**
+ * Multipart/form-data POST request. Parts are only recorded when they are added; {@link #finish()}
+ * computes the length of the whole body and streams it in fixed-length mode, so file contents are
+ * never held in memory, whatever their size.
+ */
 public class MultipartUtility {
 
   // ~ Static fields/initializers ---------------------------------------------
 
   private static final String LINE_FEED = "\r\n";
+  private static final int BLOCK_SIZE = 64 * 1024;
+  private static final int BUFFER_SIZE =
+      Integer.getInteger(MultipartUtility.class.getName() + ".bufferSize", 256 * 1024);
   private static final Log log = LogFactory.getLog(MultipartUtility.class);
 
+  // Copy buffers are reused by later requests instead of being allocated for each upload
+  private static final BlockingQueue<ByteBuffer> BUFFERS = new ArrayBlockingQueue<>(8);
+
+  // Not worth compressing again, these files are stored in a compressed body
+  private static final Set<String> COMPRESSED_EXTENSIONS =
+      new HashSet<>(
+          Arrays.asList(
+              "7z", "apk", "bz2", "deb", "ear", "gif", "gz", "jar", "jpeg", "jpg", "mp3", "mp4",
+              "nupkg", "png", "rpm", "tgz", "war", "whl", "xz", "zip"));
+
   // ~ Instance fields --------------------------------------------------------
 
+  private final URL url;
+  private final boolean ignoreSslConnectionErrors;
   private final String boundary;
-  private final String charset;
-  private HttpsURLConnection httpConn;
-  private OutputStream outputStream;
-  private PrintWriter writer;
+  private final Charset charset;
+  private final List<Part> parts = new ArrayList<>();
+  private int compressionLevel;
+  private boolean pooledBuffers = true;
 
   // ~ Constructors -----------------------------------------------------------
 
@@ -55,39 +87,18 @@ public class MultipartUtility {
    */
   public MultipartUtility(String requestURL, String charset, boolean ignoreSslConnectionErrors)
       throws IOException {
-    this.charset = charset;
+    this.url = new URL(requestURL);
+    this.charset = Charset.forName(charset);
+    this.ignoreSslConnectionErrors = ignoreSslConnectionErrors;
 
     // creates a unique boundary based on time stamp
     boundary = "===" + System.currentTimeMillis() + "===";
-
-    URL url = new URL(requestURL);
-
-    httpConn = (HttpsURLConnection) url.openConnection();
-
-    httpConn.setUseCaches(false);
-    httpConn.setDoOutput(true); // indicates POST method
-    httpConn.setDoInput(true);
-    httpConn.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
-
-    if (ignoreSslConnectionErrors) {
-      try {
-        httpConn.setSSLSocketFactory(RelaxedSSLContext.getInstance().getSocketFactory());
-      } catch (KeyManagementException | NoSuchAlgorithmException e) {
-        if (log.isDebugEnabled()) {
-          log.debug(e.getMessage(), e);
-        }
-      }
-      httpConn.setHostnameVerifier(RelaxedSSLContext.allHostsValid);
-    }
-
-    outputStream = httpConn.getOutputStream();
-    writer = new PrintWriter(new OutputStreamWriter(outputStream, charset), true);
   }
 
   // ~ Methods ----------------------------------------------------------------
 
   /**
-   * Adds a upload file section to the request.
+   * Adds a upload file section to the request. The file is read when the request is sent.
    *
    * @param fieldName name attribute in input type="file" name="..."
    * @param uploadFile a File to be uploaded
@@ -101,36 +112,28 @@ public class MultipartUtility {
 
     fileName = fileName.replaceAll("\\\\", "/");
 
-    writer.append("--").append(boundary).append(LINE_FEED);
-    writer
-        .append("Content-Disposition: form-data; name=\"")
-        .append(fieldName)
-        .append("\"; filename=\"")
-        .append(fileName)
-        .append("\"")
-        .append(LINE_FEED);
-    writer
-        .append("Content-Type: ")
-        .append(URLConnection.guessContentTypeFromName(fileName))
-        .append(LINE_FEED);
-    writer.append("Content-Transfer-Encoding: binary").append(LINE_FEED);
-    writer.append(LINE_FEED);
-    writer.flush();
-
-    try (FileInputStream inputStream = new FileInputStream(uploadFile)) {
-      byte[] buffer = new byte[4096];
-      int bytesRead;
-
-      while ((bytesRead = inputStream.read(buffer)) != -1) {
-        outputStream.write(buffer, 0, bytesRead);
-      }
-
-      outputStream.flush();
-      inputStream.close();
-      writer.flush();
-    } catch (IOException e) {
-      throw new IOException(e);
+    if (!uploadFile.isFile()) {
+      throw new FileNotFoundException(absolutePath);
     }
+
+    String header =
+        "--"
+            + boundary
+            + LINE_FEED
+            + "Content-Disposition: form-data; name=\""
+            + fieldName
+            + "\"; filename=\""
+            + fileName
+            + "\""
+            + LINE_FEED
+            + "Content-Type: "
+            + URLConnection.guessContentTypeFromName(fileName)
+            + LINE_FEED
+            + "Content-Transfer-Encoding: binary"
+            + LINE_FEED
+            + LINE_FEED;
+
+    parts.add(new Part(header.getBytes(charset), uploadFile, uploadFile.length()));
   }
 
   /**
@@ -140,16 +143,22 @@ public class MultipartUtility {
    * @param value field value
    */
   public void addFormField(String name, String value) {
-    writer.append("--").append(boundary).append(LINE_FEED);
-    writer
-        .append("Content-Disposition: form-data; name=\"")
-        .append(name)
-        .append("\"")
-        .append(LINE_FEED);
-    writer.append("Content-Type: text/plain; charset=").append(charset).append(LINE_FEED);
-    writer.append(LINE_FEED);
-    writer.append(value).append(LINE_FEED);
-    writer.flush();
+    String field =
+        "--"
+            + boundary
+            + LINE_FEED
+            + "Content-Disposition: form-data; name=\""
+            + name
+            + "\""
+            + LINE_FEED
+            + "Content-Type: text/plain; charset="
+            + charset.name()
+            + LINE_FEED
+            + LINE_FEED
+            + value
+            + LINE_FEED;
+
+    parts.add(new Part(field.getBytes(charset), null, 0));
   }
 
   /**
@@ -159,8 +168,33 @@ public class MultipartUtility {
    * @param value - value of the header field
    */
   public void addHeaderField(String name, String value) {
-    writer.append(name).append(": ").append(value).append(LINE_FEED);
-    writer.flush();
+    parts.add(new Part((name + ": " + value + LINE_FEED).getBytes(charset), null, 0));
+  }
+
+  /**
+   * Compresses the request body with gzip while it is sent (Content-Encoding: gzip). Files that
+   * are already compressed, e.g. jar or png files, are stored without compression. The server has
+   * to accept gzip-encoded requests.
+   *
+   * @param compressionLevel 1 (fastest) to 9 (smallest), 0 to send the body uncompressed
+   */
+  public void setCompressionLevel(int compressionLevel) {
+    if (compressionLevel < 0 || compressionLevel > Deflater.BEST_COMPRESSION) {
+      throw new IllegalArgumentException("Invalid compression level: " + compressionLevel);
+    }
+
+    this.compressionLevel = compressionLevel;
+  }
+
+  /** @return length of the uncompressed request body in bytes */
+  public long getContentLength() {
+    long length = getClosing().length;
+
+    for (Part part : parts) {
+      length += part.getLength();
+    }
+
+    return length;
   }
 
   /**
@@ -172,39 +206,301 @@ public class MultipartUtility {
    */
   public List<String> finish() throws IOException {
     List<String> response = new ArrayList<>();
-
-    writer.append(LINE_FEED).flush();
-    writer.append("--").append(boundary).append("--").append(LINE_FEED);
-    writer.close();
+    HttpURLConnection httpConn = openConnection();
 
     try {
+      if (compressionLevel > 0) {
+        httpConn.setRequestProperty("Content-Encoding", "gzip");
+        httpConn.setChunkedStreamingMode(BLOCK_SIZE);
+      } else {
+        httpConn.setFixedLengthStreamingMode(getContentLength());
+      }
+
+      ByteBuffer buffer = pooledBuffers ? acquireBuffer() : ByteBuffer.allocate(BUFFER_SIZE);
+      OutputStream outputStream = httpConn.getOutputStream();
+      GzipBody gzipBody = null;
+
+      if (compressionLevel > 0) {
+        gzipBody = new GzipBody(new BackgroundWriter(outputStream), compressionLevel);
+        outputStream = gzipBody;
+      }
+
+      // Nothing is flushed between the parts, the stream is only closed at the end
+      try (OutputStream body = outputStream) {
+        for (Part part : parts) {
+          if (gzipBody != null) {
+            gzipBody.setCompressible(part.isCompressible());
+          }
+
+          part.writeTo(body, buffer);
+        }
+
+        body.write(getClosing());
+      } finally {
+        if (pooledBuffers) {
+          releaseBuffer(buffer);
+        }
+      }
 
       // checks server's status code first
       int status = httpConn.getResponseCode();
 
-      if (status == HttpsURLConnection.HTTP_OK) {
-        BufferedReader reader =
-            new BufferedReader(
-                new InputStreamReader(httpConn.getInputStream(), StandardCharsets.UTF_8));
+      if (status != HttpURLConnection.HTTP_OK) {
+        throw new IOException("Server returned non-OK status: " + status);
+      }
+
+      try (BufferedReader reader =
+          new BufferedReader(
+              new InputStreamReader(httpConn.getInputStream(), StandardCharsets.UTF_8))) {
         String line;
 
         while ((line = reader.readLine()) != null) {
           response.add(line);
         }
-
-        reader.close();
-        httpConn.disconnect();
-      } else {
-        throw new IOException("Server returned non-OK status: " + status);
       }
     } finally {
-      writer.close();
+      httpConn.disconnect();
+    }
+
+    return response;
+  }
+
+  // Lets the benchmark compare reused buffers with a buffer allocated for each request
+  void setPooledBuffers(boolean pooledBuffers) {
+    this.pooledBuffers = pooledBuffers;
+  }
+
+  private static ByteBuffer acquireBuffer() {
+    ByteBuffer buffer = BUFFERS.poll();
 
-      if (outputStream != null) {
-        outputStream.close();
+    return buffer != null ? buffer : ByteBuffer.allocate(BUFFER_SIZE);
+  }
+
+  private static void releaseBuffer(ByteBuffer buffer) {
+    buffer.clear();
+    BUFFERS.offer(buffer);
+  }
+
+  private HttpURLConnection openConnection() throws IOException {
+    HttpURLConnection httpConn = (HttpURLConnection) url.openConnection();
+
+    httpConn.setUseCaches(false);
+    httpConn.setDoOutput(true); // indicates POST method
+    httpConn.setDoInput(true);
+    httpConn.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
+
+    if (ignoreSslConnectionErrors && httpConn instanceof HttpsURLConnection) {
+      HttpsURLConnection httpsConn = (HttpsURLConnection) httpConn;
+
+      try {
+        httpsConn.setSSLSocketFactory(RelaxedSSLContext.getInstance().getSocketFactory());
+      } catch (KeyManagementException | NoSuchAlgorithmException e) {
+        if (log.isDebugEnabled()) {
+          log.debug(e.getMessage(), e);
+        }
       }
+      httpsConn.setHostnameVerifier(RelaxedSSLContext.allHostsValid);
     }
 
-    return response;
+    return httpConn;
+  }
+
+  private byte[] getClosing() {
+    return (LINE_FEED + "--" + boundary + "--" + LINE_FEED).getBytes(charset);
+  }
+
+  /** Bytes of a section, followed by the contents of a file for file sections. */
+  private static final class Part {
+
+    private final byte[] header;
+    private final File file;
+    private final long fileLength;
+
+    Part(byte[] header, File file, long fileLength) {
+      this.header = header;
+      this.file = file;
+      this.fileLength = fileLength;
+    }
+
+    long getLength() {
+      return header.length + fileLength;
+    }
+
+    boolean isCompressible() {
+      if (file == null) {
+        return true;
+      }
+
+      String name = file.getName();
+      String extension = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+
+      return !COMPRESSED_EXTENSIONS.contains(extension);
+    }
+
+    void writeTo(OutputStream outputStream, ByteBuffer buffer) throws IOException {
+      outputStream.write(header);
+
+      if (file == null) {
+        return;
+      }
+
+      // Exactly the announced number of bytes is sent, the length is part of the request
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+        long remaining = fileLength;
+
+        while (remaining > 0) {
+          buffer.clear();
+
+          if (remaining < buffer.capacity()) {
+            buffer.limit((int) remaining);
+          }
+
+          int read = channel.read(buffer);
+
+          if (read < 0) {
+            throw new IOException("File " + file + " was truncated during the upload");
+          }
+
+          outputStream.write(buffer.array(), 0, read);
+          remaining -= read;
+        }
+      }
+    }
+  }
+
+  /** Gzip stream whose compression can be switched off for parts that are already compressed. */
+  private static final class GzipBody extends GZIPOutputStream {
+
+    private final int level;
+
+    GzipBody(OutputStream out, int level) throws IOException {
+      super(out, BLOCK_SIZE);
+      this.level = level;
+      def.setLevel(level);
+    }
+
+    void setCompressible(boolean compressible) {
+      def.setLevel(compressible ? level : Deflater.NO_COMPRESSION);
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        // Also stops the writer thread if finishing the gzip stream failed
+        out.close();
+      }
+    }
+  }
+
+  /**
+   * Passes the written data in blocks to a thread that sends them, so compressing the body and
+   * sending it overlap.
+   */
+  private static final class BackgroundWriter extends OutputStream {
+
+    private static final byte[] END = new byte[0];
+
+    private final OutputStream out;
+    private final BlockingQueue<byte[]> blocks = new ArrayBlockingQueue<>(4);
+    private final Thread thread;
+
+    private volatile IOException failure;
+    private byte[] block = new byte[BLOCK_SIZE];
+    private int count;
+    private boolean closed;
+
+    BackgroundWriter(OutputStream out) {
+      this.out = out;
+      this.thread = new Thread(this::send, "CloudBees CD upload writer");
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      while (len > 0) {
+        int n = Math.min(len, block.length - count);
+        System.arraycopy(b, off, block, count, n);
+        count += n;
+        off += n;
+        len -= n;
+
+        if (count == block.length) {
+          queue(block);
+          block = new byte[BLOCK_SIZE];
+          count = 0;
+        }
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+
+      closed = true;
+
+      try {
+        if (count > 0) {
+          queue(Arrays.copyOf(block, count));
+          count = 0;
+        }
+      } finally {
+        try {
+          blocks.put(END);
+          thread.join();
+        } catch (InterruptedException e) {
+          thread.interrupt();
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Upload was interrupted");
+        }
+      }
+
+      if (failure != null) {
+        throw failure;
+      }
+
+      out.close();
+    }
+
+    private void queue(byte[] data) throws IOException {
+      if (failure != null) {
+        throw failure;
+      }
+
+      try {
+        blocks.put(data);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Upload was interrupted");
+      }
+    }
+
+    private void send() {
+      try {
+        byte[] data;
+
+        while ((data = blocks.take()) != END) {
+          if (failure == null) {
+            try {
+              out.write(data);
+            } catch (IOException e) {
+              // Keep taking blocks until the end, so the writing thread is not blocked
+              failure = e;
+            }
+          }
+        }
+      } catch (InterruptedException e) {
+        failure = new InterruptedIOException("Upload was interrupted");
+      }
+    }
   }
 }
@@ -24,6 +24,7 @@ public class Release {
   private String pipelineId;
   private String pipelineName;
   private List<String> pipelineParameters;
+  private transient PipelineParametersLoader pipelineParametersLoader;
 
   public Release(String configuration, String projectName, String releaseName) {
     this.configuration = configuration;
@@ -84,6 +85,16 @@ public class Release {
   }
 
   public List<String> getPipelineParameters() {
+    if (pipelineParameters == null && pipelineParametersLoader != null) {
+      try {
+        pipelineParameters = pipelineParametersLoader.load(pipelineId);
+      } catch (Exception e) {
+        throw new RuntimeException(
+            "Failed to load pipeline parameters of release " + releaseName + ": " + e.getMessage(),
+            e);
+      }
+    }
+
     return pipelineParameters;
   }
 
@@ -91,6 +102,16 @@ public class Release {
     this.pipelineParameters = pipelineParameters;
   }
 
+  /**
+   * Sets the loader used to fetch pipeline parameters on first access. Listing releases does not
+   * need the parameters, so they are only requested for the release that is actually used.
+   *
+   * @param pipelineParametersLoader loader called with the pipeline id of this release
+   */
+  public void setPipelineParametersLoader(PipelineParametersLoader pipelineParametersLoader) {
+    this.pipelineParametersLoader = pipelineParametersLoader;
+  }
+
   public List<String> getStartStages() {
     return startStages;
   }
@@ -99,4 +120,10 @@ public class Release {
     Collections.sort(startStages, String::compareTo);
     this.startStages = startStages;
   }
+
+  @FunctionalInterface
+  public interface PipelineParametersLoader {
+
+    List<String> load(String pipelineId) throws Exception;
+  }
 }
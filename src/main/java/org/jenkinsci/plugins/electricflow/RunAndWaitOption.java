@@ -3,16 +3,27 @@ package org.jenkinsci.plugins.electricflow;
 import hudson.Extension;
 import hudson.model.AbstractDescribableImpl;
 import hudson.model.Descriptor;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 
-public class RunAndWaitOption extends AbstractDescribableImpl<RunAndWaitOption> {
+public class RunAndWaitOption extends AbstractDescribableImpl<RunAndWaitOption>
+    implements Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   private static final int CHECK_INTERVAL_MIN = 1;
   private static final int CHECK_INTERVAL_DEFAULT = 5;
+  private static final int MAX_CHECK_INTERVAL_DEFAULT = 60;
   private static final boolean DEPEND_ON_CD_JOB_OUTCOME_DEFAULT = true;
   private boolean dependOnCdJobOutcome = DEPEND_ON_CD_JOB_OUTCOME_DEFAULT;
   private int checkInterval = CHECK_INTERVAL_DEFAULT;
+  private boolean adaptiveCheckInterval;
+  private int maxCheckInterval = MAX_CHECK_INTERVAL_DEFAULT;
+  private int timeout;
+  private boolean abortCdRun;
+  private boolean completionCallback;
 
   @DataBoundConstructor
   public RunAndWaitOption() {}
@@ -38,6 +49,79 @@ public class RunAndWaitOption extends AbstractDescribableImpl<RunAndWaitOption>
     this.checkInterval = checkInterval;
   }
 
+  /**
+   * @return true if the check interval starts small and grows while the CD run is in progress,
+   *     false if {@link #getCheckInterval()} is used for every check
+   */
+  public boolean isAdaptiveCheckInterval() {
+    return adaptiveCheckInterval;
+  }
+
+  @DataBoundSetter
+  public void setAdaptiveCheckInterval(boolean adaptiveCheckInterval) {
+    this.adaptiveCheckInterval = adaptiveCheckInterval;
+  }
+
+  /** @return upper limit in seconds of the adaptive check interval */
+  public int getMaxCheckInterval() {
+    // Not set in options saved before the adaptive interval was introduced
+    if (maxCheckInterval < CHECK_INTERVAL_MIN) {
+      return MAX_CHECK_INTERVAL_DEFAULT;
+    }
+    return maxCheckInterval;
+  }
+
+  @DataBoundSetter
+  public void setMaxCheckInterval(int maxCheckInterval) {
+    if (maxCheckInterval < CHECK_INTERVAL_MIN) {
+      maxCheckInterval = MAX_CHECK_INTERVAL_DEFAULT;
+    }
+    this.maxCheckInterval = maxCheckInterval;
+  }
+
+  /** @return minutes to wait for the CD run before giving up, 0 to wait without limit */
+  public int getTimeout() {
+    return timeout;
+  }
+
+  @DataBoundSetter
+  public void setTimeout(int timeout) {
+    this.timeout = Math.max(0, timeout);
+  }
+
+  /**
+   * @param startedAt time the wait started, in milliseconds since the epoch
+   * @return time the wait times out, in milliseconds since the epoch, 0 if there is no timeout
+   */
+  public long getDeadline(long startedAt) {
+    return timeout == 0 ? 0 : startedAt + TimeUnit.MINUTES.toMillis(timeout);
+  }
+
+  /**
+   * @return true if the CD run is aborted when the Jenkins build is aborted or the wait times out
+   */
+  public boolean isAbortCdRun() {
+    return abortCdRun;
+  }
+
+  @DataBoundSetter
+  public void setAbortCdRun(boolean abortCdRun) {
+    this.abortCdRun = abortCdRun;
+  }
+
+  /**
+   * @return true if CloudBees CD reports the completion to the efrun/notifyCompletion endpoint,
+   *     so that status checks are only needed as a fallback
+   */
+  public boolean isCompletionCallback() {
+    return completionCallback;
+  }
+
+  @DataBoundSetter
+  public void setCompletionCallback(boolean completionCallback) {
+    this.completionCallback = completionCallback;
+  }
+
   @Extension
   public static class DescriptorImpl extends Descriptor<RunAndWaitOption> {
 
@@ -16,20 +16,34 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import jenkins.tasks.SimpleBuildStep;
+import org.jenkinsci.plugins.electricflow.ui.SummaryTable;
 
 public class SummaryTextAction implements Action, SimpleBuildStep.LastBuildAction {
 
   // ~ Instance fields --------------------------------------------------------
 
   protected final Run<?, ?> run;
+  // Pre-rendered HTML, only set by older versions and by setSummaryText
   protected String summaryText;
+  protected SummaryTable summary;
   protected List<SummaryTextAction> projectActions;
 
+  private transient volatile String sanitizedSummaryText;
+
   // ~ Constructors -----------------------------------------------------------
 
   public SummaryTextAction(Run<?, ?> run, String summaryText) {
-    this.run = run;
+    this(run);
     this.summaryText = summaryText;
+  }
+
+  public SummaryTextAction(Run<?, ?> run, SummaryTable summary) {
+    this(run);
+    this.summary = summary;
+  }
+
+  private SummaryTextAction(Run<?, ?> run) {
+    this.run = run;
 
     List<SummaryTextAction> projectActions = new ArrayList<>();
 
@@ -58,12 +72,27 @@ public class SummaryTextAction implements Action, SimpleBuildStep.LastBuildActio
     return this.run;
   }
 
+  public SummaryTable getSummary() {
+    return this.summary;
+  }
+
+  /** @return sanitized HTML of the summary, rendered on the first call */
   public String getSummaryText() {
-    return getHtmlPolicy().sanitize(this.summaryText);
+    String sanitized = this.sanitizedSummaryText;
+
+    if (sanitized == null) {
+      String html = this.summary == null ? this.summaryText : this.summary.toHtml();
+      sanitized = getHtmlPolicy().sanitize(html);
+      this.sanitizedSummaryText = sanitized;
+    }
+
+    return sanitized;
   }
 
   public void setSummaryText(String summaryText) {
     this.summaryText = summaryText;
+    this.summary = null;
+    this.sanitizedSummaryText = null;
   }
 
   @Override
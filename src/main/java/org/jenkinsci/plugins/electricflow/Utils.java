@@ -34,7 +34,13 @@ import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.jenkinsci.plugins.electricflow.cache.CdMetadataCache;
+import org.jenkinsci.plugins.electricflow.cache.CdMetadataCache.MetadataType;
 import org.jenkinsci.plugins.electricflow.factories.ElectricFlowClientFactory;
+import org.jenkinsci.plugins.electricflow.health.CdConnectionHealthMonitor;
+import org.jenkinsci.plugins.electricflow.health.CdConnectionHealthMonitor.Health;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.pipelines.PipelineData;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.projects.ProjectData;
 import org.jenkinsci.plugins.electricflow.ui.FieldValidationStatus;
 import org.jenkinsci.plugins.electricflow.ui.HtmlUtils;
 import org.jenkinsci.plugins.electricflow.ui.SelectFieldUtils;
@@ -149,16 +155,22 @@ public class Utils {
       return FormValidation.ok();
     }
 
-    try {
-      new ElectricFlowClient(configuration).testConnection();
-    } catch (Exception e) {
+    Health health = CdConnectionHealthMonitor.get().getHealth(configuration, null);
+
+    if (health.getStatus() == CdConnectionHealthMonitor.Status.DOWN) {
       log.error(
           "Connection to CloudBees CD Server Failed. Please fix connection information and reload this page. Error message: "
-              + e.getMessage(),
-          e);
+              + health.getMessage());
       return FormValidation.error(
           "Connection to CloudBees CD Server Failed. Please fix connection information and reload this page. Error message: "
-              + e.getMessage());
+              + health.getMessage());
+    }
+
+    if (health.getStatus() == CdConnectionHealthMonitor.Status.DEGRADED) {
+      return FormValidation.warning(
+          "CloudBees CD Server responds slowly. Last login took "
+              + health.getLatencyMillis()
+              + " ms.");
     }
 
     return FormValidation.ok();
@@ -187,61 +199,6 @@ public class Utils {
     return new ArrayList<>();
   }
 
-  public static String getParametersHTML(List<String> parameters, String summaryText) {
-
-    if (!parameters.isEmpty()) {
-      StringBuilder strBuilder = new StringBuilder(summaryText);
-
-      strBuilder
-          .append("  <tr>\n" + "    <td>&nbsp;<b>Stages to run</b></td>\n")
-          .append("    <td></td>    \n")
-          .append("  </tr>\n");
-
-      for (String param : parameters) {
-        strBuilder
-            .append("  <tr>\n" + "    <td>&nbsp;&nbsp;&nbsp;&nbsp;")
-            .append(HtmlUtils.encodeForHtml(param))
-            .append("</td>\n")
-            .append("  </tr>\n");
-      }
-
-      summaryText = strBuilder.toString();
-    }
-
-    return summaryText;
-  }
-
-  public static String getParametersHTML(
-      JSONArray parameters, String summaryText, String parameterName, String parameterValue) {
-
-    if (!parameters.isEmpty()) {
-      StringBuilder strBuilder = new StringBuilder(summaryText);
-
-      strBuilder.append(
-          "  <tr>\n"
-              + "    <td>&nbsp;<b>Parameters</b></td>\n"
-              + "    <td></td>    \n"
-              + "  </tr>\n");
-
-      for (int i = 0; i < parameters.size(); i++) {
-        JSONObject json = parameters.getJSONObject(i);
-        String name = json.getString(parameterName);
-        String value = json.getString(parameterValue);
-
-        strBuilder
-            .append("  <tr>\n" + "    <td>&nbsp;&nbsp;&nbsp;&nbsp;")
-            .append(HtmlUtils.encodeForHtml(name))
-            .append(":</td>\n" + "    <td>")
-            .append(HtmlUtils.encodeForHtml(value))
-            .append("</td>    \n" + "  </tr>\n");
-      }
-
-      summaryText = strBuilder.toString();
-    }
-
-    return summaryText;
-  }
-
   public static ListBoxModel getPipelines(
       String configuration, Credential overrideCredential, String projectName) {
     try {
@@ -255,24 +212,21 @@ public class Utils {
         ElectricFlowClient efClient =
             ElectricFlowClientFactory.getElectricFlowClient(
                 configuration, overrideCredential, null, true);
-        String pipelinesString = efClient.getPipelines(projectName);
+        List<PipelineData> pipelines =
+            CdMetadataCache.get()
+                .get(
+                    configuration,
+                    efClient,
+                    MetadataType.PIPELINES,
+                    () -> efClient.getPipelineList(projectName),
+                    projectName);
 
         if (log.isDebugEnabled()) {
-          log.debug("Got pipelines: " + pipelinesString);
-        }
-
-        JSONObject jsonObject;
-
-        jsonObject = JSONObject.fromObject(pipelinesString);
-
-        JSONArray pipelines = new JSONArray();
-
-        if (!jsonObject.isEmpty()) {
-          pipelines = jsonObject.getJSONArray("pipeline");
+          log.debug("Got pipelines: " + pipelines.size());
         }
 
-        for (int i = 0; i < pipelines.size(); i++) {
-          String gotPipelineName = pipelines.getJSONObject(i).getString("pipelineName");
+        for (PipelineData pipeline : pipelines) {
+          String gotPipelineName = pipeline.getPipelineName();
 
           m.add(gotPipelineName, gotPipelineName);
         }
@@ -293,13 +247,7 @@ public class Utils {
   }
 
   public static boolean isEflowAvailable(String configuration, Credential overrideCredential) {
-    try {
-      ElectricFlowClientFactory.getElectricFlowClient(configuration, overrideCredential, null, true)
-          .testConnection();
-      return true;
-    } catch (Exception e) {
-      return false;
-    }
+    return CdConnectionHealthMonitor.get().isAvailable(configuration, overrideCredential);
   }
 
   public static ListBoxModel getProjects(String configuration, Credential overrideCredential) {
@@ -316,17 +264,21 @@ public class Utils {
         ElectricFlowClient efClient =
             ElectricFlowClientFactory.getElectricFlowClient(
                 configuration, overrideCredential, null, true);
-        String projectsString = efClient.getProjects();
-        JSONObject jsonObject = JSONObject.fromObject(projectsString);
-        JSONArray projects = jsonObject.getJSONArray("project");
+        List<ProjectData> projects =
+            CdMetadataCache.get()
+                .get(
+                    configuration,
+                    efClient,
+                    MetadataType.PROJECTS,
+                    () -> efClient.getProjectList());
 
-        for (int i = 0; i < projects.size(); i++) {
+        for (ProjectData project : projects) {
 
-          if (projects.getJSONObject(i).has("pluginKey")) {
+          if (project.isPluginProject()) {
             continue;
           }
 
-          String gotProjectName = projects.getJSONObject(i).getString("projectName");
+          String gotProjectName = project.getProjectName();
 
           m.add(gotProjectName, gotProjectName);
         }
@@ -0,0 +1,249 @@
+package org.jenkinsci.plugins.electricflow.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jenkinsci.plugins.electricflow.ElectricFlowClient;
+
+/**
+ * Short-lived cache for CloudBees CD metadata shown in job configuration forms (projects,
+ * pipelines, applications, ...). Entries are keyed by configuration, server and user of the
+ * client, object type and parent path, expire after a per-type TTL and are evicted in LRU order
+ * once the cache is full.
+ */
+public final class CdMetadataCache {
+
+  private static final Log log = LogFactory.getLog(CdMetadataCache.class);
+
+  private static final int MAX_ENTRIES =
+      Integer.getInteger(CdMetadataCache.class.getName() + ".maxEntries", 1000);
+
+  private static final CdMetadataCache INSTANCE = new CdMetadataCache();
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  private final Map<Key, Entry> entries =
+      new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+          if (size() > MAX_ENTRIES) {
+            evictions.incrementAndGet();
+            return true;
+          }
+          return false;
+        }
+      };
+
+  // Incremented by every flush, values loaded before a flush are not cached
+  private long generation;
+
+  private CdMetadataCache() {}
+
+  public static CdMetadataCache get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns the cached value or loads and caches it. Failed loads are not cached.
+   *
+   * @param configuration CloudBees CD configuration name
+   * @param client client the loader uses, its server and user are part of the key
+   * @param type type of the requested objects
+   * @param loader loads the value from CloudBees CD on a cache miss
+   * @param parentPath names of the parent objects, e.g. project and application name
+   * @param <T> value type
+   * @return cached or freshly loaded value
+   * @throws Exception if the loader fails
+   */
+  public <T> T get(
+      String configuration,
+      ElectricFlowClient client,
+      MetadataType type,
+      Loader<T> loader,
+      String... parentPath)
+      throws Exception {
+    Key key = new Key(configuration, client.getSessionKey(), type, Arrays.asList(parentPath));
+    long now = System.nanoTime();
+    long loadGeneration;
+
+    synchronized (entries) {
+      Entry entry = entries.get(key);
+      loadGeneration = generation;
+
+      if (entry != null && entry.expiresAt - now > 0) {
+        hits.incrementAndGet();
+        @SuppressWarnings("unchecked")
+        T value = (T) entry.value;
+        return value;
+      }
+    }
+
+    misses.incrementAndGet();
+    T value = loader.load();
+
+    if (value instanceof List) {
+      @SuppressWarnings("unchecked")
+      T unmodifiable = (T) Collections.unmodifiableList((List<?>) value);
+      value = unmodifiable;
+    }
+
+    synchronized (entries) {
+      if (loadGeneration == generation) {
+        entries.put(key, new Entry(value, now + type.getTtlNanos()));
+      }
+    }
+
+    return value;
+  }
+
+  /**
+   * Removes all entries.
+   *
+   * @return number of removed entries
+   */
+  public int flush() {
+    synchronized (entries) {
+      int size = entries.size();
+      entries.clear();
+      generation++;
+      log.info("CloudBees CD metadata cache flushed, " + size + " entries removed");
+      return size;
+    }
+  }
+
+  /**
+   * Removes entries of the configuration.
+   *
+   * @param configuration CloudBees CD configuration name
+   */
+  public void flush(String configuration) {
+    synchronized (entries) {
+      entries.keySet().removeIf(key -> Objects.equals(key.configuration, configuration));
+      generation++;
+    }
+  }
+
+  public int getSize() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  public String getStatistics() {
+    long hitCount = getHits();
+    long requestCount = hitCount + getMisses();
+    long hitRate = requestCount == 0 ? 0 : hitCount * 100 / requestCount;
+
+    return "entries="
+        + getSize()
+        + ", hits="
+        + hitCount
+        + ", misses="
+        + getMisses()
+        + ", hitRate="
+        + hitRate
+        + "%, evictions="
+        + getEvictions();
+  }
+
+  public enum MetadataType {
+    PROJECTS(300),
+    PIPELINES(120),
+    PIPELINE_PARAMETERS(60),
+    APPLICATIONS(120),
+    APPLICATION_PROCESSES(120),
+    APPLICATION_PROCESS_PARAMETERS(60),
+    ENVIRONMENTS(120),
+    PROCEDURES(120),
+    PROCEDURE_PARAMETERS(60);
+
+    private final long ttlNanos;
+
+    MetadataType(int defaultTtlSeconds) {
+      // e.g. -Dorg.jenkinsci.plugins.electricflow.cache.CdMetadataCache.PROJECTS.ttlSeconds=600
+      int ttlSeconds =
+          Integer.getInteger(
+              CdMetadataCache.class.getName() + "." + name() + ".ttlSeconds", defaultTtlSeconds);
+      this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    long getTtlNanos() {
+      return ttlNanos;
+    }
+  }
+
+  @FunctionalInterface
+  public interface Loader<T> {
+
+    T load() throws Exception;
+  }
+
+  private static final class Key {
+
+    private final String configuration;
+    private final String sessionKey;
+    private final MetadataType type;
+    private final List<String> parentPath;
+
+    Key(String configuration, String sessionKey, MetadataType type, List<String> parentPath) {
+      this.configuration = configuration;
+      this.sessionKey = sessionKey;
+      this.type = type;
+      this.parentPath = parentPath;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return Objects.equals(configuration, key.configuration)
+          && Objects.equals(sessionKey, key.sessionKey)
+          && type == key.type
+          && parentPath.equals(key.parentPath);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(configuration, sessionKey, type, parentPath);
+    }
+  }
+
+  private static final class Entry {
+
+    private final Object value;
+    private final long expiresAt;
+
+    Entry(Object value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -7,6 +7,7 @@ import org.jenkinsci.plugins.electricflow.Credential;
 import org.jenkinsci.plugins.electricflow.ElectricFlowClient;
 import org.jenkinsci.plugins.electricflow.EnvReplacer;
 import org.jenkinsci.plugins.electricflow.Utils;
+import org.jenkinsci.plugins.electricflow.transport.CdHttpTransports;
 
 public class ElectricFlowClientFactory {
 
@@ -68,6 +69,11 @@ public class ElectricFlowClientFactory {
     }
 
     return new ElectricFlowClient(
-        electricFlowUrl, username, password, apiVersion, ignoreSslConnectionErrors);
+        electricFlowUrl,
+        username,
+        password,
+        apiVersion,
+        ignoreSslConnectionErrors,
+        CdHttpTransports.forConfiguration(cred));
   }
 }
@@ -0,0 +1,305 @@
+package org.jenkinsci.plugins.electricflow.health;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jenkinsci.plugins.electricflow.Configuration;
+import org.jenkinsci.plugins.electricflow.Credential;
+import org.jenkinsci.plugins.electricflow.factories.ElectricFlowClientFactory;
+import org.jenkinsci.plugins.electricflow.transport.CdAsyncExecutor;
+
+/**
+ * Keeps the last known connection state per CloudBees CD configuration and credential. Lookups
+ * never wait for the server: they return the cached state, or {@link Status#UNKNOWN} before the
+ * first check, and refresh stale states with a background probe. Failed probes are retried with
+ * exponential backoff, so an unreachable server is not hit by every form request.
+ */
+public final class CdConnectionHealthMonitor {
+
+  private static final Log log = LogFactory.getLog(CdConnectionHealthMonitor.class);
+
+  static final long UP_REFRESH_MILLIS =
+      Long.getLong(CdConnectionHealthMonitor.class.getName() + ".refreshSeconds", 60) * 1000;
+  static final long MIN_BACKOFF_MILLIS =
+      Long.getLong(CdConnectionHealthMonitor.class.getName() + ".minBackoffSeconds", 5) * 1000;
+  static final long MAX_BACKOFF_MILLIS =
+      Long.getLong(CdConnectionHealthMonitor.class.getName() + ".maxBackoffSeconds", 300) * 1000;
+  static final long DEGRADED_LATENCY_MILLIS =
+      Long.getLong(CdConnectionHealthMonitor.class.getName() + ".degradedLatencyMillis", 5000);
+
+  private static final Health UNKNOWN = new Health(Status.UNKNOWN, 0, 0, null);
+
+  private static final CdConnectionHealthMonitor INSTANCE =
+      new CdConnectionHealthMonitor(
+          (configuration, overrideCredential) ->
+              ElectricFlowClientFactory.getElectricFlowClient(
+                      configuration, overrideCredential, null, true)
+                  .testConnection(),
+          CdAsyncExecutor::execute,
+          System::currentTimeMillis);
+
+  private final ConcurrentMap<Key, State> states = new ConcurrentHashMap<>();
+  private final Probe probe;
+  private final Executor executor;
+  private final LongSupplier clock;
+
+  // Fingerprints of the configurations passed to the last retainConfigurations call
+  private Map<String, String> fingerprints = new HashMap<>();
+
+  CdConnectionHealthMonitor(Probe probe, Executor executor, LongSupplier clock) {
+    this.probe = probe;
+    this.executor = executor;
+    this.clock = clock;
+  }
+
+  public static CdConnectionHealthMonitor get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns the last known connection health of the configuration and schedules a background
+   * probe if it is outdated.
+   *
+   * @param configuration CloudBees CD configuration name
+   * @param overrideCredential override credential, may be null
+   * @return last known health, {@link Status#UNKNOWN} until the first probe completes
+   */
+  public Health getHealth(String configuration, Credential overrideCredential) {
+    String credentialId = overrideCredential == null ? null : overrideCredential.getCredentialId();
+    Key key = new Key(configuration, credentialId);
+    State state = states.computeIfAbsent(key, k -> new State(configuration, overrideCredential));
+
+    return state.getHealth();
+  }
+
+  public boolean isAvailable(String configuration, Credential overrideCredential) {
+    return getHealth(configuration, overrideCredential).getStatus() != Status.DOWN;
+  }
+
+  /**
+   * Forgets the states of configurations which were removed or changed, so an edited
+   * configuration is not reported with the state of its old server.
+   *
+   * @param configurations configurations that are currently defined
+   */
+  public void retainConfigurations(Collection<Configuration> configurations) {
+    Map<String, String> actual = new HashMap<>();
+
+    if (configurations != null) {
+      for (Configuration configuration : configurations) {
+        actual.put(configuration.getConfigurationName(), getFingerprint(configuration));
+      }
+    }
+
+    retain(actual);
+  }
+
+  synchronized void retain(Map<String, String> actualFingerprints) {
+    Map<String, String> previous = fingerprints;
+
+    states
+        .keySet()
+        .removeIf(
+            key -> {
+              String fingerprint = actualFingerprints.get(key.configuration);
+              return fingerprint == null || !fingerprint.equals(previous.get(key.configuration));
+            });
+
+    fingerprints = new HashMap<>(actualFingerprints);
+  }
+
+  private static String getFingerprint(Configuration configuration) {
+    return DigestUtils.sha256Hex(
+        configuration.getElectricFlowUrl()
+            + "\n"
+            + configuration.getElectricFlowUser()
+            + "\n"
+            + configuration.getElectricFlowPassword().getPlainText()
+            + "\n"
+            + configuration.getElectricFlowApiVersion()
+            + "\n"
+            + configuration.getIgnoreSslConnectionErrors());
+  }
+
+  int getStateCount() {
+    return states.size();
+  }
+
+  /** Checks the connection, fails if the server is not available. */
+  @FunctionalInterface
+  interface Probe {
+
+    void check(String configuration, Credential overrideCredential) throws Exception;
+  }
+
+  public enum Status {
+    UNKNOWN,
+    UP,
+    DEGRADED,
+    DOWN
+  }
+
+  public static final class Health {
+
+    private final Status status;
+    private final long latencyMillis;
+    private final long checkedAt;
+    private final String message;
+
+    Health(Status status, long latencyMillis, long checkedAt, String message) {
+      this.status = status;
+      this.latencyMillis = latencyMillis;
+      this.checkedAt = checkedAt;
+      this.message = message;
+    }
+
+    public Status getStatus() {
+      return status;
+    }
+
+    /** @return duration of the last probe in milliseconds */
+    public long getLatencyMillis() {
+      return latencyMillis;
+    }
+
+    /** @return time of the last probe in milliseconds since the epoch, 0 if there was none */
+    public long getCheckedAt() {
+      return checkedAt;
+    }
+
+    /** @return error message of the last failed probe, null if it succeeded */
+    public String getMessage() {
+      return message;
+    }
+
+    @Override
+    public String toString() {
+      String result = status + " (latency " + latencyMillis + " ms";
+
+      if (message != null) {
+        result += ", " + message;
+      }
+
+      return result + ")";
+    }
+  }
+
+  private final class State {
+
+    private final String configuration;
+    private final Credential overrideCredential;
+    private final AtomicBoolean probeScheduled = new AtomicBoolean();
+
+    private volatile Health health = UNKNOWN;
+    private volatile long nextProbeAt;
+    private int consecutiveFailures;
+
+    State(String configuration, Credential overrideCredential) {
+      this.configuration = configuration;
+      this.overrideCredential = overrideCredential;
+    }
+
+    Health getHealth() {
+      if (clock.getAsLong() >= nextProbeAt) {
+        scheduleProbe();
+      }
+
+      return health;
+    }
+
+    private void scheduleProbe() {
+      if (!probeScheduled.compareAndSet(false, true)) {
+        return;
+      }
+
+      try {
+        executor.execute(
+            () -> {
+              try {
+                runProbe();
+              } finally {
+                probeScheduled.set(false);
+              }
+            });
+      } catch (RejectedExecutionException e) {
+        // Executor is busy, the next lookup schedules the probe again
+        probeScheduled.set(false);
+      }
+    }
+
+    // Only one probe of a state runs at a time
+    private void runProbe() {
+      long startedAt = clock.getAsLong();
+
+      try {
+        probe.check(configuration, overrideCredential);
+
+        long latency = clock.getAsLong() - startedAt;
+        Status status = latency > DEGRADED_LATENCY_MILLIS ? Status.DEGRADED : Status.UP;
+
+        consecutiveFailures = 0;
+        health = new Health(status, latency, startedAt, null);
+        nextProbeAt = clock.getAsLong() + UP_REFRESH_MILLIS;
+      } catch (Exception e) {
+        long latency = clock.getAsLong() - startedAt;
+        long backoff =
+            Math.min(MAX_BACKOFF_MILLIS, MIN_BACKOFF_MILLIS << Math.min(consecutiveFailures, 16));
+
+        consecutiveFailures++;
+        health = new Health(Status.DOWN, latency, startedAt, e.getMessage());
+        nextProbeAt = clock.getAsLong() + backoff;
+
+        if (log.isDebugEnabled()) {
+          log.debug(
+              "CloudBees CD configuration "
+                  + configuration
+                  + " is not available, next check in "
+                  + TimeUnit.MILLISECONDS.toSeconds(backoff)
+                  + " s: "
+                  + e.getMessage(),
+              e);
+        }
+      }
+    }
+  }
+
+  private static final class Key {
+
+    private final String configuration;
+    private final String credentialId;
+
+    Key(String configuration, String credentialId) {
+      this.configuration = configuration;
+      this.credentialId = credentialId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return Objects.equals(configuration, key.configuration)
+          && Objects.equals(credentialId, key.credentialId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(configuration, credentialId);
+    }
+  }
+}
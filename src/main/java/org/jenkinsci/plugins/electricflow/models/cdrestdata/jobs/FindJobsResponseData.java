@@ -0,0 +1,37 @@
+package org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/** Response of findObjects with objectType job. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FindJobsResponseData {
+
+  @JsonProperty("object")
+  private List<JobObject> objects = new ArrayList<>();
+
+  public List<GetJobStatusResponseData> getJobs() {
+    return objects.stream()
+        .map(JobObject::getJob)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public static class JobObject {
+
+    @JsonProperty private GetJobStatusResponseData job;
+
+    public GetJobStatusResponseData getJob() {
+      return job;
+    }
+
+    public void setJob(GetJobStatusResponseData job) {
+      this.job = job;
+    }
+  }
+}
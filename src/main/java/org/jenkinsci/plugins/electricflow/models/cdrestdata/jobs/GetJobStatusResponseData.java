@@ -12,6 +12,10 @@ public class GetJobStatusResponseData {
   @JsonProperty() private String jobId;
   @JsonProperty() private CdJobStatus status = CdJobStatus.unknown;
   @JsonProperty() private CdJobOutcome outcome = CdJobOutcome.unknown;
+  @JsonProperty() private String projectName;
+  @JsonProperty() private String procedureName;
+
+  // Raw response, only kept if the status could not be interpreted
   private String content;
 
   public String getJobId() {
@@ -38,6 +42,22 @@ public class GetJobStatusResponseData {
     this.outcome = outcome;
   }
 
+  public String getProjectName() {
+    return projectName;
+  }
+
+  public void setProjectName(String projectName) {
+    this.projectName = projectName;
+  }
+
+  public String getProcedureName() {
+    return procedureName;
+  }
+
+  public void setProcedureName(String procedureName) {
+    this.procedureName = procedureName;
+  }
+
   public String getContent() {
     return content;
   }
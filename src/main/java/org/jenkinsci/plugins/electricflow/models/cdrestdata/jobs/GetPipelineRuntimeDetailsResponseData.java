@@ -2,11 +2,14 @@ package org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs;
 
 import static org.jenkinsci.plugins.electricflow.Utils.formatJsonOutput;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import org.jenkinsci.plugins.electricflow.utils.JsonUtils.NumericBooleanDeserializer;
 import org.jenkinsci.plugins.electricflow.utils.JsonUtils.NumericBooleanSerializer;
 
@@ -21,6 +24,14 @@ public class GetPipelineRuntimeDetailsResponseData {
   private Boolean completed;
 
   @JsonProperty private CdPipelineStatus status = CdPipelineStatus.unknown;
+  @JsonProperty private String projectName;
+  @JsonProperty private String pipelineName;
+
+  @JsonProperty("stage")
+  @JsonAlias("stages")
+  private List<PipelineRuntimeStageDetails> stages = new ArrayList<>();
+
+  // Raw response, only kept if the status could not be interpreted
   private String content;
 
   public String getFlowRuntimeId() {
@@ -47,6 +58,30 @@ public class GetPipelineRuntimeDetailsResponseData {
     this.status = status;
   }
 
+  public String getProjectName() {
+    return projectName;
+  }
+
+  public void setProjectName(String projectName) {
+    this.projectName = projectName;
+  }
+
+  public String getPipelineName() {
+    return pipelineName;
+  }
+
+  public void setPipelineName(String pipelineName) {
+    this.pipelineName = pipelineName;
+  }
+
+  public List<PipelineRuntimeStageDetails> getStages() {
+    return stages;
+  }
+
+  public void setStages(List<PipelineRuntimeStageDetails> stages) {
+    this.stages = stages;
+  }
+
   public String getContent() {
     return content;
   }
@@ -0,0 +1,22 @@
+package org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Response of getPipelineRuntimeDetails, one entry per requested flowRuntimeId. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GetPipelineRuntimesDetailsResponseData {
+
+  @JsonProperty("flowRuntime")
+  private List<GetPipelineRuntimeDetailsResponseData> flowRuntimes = new ArrayList<>();
+
+  public List<GetPipelineRuntimeDetailsResponseData> getFlowRuntimes() {
+    return flowRuntimes;
+  }
+
+  public void setFlowRuntimes(List<GetPipelineRuntimeDetailsResponseData> flowRuntimes) {
+    this.flowRuntimes = flowRuntimes;
+  }
+}
@@ -0,0 +1,98 @@
+package org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import java.util.ArrayList;
+import java.util.List;
+import org.jenkinsci.plugins.electricflow.utils.JsonUtils.NumericBooleanDeserializer;
+
+/** Stage of a pipeline runtime, as returned by getPipelineRuntimeDetails. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PipelineRuntimeStageDetails {
+
+  @JsonProperty
+  @JsonAlias("name")
+  private String stageName;
+
+  @JsonProperty private String status;
+
+  @JsonProperty
+  @JsonDeserialize(using = NumericBooleanDeserializer.class)
+  private Boolean completed;
+
+  @JsonProperty("task")
+  @JsonAlias("tasks")
+  private List<Task> tasks = new ArrayList<>();
+
+  public String getStageName() {
+    return stageName;
+  }
+
+  public void setStageName(String stageName) {
+    this.stageName = stageName;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public void setStatus(String status) {
+    this.status = status;
+  }
+
+  public Boolean isCompleted() {
+    return completed;
+  }
+
+  public void setCompleted(Boolean completed) {
+    this.completed = completed;
+  }
+
+  public List<Task> getTasks() {
+    return tasks;
+  }
+
+  public void setTasks(List<Task> tasks) {
+    this.tasks = tasks;
+  }
+
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public static class Task {
+
+    @JsonProperty
+    @JsonAlias("name")
+    private String taskName;
+
+    @JsonProperty private String status;
+
+    @JsonProperty
+    @JsonDeserialize(using = NumericBooleanDeserializer.class)
+    private Boolean completed;
+
+    public String getTaskName() {
+      return taskName;
+    }
+
+    public void setTaskName(String taskName) {
+      this.taskName = taskName;
+    }
+
+    public String getStatus() {
+      return status;
+    }
+
+    public void setStatus(String status) {
+      this.status = status;
+    }
+
+    public Boolean isCompleted() {
+      return completed;
+    }
+
+    public void setCompleted(Boolean completed) {
+      this.completed = completed;
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package org.jenkinsci.plugins.electricflow.models.cdrestdata.parameters;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/** Response of findObjects with objectType formalParameter. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FindFormalParametersResponseData {
+
+  @JsonProperty("object")
+  private List<FormalParameterObject> objects = new ArrayList<>();
+
+  public List<FormalParameterData> getFormalParameters() {
+    return objects.stream()
+        .map(FormalParameterObject::getFormalParameter)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public static class FormalParameterObject {
+
+    @JsonProperty private FormalParameterData formalParameter;
+
+    public FormalParameterData getFormalParameter() {
+      return formalParameter;
+    }
+
+    public void setFormalParameter(FormalParameterData formalParameter) {
+      this.formalParameter = formalParameter;
+    }
+  }
+}
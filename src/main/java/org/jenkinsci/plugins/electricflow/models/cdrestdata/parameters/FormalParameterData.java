@@ -0,0 +1,23 @@
+package org.jenkinsci.plugins.electricflow.models.cdrestdata.parameters;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FormalParameterData {
+
+  @JsonProperty private String formalParameterName;
+  @JsonProperty private String expansionDeferred;
+
+  public String getFormalParameterName() {
+    return formalParameterName;
+  }
+
+  public String getExpansionDeferred() {
+    return expansionDeferred;
+  }
+
+  public boolean isExpansionDeferred() {
+    return !"0".equals(expansionDeferred);
+  }
+}
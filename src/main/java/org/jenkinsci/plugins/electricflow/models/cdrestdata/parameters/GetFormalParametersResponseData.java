@@ -0,0 +1,21 @@
+package org.jenkinsci.plugins.electricflow.models.cdrestdata.parameters;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GetFormalParametersResponseData {
+
+  @JsonProperty("formalParameter")
+  private List<FormalParameterData> formalParameters = new ArrayList<>();
+
+  public List<FormalParameterData> getFormalParameters() {
+    return formalParameters;
+  }
+
+  public void setFormalParameters(List<FormalParameterData> formalParameters) {
+    this.formalParameters = formalParameters;
+  }
+}
@@ -0,0 +1,37 @@
+package org.jenkinsci.plugins.electricflow.models.cdrestdata.pipelines;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/** Response of findObjects with objectType pipeline. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FindPipelinesResponseData {
+
+  @JsonProperty("object")
+  private List<PipelineObject> objects = new ArrayList<>();
+
+  public List<PipelineData> getPipelines() {
+    return objects.stream()
+        .map(PipelineObject::getPipeline)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public static class PipelineObject {
+
+    @JsonProperty private PipelineData pipeline;
+
+    public PipelineData getPipeline() {
+      return pipeline;
+    }
+
+    public void setPipeline(PipelineData pipeline) {
+      this.pipeline = pipeline;
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package org.jenkinsci.plugins.electricflow.models.cdrestdata.pipelines;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GetPipelinesResponseData {
+
+  @JsonProperty("pipeline")
+  private List<PipelineData> pipelines = new ArrayList<>();
+
+  public List<PipelineData> getPipelines() {
+    return pipelines;
+  }
+
+  public void setPipelines(List<PipelineData> pipelines) {
+    this.pipelines = pipelines;
+  }
+}
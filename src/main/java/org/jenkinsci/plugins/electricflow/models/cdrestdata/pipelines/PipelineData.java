@@ -0,0 +1,24 @@
+package org.jenkinsci.plugins.electricflow.models.cdrestdata.pipelines;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PipelineData {
+
+  @JsonProperty private String pipelineId;
+  @JsonProperty private String pipelineName;
+  @JsonProperty private String projectName;
+
+  public String getPipelineId() {
+    return pipelineId;
+  }
+
+  public String getPipelineName() {
+    return pipelineName;
+  }
+
+  public String getProjectName() {
+    return projectName;
+  }
+}
@@ -0,0 +1,21 @@
+package org.jenkinsci.plugins.electricflow.models.cdrestdata.projects;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GetProjectsResponseData {
+
+  @JsonProperty("project")
+  private List<ProjectData> projects = new ArrayList<>();
+
+  public List<ProjectData> getProjects() {
+    return projects;
+  }
+
+  public void setProjects(List<ProjectData> projects) {
+    this.projects = projects;
+  }
+}
@@ -0,0 +1,23 @@
+package org.jenkinsci.plugins.electricflow.models.cdrestdata.projects;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProjectData {
+
+  @JsonProperty private String projectName;
+  @JsonProperty private String pluginKey;
+
+  public String getProjectName() {
+    return projectName;
+  }
+
+  public String getPluginKey() {
+    return pluginKey;
+  }
+
+  public boolean isPluginProject() {
+    return pluginKey != null;
+  }
+}
@@ -0,0 +1,21 @@
+package org.jenkinsci.plugins.electricflow.models.cdrestdata.releases;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GetReleasesResponseData {
+
+  @JsonProperty("release")
+  private List<ReleaseData> releases = new ArrayList<>();
+
+  public List<ReleaseData> getReleases() {
+    return releases;
+  }
+
+  public void setReleases(List<ReleaseData> releases) {
+    this.releases = releases;
+  }
+}
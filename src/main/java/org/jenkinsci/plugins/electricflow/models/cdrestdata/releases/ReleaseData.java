@@ -0,0 +1,65 @@
+package org.jenkinsci.plugins.electricflow.models.cdrestdata.releases;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ReleaseData {
+
+  @JsonProperty private String releaseId;
+  @JsonProperty private String releaseName;
+  @JsonProperty private String pipelineId;
+  @JsonProperty private String pipelineName;
+  @JsonProperty private String flowRuntimeId;
+  @JsonProperty private Stages stages;
+
+  public String getReleaseId() {
+    return releaseId;
+  }
+
+  public String getReleaseName() {
+    return releaseName;
+  }
+
+  public String getPipelineId() {
+    return pipelineId;
+  }
+
+  public String getPipelineName() {
+    return pipelineName;
+  }
+
+  public String getFlowRuntimeId() {
+    return flowRuntimeId;
+  }
+
+  public List<String> getStageNames() {
+    List<String> stageNames = new ArrayList<>();
+
+    if (stages == null) {
+      return stageNames;
+    }
+
+    for (Stage stage : stages.stage) {
+      if (stage.name != null && !stageNames.contains(stage.name)) {
+        stageNames.add(stage.name);
+      }
+    }
+
+    return stageNames;
+  }
+
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public static class Stages {
+
+    @JsonProperty private List<Stage> stage = new ArrayList<>();
+  }
+
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public static class Stage {
+
+    @JsonProperty private String name;
+  }
+}
@@ -1,8 +1,10 @@
 package org.jenkinsci.plugins.electricflow.rest;
 
+import hudson.Util;
 import hudson.model.Action;
 import hudson.model.Cause;
 import hudson.model.CauseAction;
+import hudson.model.Item;
 import hudson.model.Job;
 import hudson.model.ParameterDefinition;
 import hudson.model.ParameterValue;
@@ -19,7 +21,10 @@ import javax.servlet.ServletException;
 import jenkins.model.Jenkins;
 import net.sf.json.JSONException;
 import net.sf.json.JSONObject;
+import org.apache.commons.io.IOUtils;
 import org.jenkinsci.plugins.electricflow.causes.EFCause;
+import org.jenkinsci.plugins.electricflow.runandwait.CdRunType;
+import org.jenkinsci.plugins.electricflow.runandwait.CdWaitService;
 import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.StaplerResponse;
 import org.kohsuke.stapler.verb.POST;
@@ -188,6 +193,51 @@ public class ElectricFlowEFRunAPIAction<T extends Job<?, ?> & Queue.Task> implem
     out.flush();
   }
 
+  /**
+   * Lets CloudBees CD report that a job or pipeline runtime is completed. Builds of this job
+   * waiting for the run check its status right away instead of at their next scheduled check.
+   * Expects a JSON body with either "jobId" or "flowRuntimeId".
+   */
+  @POST
+  public void doNotifyCompletion(StaplerRequest req, StaplerResponse rsp)
+      throws IOException, ServletException {
+    project.checkPermission(Item.BUILD);
+
+    JSONObject jsonObject;
+    try {
+      jsonObject = JSONObject.fromObject(IOUtils.toString(req.getReader()));
+    } catch (JSONException e) {
+      rsp.sendError(400, "Request body must be a JSON object");
+      return;
+    }
+
+    String jobId = Util.fixEmptyAndTrim(jsonObject.optString("jobId"));
+    String flowRuntimeId = Util.fixEmptyAndTrim(jsonObject.optString("flowRuntimeId"));
+
+    if (jobId == null && flowRuntimeId == null) {
+      rsp.sendError(400, "jobId or flowRuntimeId is required");
+      return;
+    }
+
+    int waitingRuns =
+        jobId != null
+            ? CdWaitService.get().notifyCompleted(project.getFullName(), CdRunType.JOB, jobId)
+            : CdWaitService.get()
+                .notifyCompleted(project.getFullName(), CdRunType.PIPELINE_RUNTIME, flowRuntimeId);
+
+    JSONObject responseObject = new JSONObject();
+    responseObject.put("status", "ok");
+    responseObject.put("waitingRuns", waitingRuns);
+
+    byte[] responseBytes = responseObject.toString().getBytes("UTF-8");
+    rsp.setStatus(200);
+    rsp.setContentType("application/json");
+    rsp.setContentLength(responseBytes.length);
+    OutputStream out = rsp.getOutputStream();
+    out.write(responseBytes);
+    out.flush();
+  }
+
   private List<ParameterDefinition> getParameterDefinitions() {
     ParametersDefinitionProperty property =
         (ParametersDefinitionProperty) project.getProperty(ParametersDefinitionProperty.class);
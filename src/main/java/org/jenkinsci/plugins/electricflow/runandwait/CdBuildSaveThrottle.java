@@ -0,0 +1,68 @@
+package org.jenkinsci.plugins.electricflow.runandwait;
+
+import hudson.model.Saveable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how often a build waiting for a CloudBees CD run is saved. Intermediate summaries are
+ * only kept in memory; the build is saved when the CD status changes, at most once per minimum
+ * interval ({@code minIntervalSeconds} system property, 30 s by default), and always when the wait
+ * ends.
+ */
+public final class CdBuildSaveThrottle {
+
+  static final long MIN_SAVE_INTERVAL_MILLIS =
+      TimeUnit.SECONDS.toMillis(
+          Long.getLong(CdBuildSaveThrottle.class.getName() + ".minIntervalSeconds", 30));
+
+  private final Saveable build;
+  private final long minIntervalMillis;
+  private String savedState;
+  private long savedAt;
+  private boolean dirty;
+
+  public CdBuildSaveThrottle(Saveable build) {
+    this(build, MIN_SAVE_INTERVAL_MILLIS);
+  }
+
+  CdBuildSaveThrottle(Saveable build, long minIntervalMillis) {
+    this.build = build;
+    this.minIntervalMillis = minIntervalMillis;
+  }
+
+  /**
+   * Saves the build if the status differs from the last saved one and the last save is long
+   * enough ago. A change that is not saved yet is saved by a later call or by {@link #flush()}.
+   *
+   * @param status received status
+   * @throws IOException if the build cannot be saved
+   */
+  public void onStatus(CdRunStatus status) throws IOException {
+    if (!status.getState().equals(savedState)) {
+      savedState = status.getState();
+      dirty = true;
+    }
+
+    if (dirty && System.currentTimeMillis() - savedAt >= minIntervalMillis) {
+      save();
+    }
+  }
+
+  /**
+   * Saves the build if it has changes that were not saved yet.
+   *
+   * @throws IOException if the build cannot be saved
+   */
+  public void flush() throws IOException {
+    if (dirty) {
+      save();
+    }
+  }
+
+  private void save() throws IOException {
+    build.save();
+    savedAt = System.currentTimeMillis();
+    dirty = false;
+  }
+}
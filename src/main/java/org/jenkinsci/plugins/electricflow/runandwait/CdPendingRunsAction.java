@@ -0,0 +1,119 @@
+package org.jenkinsci.plugins.electricflow.runandwait;
+
+import hudson.model.InvisibleAction;
+import hudson.model.Run;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.jenkinsci.plugins.electricflow.Credential;
+import org.jenkinsci.plugins.electricflow.EnvReplacer;
+import org.jenkinsci.plugins.workflow.flow.FlowExecutionOwner;
+
+/**
+ * Remembers the CloudBees CD runs launched by a build without waiting for them, so that a later
+ * {@code cloudBeesFlowWaitForCompletion} step can wait for them in the background.
+ */
+public class CdPendingRunsAction extends InvisibleAction {
+
+  private final List<CdWaitTarget> pendingRuns = new ArrayList<>();
+
+  /**
+   * Records a launched run on a Pipeline build. Other builds have no step to wait for it, so
+   * nothing is recorded for them. The build is not saved here, callers record the run before
+   * saving the build.
+   *
+   * @param run build that launched the CD run
+   * @param target launched CD run
+   */
+  public static void addPendingRun(Run<?, ?> run, CdWaitTarget target) {
+    if (!(run instanceof FlowExecutionOwner.Executable)) {
+      return;
+    }
+
+    synchronized (run) {
+      CdPendingRunsAction action = run.getAction(CdPendingRunsAction.class);
+
+      if (action == null) {
+        action = new CdPendingRunsAction();
+        run.addAction(action);
+      }
+
+      action.add(target);
+    }
+  }
+
+  /**
+   * Records a run launched by a build step that does not wait for it.
+   *
+   * @param run build that launched the CD run
+   * @param configuration CloudBees CD configuration name
+   * @param overrideCredential override credential of the step, may be null
+   * @param env used to expand the override credential id, may be null
+   * @param type kind of the launched run
+   * @param id jobId or flowRuntimeId, nothing is recorded if null
+   */
+  public static void addPendingRun(
+      Run<?, ?> run,
+      String configuration,
+      Credential overrideCredential,
+      EnvReplacer env,
+      CdRunType type,
+      String id) {
+    if (id == null || !(run instanceof FlowExecutionOwner.Executable)) {
+      return;
+    }
+
+    String credentialId =
+        overrideCredential == null ? null : overrideCredential.getCredentialId(env);
+
+    addPendingRun(run, new CdWaitTarget(configuration, credentialId, type, id));
+  }
+
+  /**
+   * Returns the runs recorded on the build. They stay recorded until the step that waits for them
+   * has completed, so they are not lost if the controller stops before the step is saved.
+   *
+   * @param run build
+   * @return recorded runs, empty if there are none
+   */
+  public static List<CdWaitTarget> getPendingRuns(Run<?, ?> run) {
+    CdPendingRunsAction action = run.getAction(CdPendingRunsAction.class);
+
+    return action == null ? new ArrayList<>() : action.getPendingRuns();
+  }
+
+  /**
+   * Removes runs that a completed step has waited for and saves the build.
+   *
+   * @param run build
+   * @param targets runs to remove
+   * @throws IOException if the build cannot be saved
+   */
+  public static void removePendingRuns(Run<?, ?> run, Collection<CdWaitTarget> targets)
+      throws IOException {
+    synchronized (run) {
+      CdPendingRunsAction action = run.getAction(CdPendingRunsAction.class);
+
+      if (action == null) {
+        return;
+      }
+
+      action.removeAll(targets);
+    }
+
+    run.save();
+  }
+
+  public synchronized List<CdWaitTarget> getPendingRuns() {
+    return new ArrayList<>(pendingRuns);
+  }
+
+  private synchronized void add(CdWaitTarget target) {
+    pendingRuns.add(target);
+  }
+
+  private synchronized void removeAll(Collection<CdWaitTarget> targets) {
+    pendingRuns.removeAll(targets);
+  }
+}
@@ -0,0 +1,94 @@
+package org.jenkinsci.plugins.electricflow.runandwait;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.jenkinsci.plugins.electricflow.RunAndWaitOption;
+
+/**
+ * Computes the delay before the next status check of a waited CloudBees CD run.
+ *
+ * <p>The fixed mode always waits the configured check interval. The adaptive mode starts with
+ * {@link #ADAPTIVE_MIN_INTERVAL_MILLIS} and doubles the delay after every check up to the
+ * configured maximum. If the usual duration of the run is known, the adaptive mode checks rarely
+ * until the run is expected to finish and often around the expected end. Adaptive delays are
+ * randomized by up to {@link #JITTER} in both directions, so builds started together do not check
+ * in lockstep.
+ *
+ * <p>If CloudBees CD reports the completion of the run, only the first check follows the
+ * configured interval. Later checks only cover lost notifications and are done every {@link
+ * #CALLBACK_FALLBACK_INTERVAL_MILLIS}.
+ */
+public final class CdPollingSchedule {
+
+  static final long ADAPTIVE_MIN_INTERVAL_MILLIS =
+      Long.getLong(CdPollingSchedule.class.getName() + ".adaptiveMinIntervalMillis", 1000);
+  static final long CALLBACK_FALLBACK_INTERVAL_MILLIS =
+      TimeUnit.SECONDS.toMillis(
+          Long.getLong(CdPollingSchedule.class.getName() + ".callbackFallbackSeconds", 300));
+  static final double JITTER = 0.2;
+
+  private CdPollingSchedule() {}
+
+  /**
+   * @param runAndWaitOption wait options
+   * @return description of the check interval for the build log
+   */
+  public static String describe(RunAndWaitOption runAndWaitOption) {
+    if (runAndWaitOption.isCompletionCallback()) {
+      return "waiting for the completion notification, checking every "
+          + TimeUnit.MILLISECONDS.toSeconds(CALLBACK_FALLBACK_INTERVAL_MILLIS)
+          + " seconds in case it is lost";
+    }
+
+    if (!runAndWaitOption.isAdaptiveCheckInterval()) {
+      return "checking every " + runAndWaitOption.getCheckInterval() + " seconds";
+    }
+
+    return "checking with an adaptive interval of up to "
+        + runAndWaitOption.getMaxCheckInterval()
+        + " seconds";
+  }
+
+  /**
+   * @param runAndWaitOption wait options
+   * @param checks number of checks done so far
+   * @param elapsedMillis time since the wait started
+   * @param expectedMillis usual duration of the run, negative if unknown
+   * @param random source of the jitter
+   * @return delay in milliseconds
+   */
+  public static long nextDelayMillis(
+      RunAndWaitOption runAndWaitOption,
+      int checks,
+      long elapsedMillis,
+      long expectedMillis,
+      Random random) {
+    if (runAndWaitOption.isCompletionCallback() && checks > 0) {
+      double jitter = (random.nextDouble() * 2 - 1) * JITTER;
+      return Math.round(CALLBACK_FALLBACK_INTERVAL_MILLIS * (1 + jitter));
+    }
+
+    if (!runAndWaitOption.isAdaptiveCheckInterval()) {
+      return TimeUnit.SECONDS.toMillis(runAndWaitOption.getCheckInterval());
+    }
+
+    long min = ADAPTIVE_MIN_INTERVAL_MILLIS;
+    long max = Math.max(min, TimeUnit.SECONDS.toMillis(runAndWaitOption.getMaxCheckInterval()));
+    long delay;
+
+    if (expectedMillis <= 0) {
+      delay = min << Math.min(checks, 30);
+    } else if (elapsedMillis < expectedMillis) {
+      // Halve the remaining time, so checks get denser towards the expected end
+      delay = (expectedMillis - elapsedMillis) / 2;
+    } else {
+      // Overdue, grow the interval again starting from the expected end
+      delay = (elapsedMillis - expectedMillis) / 2;
+    }
+
+    delay = Math.max(min, Math.min(max, delay));
+
+    double jitter = (random.nextDouble() * 2 - 1) * JITTER;
+    return Math.max(min / 2, Math.round(delay * (1 + jitter)));
+  }
+}
@@ -0,0 +1,92 @@
+package org.jenkinsci.plugins.electricflow.runandwait;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jenkinsci.plugins.electricflow.ElectricFlowClient;
+
+/** Aborts CloudBees CD runs whose build stopped waiting for them, retrying failed requests. */
+public final class CdRunAborter {
+
+  private static final Log log = LogFactory.getLog(CdRunAborter.class);
+
+  static final int MAX_ATTEMPTS =
+      Integer.getInteger(CdRunAborter.class.getName() + ".maxAttempts", 3);
+  static final long RETRY_DELAY_MILLIS =
+      Long.getLong(CdRunAborter.class.getName() + ".retryDelayMillis", 2000);
+
+  private CdRunAborter() {}
+
+  /**
+   * Aborts the run. Failed requests are retried with a growing delay, an interrupt stops the
+   * retries.
+   *
+   * @param efClient client to use
+   * @param type kind of the run
+   * @param id jobId or flowRuntimeId
+   * @param logger build log
+   * @return true if the run was aborted
+   */
+  public static boolean abort(
+      ElectricFlowClient efClient, CdRunType type, String id, PrintStream logger) {
+    return abort(
+        () -> {
+          if (type == CdRunType.JOB) {
+            efClient.abortCdJob(id);
+          } else {
+            efClient.abortCdPipelineRuntime(id);
+          }
+        },
+        type.getDisplayName() + " " + id,
+        logger,
+        MAX_ATTEMPTS,
+        RETRY_DELAY_MILLIS);
+  }
+
+  static boolean abort(
+      AbortRequest request,
+      String description,
+      PrintStream logger,
+      int maxAttempts,
+      long retryDelayMillis) {
+    logger.println("Aborting " + description);
+
+    for (int attempt = 1; ; attempt++) {
+      try {
+        request.abort();
+        logger.println("Aborted " + description);
+        return true;
+      } catch (IOException | RuntimeException e) {
+        if (attempt >= maxAttempts) {
+          logger.println("Failed to abort " + description + ": " + e.getMessage());
+          log.warn("Failed to abort " + description + ": " + e.getMessage(), e);
+          return false;
+        }
+
+        long delay = retryDelayMillis << (attempt - 1);
+        logger.println(
+            "Abort request for "
+                + description
+                + " failed, retrying in "
+                + delay
+                + " ms: "
+                + e.getMessage());
+
+        try {
+          Thread.sleep(delay);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          logger.println("Abort of " + description + " was interrupted");
+          return false;
+        }
+      }
+    }
+  }
+
+  @FunctionalInterface
+  interface AbortRequest {
+
+    void abort() throws IOException;
+  }
+}
@@ -0,0 +1,62 @@
+package org.jenkinsci.plugins.electricflow.runandwait;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers how long recently waited CloudBees CD runs took, per server, project and procedure or
+ * pipeline. Used to estimate the duration of the next run of the same procedure or pipeline.
+ * Kept in memory only.
+ */
+public final class CdRunDurationHistory {
+
+  private static final int MAX_ENTRIES =
+      Integer.getInteger(CdRunDurationHistory.class.getName() + ".maxEntries", 1000);
+
+  // Weight of the latest duration in the moving average
+  private static final double LATEST_WEIGHT = 0.3;
+
+  private static final CdRunDurationHistory INSTANCE = new CdRunDurationHistory();
+
+  private final Map<String, Long> durations =
+      new LinkedHashMap<String, Long>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+          return size() > MAX_ENTRIES;
+        }
+      };
+
+  private CdRunDurationHistory() {}
+
+  public static CdRunDurationHistory get() {
+    return INSTANCE;
+  }
+
+  /**
+   * @param key identifies the procedure or pipeline
+   * @return expected duration in milliseconds, -1 if unknown
+   */
+  public synchronized long getExpectedMillis(String key) {
+    Long duration = durations.get(key);
+    return duration == null ? -1 : duration;
+  }
+
+  /**
+   * @param key identifies the procedure or pipeline
+   * @param durationMillis duration of a completed run
+   */
+  public synchronized void record(String key, long durationMillis) {
+    Long previous = durations.get(key);
+
+    if (previous == null) {
+      durations.put(key, durationMillis);
+    } else {
+      durations.put(
+          key, Math.round(previous * (1 - LATEST_WEIGHT) + durationMillis * LATEST_WEIGHT));
+    }
+  }
+
+  public synchronized void clear() {
+    durations.clear();
+  }
+}
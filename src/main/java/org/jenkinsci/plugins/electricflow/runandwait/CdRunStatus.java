@@ -0,0 +1,291 @@
+package org.jenkinsci.plugins.electricflow.runandwait;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jenkinsci.plugins.electricflow.ElectricFlowClient;
+import org.jenkinsci.plugins.electricflow.exceptions.PluginException;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdJobOutcome;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdJobStatus;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdPipelineStatus;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.GetJobStatusResponseData;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.GetPipelineRuntimeDetailsResponseData;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.PipelineRuntimeStageDetails;
+import org.jenkinsci.plugins.electricflow.ui.SummaryTable;
+
+/** Status of a CloudBees CD job or pipeline runtime, as returned by a single status check. */
+public final class CdRunStatus {
+
+  private final CdRunType type;
+  private final GetJobStatusResponseData jobStatus;
+  private final GetPipelineRuntimeDetailsResponseData pipelineRuntimeDetails;
+
+  private CdRunStatus(
+      CdRunType type,
+      GetJobStatusResponseData jobStatus,
+      GetPipelineRuntimeDetailsResponseData pipelineRuntimeDetails) {
+    this.type = type;
+    this.jobStatus = jobStatus;
+    this.pipelineRuntimeDetails = pipelineRuntimeDetails;
+  }
+
+  public static CdRunStatus of(GetJobStatusResponseData jobStatus) {
+    return new CdRunStatus(CdRunType.JOB, jobStatus, null);
+  }
+
+  public static CdRunStatus of(GetPipelineRuntimeDetailsResponseData pipelineRuntimeDetails) {
+    return new CdRunStatus(CdRunType.PIPELINE_RUNTIME, null, pipelineRuntimeDetails);
+  }
+
+  /**
+   * Requests the current status of the run.
+   *
+   * @param efClient client to use
+   * @param type kind of the run
+   * @param id jobId or flowRuntimeId
+   * @return current status
+   * @throws IOException if the request fails
+   */
+  public static CdRunStatus fetch(ElectricFlowClient efClient, CdRunType type, String id)
+      throws IOException {
+    if (type == CdRunType.JOB) {
+      return of(efClient.getCdJobStatus(id));
+    }
+
+    return of(efClient.getCdPipelineRuntimeDetails(id));
+  }
+
+  /**
+   * Requests the current statuses of several runs of the same kind with a single call.
+   *
+   * @param efClient client to use
+   * @param type kind of the runs
+   * @param ids jobIds or flowRuntimeIds
+   * @return statuses by id, runs that were not found are missing
+   * @throws IOException if the request fails
+   */
+  public static Map<String, CdRunStatus> fetchAll(
+      ElectricFlowClient efClient, CdRunType type, Collection<String> ids) throws IOException {
+    Map<String, CdRunStatus> statuses = new HashMap<>();
+
+    if (type == CdRunType.JOB) {
+      efClient.getCdJobStatuses(ids).forEach((id, status) -> statuses.put(id, of(status)));
+    } else {
+      efClient
+          .getCdPipelineRuntimeDetails(ids)
+          .forEach((id, details) -> statuses.put(id, of(details)));
+    }
+
+    return statuses;
+  }
+
+  public CdRunType getType() {
+    return type;
+  }
+
+  /** @return job status, null for pipeline runtimes */
+  public GetJobStatusResponseData getJobStatus() {
+    return jobStatus;
+  }
+
+  /** @return pipeline runtime details, null for jobs */
+  public GetPipelineRuntimeDetailsResponseData getPipelineRuntimeDetails() {
+    return pipelineRuntimeDetails;
+  }
+
+  /**
+   * @return project and procedure or pipeline name of the run, null if the response does not
+   *     contain them
+   */
+  public String getRunDefinition() {
+    String projectName;
+    String name;
+
+    if (type == CdRunType.JOB) {
+      projectName = jobStatus.getProjectName();
+      name = jobStatus.getProcedureName();
+    } else {
+      projectName = pipelineRuntimeDetails.getProjectName();
+      name = pipelineRuntimeDetails.getPipelineName();
+    }
+
+    if (projectName == null || name == null) {
+      return null;
+    }
+    return type + ":" + projectName + "/" + name;
+  }
+
+  /** @return status and outcome of the run, equal for statuses that do not differ */
+  public String getState() {
+    if (type == CdRunType.JOB) {
+      return jobStatus.getStatus() + "/" + jobStatus.getOutcome();
+    }
+
+    return pipelineRuntimeDetails.isCompleted() + "/" + pipelineRuntimeDetails.getStatus();
+  }
+
+  /**
+   * Describes what changed since the previous status of the same run, for the build log. The
+   * first status and statuses that could not be interpreted are described completely, together
+   * with the states of the pipeline stages and tasks known so far.
+   *
+   * @param previous previous status, null for the first one
+   * @return one line per change, empty if nothing changed
+   */
+  public List<String> getChangesSince(CdRunStatus previous) {
+    List<String> changes = new ArrayList<>();
+
+    if (previous == null || !isKnown()) {
+      changes.add(toString());
+    }
+
+    if (!isKnown()) {
+      return changes;
+    }
+
+    if (type == CdRunType.JOB) {
+      if (previous != null) {
+        GetJobStatusResponseData before = previous.jobStatus;
+        String prefix = type.getDisplayName() + " " + jobStatus.getJobId() + " ";
+
+        addChange(changes, prefix + "status", before.getStatus(), jobStatus.getStatus());
+        addChange(changes, prefix + "outcome", before.getOutcome(), jobStatus.getOutcome());
+      }
+      return changes;
+    }
+
+    Map<String, String> stagesBefore =
+        previous == null
+            ? Collections.emptyMap()
+            : getStageStates(previous.pipelineRuntimeDetails);
+
+    for (Map.Entry<String, String> stage : getStageStates(pipelineRuntimeDetails).entrySet()) {
+      addChange(changes, stage.getKey(), stagesBefore.get(stage.getKey()), stage.getValue());
+    }
+
+    if (previous != null) {
+      addChange(
+          changes,
+          type.getDisplayName() + " " + pipelineRuntimeDetails.getFlowRuntimeId() + " status",
+          previous.pipelineRuntimeDetails.getStatus(),
+          pipelineRuntimeDetails.getStatus());
+    }
+    return changes;
+  }
+
+  // Returns the states of the stages and tasks, in the order of the response
+  private static Map<String, String> getStageStates(
+      GetPipelineRuntimeDetailsResponseData details) {
+    Map<String, String> states = new LinkedHashMap<>();
+
+    for (PipelineRuntimeStageDetails stage : details.getStages()) {
+      states.put(
+          "stage " + stage.getStageName(), getState(stage.getStatus(), stage.isCompleted()));
+
+      for (PipelineRuntimeStageDetails.Task task : stage.getTasks()) {
+        states.put(
+            "task " + stage.getStageName() + "/" + task.getTaskName(),
+            getState(task.getStatus(), task.isCompleted()));
+      }
+    }
+
+    return states;
+  }
+
+  private static String getState(String status, Boolean completed) {
+    if (status != null) {
+      return status;
+    }
+
+    return Boolean.TRUE.equals(completed) ? "completed" : "running";
+  }
+
+  private static void addChange(List<String> changes, String name, Object before, Object after) {
+    if (before == null) {
+      changes.add(name + ": " + after);
+    } else if (!before.equals(after)) {
+      changes.add(name + ": " + before + " -> " + after);
+    }
+  }
+
+  /**
+   * Adds the status rows to a build summary.
+   *
+   * @param summary summary of the step that started the run
+   * @return the summary
+   */
+  public SummaryTable addTo(SummaryTable summary) {
+    if (type == CdRunType.JOB) {
+      return summary
+          .add("CD Job Status:", String.valueOf(jobStatus.getStatus()))
+          .add("CD Job Outcome:", String.valueOf(jobStatus.getOutcome()));
+    }
+
+    return summary
+        .add("CD Pipeline Completed:", String.valueOf(pipelineRuntimeDetails.isCompleted()))
+        .add("CD Pipeline Status:", String.valueOf(pipelineRuntimeDetails.getStatus()));
+  }
+
+  /** @return false if the response could not be interpreted */
+  public boolean isKnown() {
+    return type != CdRunType.JOB || jobStatus.getStatus() != CdJobStatus.unknown;
+  }
+
+  public boolean isCompleted() {
+    if (type == CdRunType.JOB) {
+      return jobStatus.getStatus() == CdJobStatus.completed;
+    }
+
+    return Boolean.TRUE.equals(pipelineRuntimeDetails.isCompleted());
+  }
+
+  /** @return true if the completed run should not fail a build depending on its outcome */
+  public boolean isSuccessful() {
+    if (type == CdRunType.JOB) {
+      return jobStatus.getOutcome() != CdJobOutcome.error
+          && jobStatus.getOutcome() != CdJobOutcome.unknown;
+    }
+
+    return pipelineRuntimeDetails.getStatus() == CdPipelineStatus.success
+        || pipelineRuntimeDetails.getStatus() == CdPipelineStatus.warning;
+  }
+
+  /**
+   * Fails if the response could not be interpreted.
+   *
+   * @throws PluginException if the status is unknown
+   */
+  public void checkKnown() throws PluginException {
+    if (!isKnown()) {
+      throw new PluginException("Unexpected format of CD job status response");
+    }
+  }
+
+  /**
+   * Fails if the completed run was not successful.
+   *
+   * @throws PluginException if the run completed with error
+   */
+  public void checkOutcome() throws PluginException {
+    if (isSuccessful()) {
+      return;
+    }
+
+    if (type == CdRunType.JOB) {
+      throw new PluginException("CD job completed with " + jobStatus.getOutcome() + " outcome");
+    }
+
+    throw new PluginException(
+        "CD pipeline completed with " + pipelineRuntimeDetails.getStatus() + " status");
+  }
+
+  @Override
+  public String toString() {
+    return String.valueOf(type == CdRunType.JOB ? jobStatus : pipelineRuntimeDetails);
+  }
+}
@@ -0,0 +1,19 @@
+package org.jenkinsci.plugins.electricflow.runandwait;
+
+/** Kind of CloudBees CD run a build can wait for. */
+public enum CdRunType {
+  /** Procedure or application process job, identified by jobId. */
+  JOB("CD job"),
+  /** Pipeline or release run, identified by flowRuntimeId. */
+  PIPELINE_RUNTIME("CD pipeline");
+
+  private final String displayName;
+
+  CdRunType(String displayName) {
+    this.displayName = displayName;
+  }
+
+  public String getDisplayName() {
+    return displayName;
+  }
+}
@@ -0,0 +1,145 @@
+package org.jenkinsci.plugins.electricflow.runandwait;
+
+import hudson.model.Run;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.jenkinsci.plugins.electricflow.ElectricFlowClient;
+import org.jenkinsci.plugins.electricflow.RunAndWaitOption;
+import org.jenkinsci.plugins.electricflow.exceptions.PluginException;
+
+/**
+ * Waits for a CloudBees CD run in the calling thread. Used by the build steps when the wait is done
+ * within the step itself. The status checks are still done by {@link CdWaitService}, so they are
+ * batched with those of all other waiting builds.
+ */
+public final class CdRunWaiter {
+
+  private CdRunWaiter() {}
+
+  /**
+   * Polls the run status until it is completed.
+   *
+   * @param efClient client to use
+   * @param type kind of the run
+   * @param id jobId or flowRuntimeId
+   * @param runAndWaitOption wait options
+   * @param run waiting build, saved when the status changes and when the wait ends
+   * @param logger build log
+   * @param statusListener called with every received status, e.g. to update the build summary
+   *     (the build does not need to be saved by the listener)
+   * @return final status
+   * @throws IOException if a status request fails
+   * @throws InterruptedException if the build is interrupted; the CD run is aborted first if
+   *     {@link RunAndWaitOption#isAbortCdRun()} is set, the same applies to timeouts
+   * @throws PluginException if the status is unknown, the wait times out or the outcome is not
+   *     successful and the build depends on it
+   */
+  public static CdRunStatus waitFor(
+      ElectricFlowClient efClient,
+      CdRunType type,
+      String id,
+      RunAndWaitOption runAndWaitOption,
+      Run<?, ?> run,
+      PrintStream logger,
+      StatusListener statusListener)
+      throws IOException, InterruptedException, PluginException {
+    logger.println(
+        "Waiting till "
+            + type.getDisplayName()
+            + " is completed, "
+            + CdPollingSchedule.describe(runAndWaitOption));
+
+    // Status checks are done by the shared poller, the updates are handled in the build thread
+    BlockingQueue<Object> updates = new LinkedBlockingQueue<>();
+    CdWaitService.Registration registration =
+        CdWaitService.get()
+            .register(
+                efClient,
+                run,
+                type,
+                id,
+                runAndWaitOption,
+                runAndWaitOption.getDeadline(System.currentTimeMillis()),
+                new CdWaitService.Callback() {
+                  @Override
+                  public void onStatus(CdRunStatus status) {
+                    updates.add(status);
+                  }
+
+                  @Override
+                  public void onCompleted(CdRunStatus status) {}
+
+                  @Override
+                  public void onFailure(Throwable cause) {
+                    updates.add(cause);
+                  }
+                });
+
+    CdBuildSaveThrottle saveThrottle = new CdBuildSaveThrottle(run);
+
+    CdRunStatus previous = null;
+
+    try {
+      while (true) {
+        Object update = updates.take();
+
+        if (update instanceof Throwable) {
+          throw rethrow((Throwable) update);
+        }
+
+        CdRunStatus status = (CdRunStatus) update;
+
+        // Only the changes are logged, long waits would otherwise repeat the same status
+        for (String change : status.getChangesSince(previous)) {
+          logger.println(change);
+        }
+        previous = status;
+
+        statusListener.onStatus(status);
+        saveThrottle.onStatus(status);
+        status.checkKnown();
+
+        if (status.isCompleted()) {
+          if (runAndWaitOption.isDependOnCdJobOutcome()) {
+            status.checkOutcome();
+          }
+
+          return status;
+        }
+      }
+    } catch (InterruptedException | CdWaitTimeoutException e) {
+      if (runAndWaitOption.isAbortCdRun()) {
+        CdRunAborter.abort(efClient, type, id, logger);
+      }
+      throw e;
+    } finally {
+      registration.cancel();
+      saveThrottle.flush();
+    }
+  }
+
+  private static RuntimeException rethrow(Throwable cause) throws IOException, PluginException {
+    if (cause instanceof IOException) {
+      throw new IOException(cause.getMessage(), cause);
+    }
+    if (cause instanceof CdWaitTimeoutException) {
+      throw new CdWaitTimeoutException(cause.getMessage());
+    }
+    if (cause instanceof PluginException) {
+      throw new PluginException(cause.getMessage(), cause);
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return new RuntimeException(cause.getMessage(), cause);
+  }
+
+  /** Receives the statuses of a waited run. */
+  @FunctionalInterface
+  public interface StatusListener {
+
+    void onStatus(CdRunStatus status) throws IOException;
+  }
+}
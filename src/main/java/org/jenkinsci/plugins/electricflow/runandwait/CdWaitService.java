@@ -0,0 +1,450 @@
+package org.jenkinsci.plugins.electricflow.runandwait;
+
+import hudson.model.Run;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import jenkins.util.Timer;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jenkinsci.plugins.electricflow.ElectricFlowClient;
+import org.jenkinsci.plugins.electricflow.RunAndWaitOption;
+import org.jenkinsci.plugins.electricflow.exceptions.PluginException;
+import org.jenkinsci.plugins.electricflow.transport.CdAsyncExecutor;
+
+/**
+ * Controller-wide poller for CloudBees CD runs that builds are waiting for. Waits are grouped by
+ * server and user, the statuses of all due runs of a group are requested with one call per run
+ * kind and then handed out to the waiting builds. Due checks are found by a ticker on the shared
+ * {@link Timer} and the status requests run on the {@link CdAsyncExecutor}, so a waiting build
+ * holds no thread between checks and slow requests do not hold the few timer threads.
+ *
+ * <p>If a status request fails, the waits of the batch are checked again with a growing delay.
+ * A wait fails only after {@link #MAX_FETCH_ERRORS} failed requests in a row or at its deadline.
+ */
+public final class CdWaitService {
+
+  private static final Log log = LogFactory.getLog(CdWaitService.class);
+
+  private static final long TICK_MILLIS =
+      Long.getLong(CdWaitService.class.getName() + ".tickMillis", 500);
+  private static final int MAX_BATCH_SIZE =
+      Integer.getInteger(CdWaitService.class.getName() + ".maxBatchSize", 100);
+  static final int MAX_FETCH_ERRORS =
+      Integer.getInteger(CdWaitService.class.getName() + ".maxFetchErrors", 5);
+  private static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+  private static final CdWaitService INSTANCE = new CdWaitService();
+
+  private final ConcurrentMap<String, Group> groups = new ConcurrentHashMap<>();
+  private final AtomicLong statusRequests = new AtomicLong();
+  private ScheduledFuture<?> ticker;
+
+  private CdWaitService() {}
+
+  public static CdWaitService get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Starts waiting for the run. The callback is invoked from a background thread.
+   *
+   * @param efClient client used for the status checks, waits of clients with equal {@link
+   *     ElectricFlowClient#getSessionKey() session keys} are checked together
+   * @param run waiting build, only completion notifications for its job reach the wait
+   * @param type kind of the run
+   * @param id jobId or flowRuntimeId
+   * @param runAndWaitOption wait options
+   * @param deadline time in milliseconds since the epoch after which the wait fails with {@link
+   *     CdWaitTimeoutException}, 0 to wait without limit
+   * @param callback receives statuses and the completion
+   * @return registration that can be used to stop waiting
+   */
+  public Registration register(
+      ElectricFlowClient efClient,
+      Run<?, ?> run,
+      CdRunType type,
+      String id,
+      RunAndWaitOption runAndWaitOption,
+      long deadline,
+      Callback callback) {
+    return register(
+        efClient.getSessionKey(),
+        (runType, ids) -> CdRunStatus.fetchAll(efClient, runType, ids),
+        run.getParent().getFullName(),
+        type,
+        id,
+        runAndWaitOption,
+        deadline,
+        callback);
+  }
+
+  Registration register(
+      String groupKey,
+      StatusFetcher fetcher,
+      String jobName,
+      CdRunType type,
+      String id,
+      RunAndWaitOption runAndWaitOption,
+      long deadline,
+      Callback callback) {
+    Registration registration =
+        new Registration(
+            groupKey, fetcher, jobName, type, id, runAndWaitOption, deadline, callback);
+
+    groups.compute(
+        groupKey,
+        (key, group) -> {
+          Group result = group == null ? new Group() : group;
+          result.registrations.add(registration);
+          return result;
+        });
+    startTicker();
+
+    return registration;
+  }
+
+  /**
+   * Checks the waited runs with the id right away, e.g. because CloudBees CD reported their
+   * completion. The status is still requested from CloudBees CD, a notification alone does not
+   * complete a wait.
+   *
+   * @param jobName full name of the job, only waits of its builds are checked
+   * @param type kind of the run
+   * @param id jobId or flowRuntimeId
+   * @return number of waits of the job's builds for the run
+   */
+  public int notifyCompleted(String jobName, CdRunType type, String id) {
+    long now = System.currentTimeMillis();
+    int notified = 0;
+
+    for (Group group : groups.values()) {
+      int before = notified;
+
+      for (Registration registration : group.registrations) {
+        if (registration.type == type
+            && registration.id.equals(id)
+            && registration.jobName.equals(jobName)
+            && !registration.isDone()) {
+          registration.nextCheckAt = now;
+          notified++;
+        }
+      }
+
+      if (notified > before) {
+        group.pollIfDue(now);
+      }
+    }
+
+    return notified;
+  }
+
+  /** @return number of runs currently waited for */
+  public int getActiveCount() {
+    return groups.values().stream().mapToInt(group -> group.registrations.size()).sum();
+  }
+
+  /** @return number of status requests sent to CloudBees CD so far */
+  public long getStatusRequestCount() {
+    return statusRequests.get();
+  }
+
+  private synchronized void startTicker() {
+    if (ticker == null) {
+      ticker =
+          Timer.get()
+              .scheduleWithFixedDelay(
+                  this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void tick() {
+    long now = System.currentTimeMillis();
+
+    for (Group group : groups.values()) {
+      try {
+        group.pollIfDue(now);
+      } catch (RuntimeException e) {
+        log.warn("Cannot schedule CloudBees CD status check: " + e.getMessage(), e);
+      }
+    }
+  }
+
+  private void unregister(Registration registration) {
+    groups.computeIfPresent(
+        registration.groupKey,
+        (key, group) -> {
+          group.registrations.remove(registration);
+          return group.registrations.isEmpty() ? null : group;
+        });
+  }
+
+  /** Receives the statuses and the completion of a waited run. */
+  public interface Callback {
+
+    /** Called with every received status, before completion is checked. */
+    void onStatus(CdRunStatus status) throws Exception;
+
+    /** Called once the run is completed. */
+    void onCompleted(CdRunStatus status);
+
+    /** Called if the status cannot be retrieved or is not recognized. */
+    void onFailure(Throwable cause);
+  }
+
+  /** Requests the statuses of several runs of one kind. */
+  @FunctionalInterface
+  interface StatusFetcher {
+
+    Map<String, CdRunStatus> fetch(CdRunType type, Collection<String> ids) throws IOException;
+  }
+
+  private final class Group {
+
+    private final Set<Registration> registrations = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean polling = new AtomicBoolean();
+
+    void pollIfDue(long now) {
+      registrations.stream()
+          .filter(registration -> registration.isTimedOut(now))
+          .forEach(Registration::timeOut);
+
+      if (registrations.stream().anyMatch(registration -> registration.isDue(now))
+          && polling.compareAndSet(false, true)) {
+        try {
+          CdAsyncExecutor.execute(
+              () -> {
+                try {
+                  poll();
+                } finally {
+                  polling.set(false);
+                }
+              });
+        } catch (RejectedExecutionException e) {
+          // Executor is busy, the next tick checks the due waits again
+          polling.set(false);
+        }
+      }
+    }
+
+    private void poll() {
+      long now = System.currentTimeMillis();
+      Map<CdRunType, List<Registration>> due =
+          registrations.stream()
+              .filter(registration -> registration.isDue(now))
+              .collect(Collectors.groupingBy(registration -> registration.type));
+
+      due.forEach(
+          (type, list) -> {
+            for (int from = 0; from < list.size(); from += MAX_BATCH_SIZE) {
+              pollBatch(type, list.subList(from, Math.min(list.size(), from + MAX_BATCH_SIZE)));
+            }
+          });
+    }
+
+    private void pollBatch(CdRunType type, List<Registration> batch) {
+      Set<String> ids = new LinkedHashSet<>();
+      batch.forEach(registration -> ids.add(registration.id));
+
+      // All waits of the group share the server and user, the client of any waiting build will do
+      StatusFetcher fetcher = batch.get(0).fetcher;
+
+      Map<String, CdRunStatus> statuses;
+      try {
+        statusRequests.incrementAndGet();
+        statuses = fetcher.fetch(type, ids);
+      } catch (IOException e) {
+        if (log.isDebugEnabled()) {
+          log.debug("Status check of " + ids.size() + " " + type + " runs failed", e);
+        }
+
+        batch.forEach(registration -> registration.fetchFailed(e));
+        return;
+      } catch (Exception e) {
+        batch.forEach(registration -> registration.fail(e));
+        return;
+      }
+
+      for (Registration registration : batch) {
+        CdRunStatus status = statuses.get(registration.id);
+
+        if (status == null) {
+          registration.fail(
+              new PluginException(
+                  type.getDisplayName() + " " + registration.id + " was not found"));
+        } else {
+          registration.update(status);
+        }
+      }
+    }
+  }
+
+  public final class Registration {
+
+    private final String groupKey;
+    private final StatusFetcher fetcher;
+    private final String jobName;
+    private final CdRunType type;
+    private final String id;
+    private final RunAndWaitOption runAndWaitOption;
+    private final long deadline;
+    private final Callback callback;
+
+    private final AtomicBoolean done = new AtomicBoolean();
+    private final long registeredAt = System.currentTimeMillis();
+    private volatile long nextCheckAt;
+    private int checks;
+    private int fetchErrors;
+    private String historyKey;
+
+    private Registration(
+        String groupKey,
+        StatusFetcher fetcher,
+        String jobName,
+        CdRunType type,
+        String id,
+        RunAndWaitOption runAndWaitOption,
+        long deadline,
+        Callback callback) {
+      this.groupKey = groupKey;
+      this.fetcher = fetcher;
+      this.jobName = jobName;
+      this.type = type;
+      this.id = id;
+      this.runAndWaitOption = runAndWaitOption;
+      this.deadline = deadline;
+      this.callback = callback;
+
+      scheduleNextCheck();
+    }
+
+    public CdRunType getType() {
+      return type;
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    /** Stops waiting, the callback is not invoked anymore. */
+    public void cancel() {
+      finish();
+    }
+
+    public boolean isDone() {
+      return done.get();
+    }
+
+    private boolean isDue(long now) {
+      return !done.get() && nextCheckAt <= now;
+    }
+
+    private boolean isTimedOut(long now) {
+      return !done.get() && deadline > 0 && deadline <= now;
+    }
+
+    private void timeOut() {
+      fail(
+          new CdWaitTimeoutException(
+              type.getDisplayName()
+                  + " "
+                  + id
+                  + " is not completed within "
+                  + runAndWaitOption.getTimeout()
+                  + " minutes"));
+    }
+
+    private void scheduleNextCheck() {
+      long now = System.currentTimeMillis();
+      nextCheckAt = now + nextDelayMillis(now);
+    }
+
+    // Retries a failed check, doubling the usual delay with every failed request in a row
+    private void scheduleRetry() {
+      long now = System.currentTimeMillis();
+      long delay = nextDelayMillis(now);
+
+      long backoff = delay << Math.min(fetchErrors - 1, 10);
+
+      nextCheckAt = now + Math.max(delay, Math.min(backoff, MAX_RETRY_DELAY_MILLIS));
+    }
+
+    private long nextDelayMillis(long now) {
+      long expected =
+          historyKey == null ? -1 : CdRunDurationHistory.get().getExpectedMillis(historyKey);
+
+      return CdPollingSchedule.nextDelayMillis(
+          runAndWaitOption, checks++, now - registeredAt, expected, ThreadLocalRandom.current());
+    }
+
+    // Returns true if this call finished the registration
+    private boolean finish() {
+      if (!done.compareAndSet(false, true)) {
+        return false;
+      }
+
+      unregister(this);
+      return true;
+    }
+
+    private void update(CdRunStatus status) {
+      if (done.get()) {
+        return;
+      }
+
+      fetchErrors = 0;
+
+      try {
+        callback.onStatus(status);
+        status.checkKnown();
+      } catch (Exception e) {
+        fail(e);
+        return;
+      }
+
+      if (historyKey == null && status.getRunDefinition() != null) {
+        historyKey = groupKey + "\n" + status.getRunDefinition();
+      }
+
+      if (!status.isCompleted()) {
+        scheduleNextCheck();
+      } else if (finish()) {
+        if (historyKey != null) {
+          CdRunDurationHistory.get()
+              .record(historyKey, System.currentTimeMillis() - registeredAt);
+        }
+        callback.onCompleted(status);
+      }
+    }
+
+    private void fetchFailed(IOException cause) {
+      if (done.get()) {
+        return;
+      }
+
+      if (++fetchErrors >= MAX_FETCH_ERRORS) {
+        fail(cause);
+      } else {
+        scheduleRetry();
+      }
+    }
+
+    private void fail(Throwable cause) {
+      if (finish()) {
+        callback.onFailure(cause);
+      }
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package org.jenkinsci.plugins.electricflow.runandwait;
+
+import hudson.model.Run;
+import java.io.Serializable;
+import java.util.Objects;
+import org.jenkinsci.plugins.electricflow.Credential;
+import org.jenkinsci.plugins.electricflow.ElectricFlowClient;
+import org.jenkinsci.plugins.electricflow.factories.ElectricFlowClientFactory;
+
+/** Identifies a launched CloudBees CD run together with the configuration used to launch it. */
+public final class CdWaitTarget implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String configuration;
+  private final String credentialId;
+  private final CdRunType type;
+  private final String id;
+
+  /**
+   * @param configuration CloudBees CD configuration name
+   * @param credentialId resolved override credential id, null to use the configuration
+   *     credentials
+   * @param type kind of the run
+   * @param id jobId or flowRuntimeId
+   */
+  public CdWaitTarget(String configuration, String credentialId, CdRunType type, String id) {
+    this.configuration = configuration;
+    this.credentialId = credentialId;
+    this.type = type;
+    this.id = id;
+  }
+
+  public String getConfiguration() {
+    return configuration;
+  }
+
+  public String getCredentialId() {
+    return credentialId;
+  }
+
+  public CdRunType getType() {
+    return type;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Creates a client for the configuration and credentials the run was launched with.
+   *
+   * @param run build used to look up the override credential, may be null
+   * @return new client
+   */
+  public ElectricFlowClient createClient(Run<?, ?> run) {
+    Credential overrideCredential = credentialId == null ? null : new Credential(credentialId);
+
+    return ElectricFlowClientFactory.getElectricFlowClient(
+        configuration, overrideCredential, run, null, false);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CdWaitTarget)) {
+      return false;
+    }
+    CdWaitTarget that = (CdWaitTarget) o;
+    return Objects.equals(configuration, that.configuration)
+        && Objects.equals(credentialId, that.credentialId)
+        && type == that.type
+        && Objects.equals(id, that.id);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(configuration, credentialId, type, id);
+  }
+
+  @Override
+  public String toString() {
+    return type.getDisplayName() + " " + id + " (configuration " + configuration + ")";
+  }
+}
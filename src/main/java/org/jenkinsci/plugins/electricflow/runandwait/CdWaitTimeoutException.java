@@ -0,0 +1,11 @@
+package org.jenkinsci.plugins.electricflow.runandwait;
+
+import org.jenkinsci.plugins.electricflow.exceptions.PluginException;
+
+/** Thrown when a CloudBees CD run is not completed within the configured timeout. */
+public class CdWaitTimeoutException extends PluginException {
+
+  public CdWaitTimeoutException(String message) {
+    super(message);
+  }
+}
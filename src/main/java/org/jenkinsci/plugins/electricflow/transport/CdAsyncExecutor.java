@@ -0,0 +1,158 @@
+package org.jenkinsci.plugins.electricflow.transport;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded executor for CloudBees CD client calls. The number of worker threads and queued tasks
+ * is capped, so the number of threads does not grow with the number of in-flight requests.
+ *
+ * <p>Cancelling a returned future interrupts the worker and aborts the HTTP request that is
+ * currently executed on it, if any.
+ */
+public final class CdAsyncExecutor {
+
+  static final int MAX_THREADS =
+      Integer.getInteger(CdAsyncExecutor.class.getName() + ".maxThreads", 8);
+  static final int MAX_QUEUED_TASKS =
+      Integer.getInteger(CdAsyncExecutor.class.getName() + ".maxQueuedTasks", 256);
+
+  private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+  private static final ThreadLocal<AsyncTask<?>> CURRENT_TASK = new ThreadLocal<>();
+
+  private CdAsyncExecutor() {}
+
+  private static ThreadPoolExecutor createExecutor() {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            MAX_THREADS,
+            MAX_THREADS,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(MAX_QUEUED_TASKS),
+            new NamingThreadFactory(new DaemonThreadFactory(), "CloudBees CD client"));
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Runs the call on the CloudBees CD client executor.
+   *
+   * @param call blocking call to run
+   * @param <T> result type
+   * @return future completed with the call result, or exceptionally with the call failure or
+   *     {@link RejectedExecutionException} if the executor queue is full
+   */
+  public static <T> CompletableFuture<T> supplyAsync(IOCallable<T> call) {
+    AsyncTask<T> task = new AsyncTask<>(call);
+
+    try {
+      task.worker = EXECUTOR.submit(task);
+    } catch (RejectedExecutionException e) {
+      task.result.completeExceptionally(e);
+      return task.result;
+    }
+
+    task.result.whenComplete(
+        (value, throwable) -> {
+          if (task.result.isCancelled()) {
+            task.cancel();
+          }
+        });
+
+    return task.result;
+  }
+
+  /**
+   * Runs a background task on the CloudBees CD client executor. Used for blocking calls that must
+   * not hold a thread of the small shared {@link jenkins.util.Timer} pool.
+   *
+   * @param task task to run
+   * @throws RejectedExecutionException if the executor queue is full
+   */
+  public static void execute(Runnable task) {
+    EXECUTOR.execute(task);
+  }
+
+  /**
+   * Registers the action that aborts the blocking operation started by the current thread. Has no
+   * effect when the current thread is not running a task of this executor.
+   *
+   * @param abortAction action to run when the task is cancelled
+   */
+  static void setAbortAction(Runnable abortAction) {
+    AsyncTask<?> task = CURRENT_TASK.get();
+
+    if (task == null) {
+      return;
+    }
+
+    task.abortAction = abortAction;
+
+    if (abortAction != null && task.result.isCancelled()) {
+      abortAction.run();
+    }
+  }
+
+  /**
+   * Blocking call that may fail with an {@link IOException}.
+   *
+   * @param <T> result type
+   */
+  @FunctionalInterface
+  public interface IOCallable<T> {
+
+    T call() throws IOException;
+  }
+
+  private static class AsyncTask<T> implements Runnable {
+
+    private final IOCallable<T> call;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private volatile Future<?> worker;
+    private volatile Runnable abortAction;
+
+    AsyncTask(IOCallable<T> call) {
+      this.call = call;
+    }
+
+    @Override
+    public void run() {
+      if (result.isDone()) {
+        return;
+      }
+
+      CURRENT_TASK.set(this);
+      try {
+        result.complete(call.call());
+      } catch (Throwable e) {
+        result.completeExceptionally(e);
+      } finally {
+        CURRENT_TASK.remove();
+        abortAction = null;
+      }
+    }
+
+    void cancel() {
+      Runnable action = abortAction;
+
+      if (action != null) {
+        action.run();
+      }
+
+      Future<?> future = worker;
+
+      if (future != null) {
+        future.cancel(true);
+      }
+    }
+  }
+}
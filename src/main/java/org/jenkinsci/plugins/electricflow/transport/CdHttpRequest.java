@@ -0,0 +1,50 @@
+package org.jenkinsci.plugins.electricflow.transport;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.jenkinsci.plugins.electricflow.HttpMethod;
+
+/** A single request to the CloudBees CD server, independent of the transport used to send it. */
+public class CdHttpRequest {
+
+  private final HttpMethod method;
+  private final String url;
+  private final Map<String, String> headers = new LinkedHashMap<>();
+  private byte[] body;
+
+  public CdHttpRequest(HttpMethod method, String url) {
+    this.method = method;
+    this.url = url;
+  }
+
+  public HttpMethod getMethod() {
+    return method;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  public Map<String, String> getHeaders() {
+    return Collections.unmodifiableMap(headers);
+  }
+
+  public CdHttpRequest setHeader(String name, String value) {
+    headers.put(name, value);
+    return this;
+  }
+
+  public byte[] getBody() {
+    return body;
+  }
+
+  public CdHttpRequest setBody(byte[] body) {
+    this.body = body;
+    return this;
+  }
+
+  public boolean hasBody() {
+    return body != null && body.length != 0;
+  }
+}
@@ -0,0 +1,14 @@
+package org.jenkinsci.plugins.electricflow.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Consumes a CloudBees CD response while the connection is still leased from the pool. The
+ * content stream is released back to the transport once the handler returns.
+ */
+@FunctionalInterface
+public interface CdHttpResponseHandler<T> {
+
+  T handle(int statusCode, String reasonPhrase, InputStream content) throws IOException;
+}
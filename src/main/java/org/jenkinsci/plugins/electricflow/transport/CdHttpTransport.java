@@ -0,0 +1,11 @@
+package org.jenkinsci.plugins.electricflow.transport;
+
+import java.io.IOException;
+
+/** Sends requests to a CloudBees CD server. Implementations must be thread safe. */
+public interface CdHttpTransport {
+
+  <T> T execute(CdHttpRequest request, CdHttpResponseHandler<T> handler) throws IOException;
+
+  void close();
+}
@@ -0,0 +1,88 @@
+package org.jenkinsci.plugins.electricflow.transport;
+
+import java.util.Objects;
+
+/** Connection pool and timeout settings of a {@link CdHttpTransport}. */
+public class CdHttpTransportSettings {
+
+  public static final int CONNECT_TIMEOUT_DEFAULT = 30;
+  public static final int READ_TIMEOUT_DEFAULT = 300;
+  public static final int MAX_CONNECTIONS_DEFAULT = 10;
+  public static final int IDLE_TIMEOUT_DEFAULT = 60;
+
+  private final boolean ignoreSslConnectionErrors;
+  private final int connectTimeout;
+  private final int readTimeout;
+  private final int maxConnectionsPerRoute;
+  private final int idleTimeout;
+
+  /**
+   * @param ignoreSslConnectionErrors trust all certificates and host names
+   * @param connectTimeout connect timeout in seconds, values below 1 select the default
+   * @param readTimeout socket read timeout in seconds, values below 1 select the default
+   * @param maxConnectionsPerRoute pooled connections per CD server, values below 1 select the
+   *     default
+   */
+  public CdHttpTransportSettings(
+      boolean ignoreSslConnectionErrors,
+      int connectTimeout,
+      int readTimeout,
+      int maxConnectionsPerRoute) {
+    this.ignoreSslConnectionErrors = ignoreSslConnectionErrors;
+    this.connectTimeout = connectTimeout > 0 ? connectTimeout : CONNECT_TIMEOUT_DEFAULT;
+    this.readTimeout = readTimeout > 0 ? readTimeout : READ_TIMEOUT_DEFAULT;
+    this.maxConnectionsPerRoute =
+        maxConnectionsPerRoute > 0 ? maxConnectionsPerRoute : MAX_CONNECTIONS_DEFAULT;
+    this.idleTimeout = IDLE_TIMEOUT_DEFAULT;
+  }
+
+  public static CdHttpTransportSettings defaults(boolean ignoreSslConnectionErrors) {
+    return new CdHttpTransportSettings(ignoreSslConnectionErrors, 0, 0, 0);
+  }
+
+  public boolean isIgnoreSslConnectionErrors() {
+    return ignoreSslConnectionErrors;
+  }
+
+  public int getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  public int getReadTimeout() {
+    return readTimeout;
+  }
+
+  public int getMaxConnectionsPerRoute() {
+    return maxConnectionsPerRoute;
+  }
+
+  public int getIdleTimeout() {
+    return idleTimeout;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    CdHttpTransportSettings that = (CdHttpTransportSettings) o;
+    return ignoreSslConnectionErrors == that.ignoreSslConnectionErrors
+        && connectTimeout == that.connectTimeout
+        && readTimeout == that.readTimeout
+        && maxConnectionsPerRoute == that.maxConnectionsPerRoute
+        && idleTimeout == that.idleTimeout;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(
+        ignoreSslConnectionErrors,
+        connectTimeout,
+        readTimeout,
+        maxConnectionsPerRoute,
+        idleTimeout);
+  }
+}
@@ -0,0 +1,153 @@
+package org.jenkinsci.plugins.electricflow.transport;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jenkinsci.plugins.electricflow.Configuration;
+
+/**
+ * Registry of shared transports. Every CloudBees CD configuration gets its own connection pool,
+ * which is reused by all clients created for it.
+ *
+ * <p>Pools which are dropped from the registry are closed once their in-flight requests complete,
+ * so clients that still hold them are not failed.
+ */
+public class CdHttpTransports {
+
+  static final int MAX_URL_TRANSPORTS =
+      Integer.getInteger(CdHttpTransports.class.getName() + ".maxUrlTransports", 16);
+
+  private static final Map<TransportKey, SharedTransport> transports = new ConcurrentHashMap<>();
+
+  public static CdHttpTransport forConfiguration(Configuration configuration) {
+    return get(
+        configuration.getConfigurationName(),
+        configuration.getElectricFlowUrl(),
+        configuration.getHttpTransportSettings());
+  }
+
+  public static CdHttpTransport forUrl(String electricFlowUrl, boolean ignoreSslConnectionErrors) {
+    return get(null, electricFlowUrl, CdHttpTransportSettings.defaults(ignoreSslConnectionErrors));
+  }
+
+  static CdHttpTransport get(
+      String configurationName, String electricFlowUrl, CdHttpTransportSettings settings) {
+    TransportKey key = new TransportKey(configurationName, getRoute(electricFlowUrl), settings);
+    SharedTransport transport =
+        transports.computeIfAbsent(
+            key, k -> new SharedTransport(k.settings, PooledHttpClientTransport::new));
+    transport.touch();
+
+    if (configurationName == null) {
+      retireLeastRecentlyUsedUrlTransports();
+    }
+
+    return transport;
+  }
+
+  /**
+   * Drops pools of configurations which were removed or changed. The pools are closed once they
+   * are idle.
+   *
+   * @param configurations configurations that are currently defined
+   */
+  public static void retainConfigurations(Collection<Configuration> configurations) {
+    Set<TransportKey> actualKeys = new HashSet<>();
+
+    if (configurations != null) {
+      for (Configuration configuration : configurations) {
+        actualKeys.add(
+            new TransportKey(
+                configuration.getConfigurationName(),
+                getRoute(configuration.getElectricFlowUrl()),
+                configuration.getHttpTransportSettings()));
+      }
+    }
+
+    retain(actualKeys);
+  }
+
+  static void retain(Set<TransportKey> actualKeys) {
+    Iterator<Map.Entry<TransportKey, SharedTransport>> iterator =
+        transports.entrySet().iterator();
+
+    while (iterator.hasNext()) {
+      Map.Entry<TransportKey, SharedTransport> entry = iterator.next();
+      TransportKey key = entry.getKey();
+
+      if (key.configurationName != null && !actualKeys.contains(key)) {
+        iterator.remove();
+        entry.getValue().close();
+      }
+    }
+  }
+
+  // Pools created for a plain url are not tied to a configuration, so their number is capped
+  private static void retireLeastRecentlyUsedUrlTransports() {
+    while (getUrlTransportCount() > MAX_URL_TRANSPORTS) {
+      transports.entrySet().stream()
+          .filter(entry -> entry.getKey().configurationName == null)
+          .min(Comparator.comparingLong(entry -> entry.getValue().getLastUsed()))
+          .ifPresent(
+              entry -> {
+                if (transports.remove(entry.getKey(), entry.getValue())) {
+                  entry.getValue().close();
+                }
+              });
+    }
+  }
+
+  static int getUrlTransportCount() {
+    return (int) transports.keySet().stream().filter(key -> key.configurationName == null).count();
+  }
+
+  private static String getRoute(String electricFlowUrl) {
+    try {
+      URL url = new URL(electricFlowUrl);
+      int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+
+      return url.getProtocol() + "://" + url.getHost() + ":" + port;
+    } catch (MalformedURLException e) {
+      return electricFlowUrl;
+    }
+  }
+
+  static class TransportKey {
+
+    private final String configurationName;
+    private final String route;
+    private final CdHttpTransportSettings settings;
+
+    TransportKey(String configurationName, String route, CdHttpTransportSettings settings) {
+      this.configurationName = configurationName;
+      this.route = route;
+      this.settings = settings;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      TransportKey that = (TransportKey) o;
+      return Objects.equals(configurationName, that.configurationName)
+          && Objects.equals(route, that.route)
+          && Objects.equals(settings, that.settings);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(configurationName, route, settings);
+    }
+  }
+}
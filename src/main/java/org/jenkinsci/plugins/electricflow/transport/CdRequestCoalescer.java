@@ -0,0 +1,115 @@
+package org.jenkinsci.plugins.electricflow.transport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import org.jenkinsci.plugins.electricflow.transport.CdAsyncExecutor.IOCallable;
+
+/**
+ * Coalesces identical concurrent read requests. The first caller executes the request, callers
+ * arriving while it is in flight wait for it and receive a copy of the same result (or the same
+ * failure). Nothing is kept once the request completes, so this is not a cache.
+ *
+ * <p>If the first caller is cancelled or interrupted, the waiting callers are not failed with its
+ * cancellation, one of them executes the request again instead.
+ */
+public final class CdRequestCoalescer {
+
+  private static final CdRequestCoalescer INSTANCE = new CdRequestCoalescer();
+
+  // Completes the future of a cancelled call, the waiting callers repeat the call
+  private static final Object CANCELLED = new Object();
+
+  private final ConcurrentMap<String, CompletableFuture<Object>> inFlight =
+      new ConcurrentHashMap<>();
+  private final AtomicLong coalesced = new AtomicLong();
+
+  private CdRequestCoalescer() {}
+
+  public static CdRequestCoalescer get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Executes the call unless an identical call is already in flight.
+   *
+   * @param key identifies the request, must include everything that affects the result
+   *     (server, credentials, method, path and body)
+   * @param call request to execute
+   * @param copy creates the copy of the result that is returned to a waiting caller
+   * @param <T> result type
+   * @return result of this call or a copy of the result of the in-flight identical call
+   * @throws IOException if the request fails
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T execute(String key, IOCallable<T> call, UnaryOperator<T> copy)
+      throws IOException {
+    while (true) {
+      CompletableFuture<Object> future = new CompletableFuture<>();
+      CompletableFuture<Object> leader = inFlight.putIfAbsent(key, future);
+
+      if (leader == null) {
+        return lead(key, future, call);
+      }
+
+      coalesced.incrementAndGet();
+      Object result = await(leader);
+
+      if (result != CANCELLED) {
+        return copy.apply((T) result);
+      }
+    }
+  }
+
+  public long getCoalescedCount() {
+    return coalesced.get();
+  }
+
+  private <T> T lead(String key, CompletableFuture<Object> future, IOCallable<T> call)
+      throws IOException {
+    T result;
+
+    try {
+      result = call.call();
+    } catch (IOException | RuntimeException | Error e) {
+      inFlight.remove(key, future);
+
+      // An aborted request fails with an InterruptedIOException
+      if (e instanceof InterruptedIOException || Thread.currentThread().isInterrupted()) {
+        future.complete(CANCELLED);
+      } else {
+        future.completeExceptionally(e);
+      }
+      throw e;
+    }
+
+    inFlight.remove(key, future);
+    future.complete(result);
+
+    return result;
+  }
+
+  private static Object await(CompletableFuture<Object> leader) throws IOException {
+    try {
+      return leader.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for CloudBees CD response");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+
+      if (cause instanceof IOException) {
+        throw new IOException(cause.getMessage(), cause);
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RuntimeException(cause.getMessage(), cause);
+    }
+  }
+}
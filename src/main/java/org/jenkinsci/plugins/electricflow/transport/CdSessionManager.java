@@ -0,0 +1,164 @@
+package org.jenkinsci.plugins.electricflow.transport;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Caches CloudBees CD sessions per server and credential, so that clients log in once and then
+ * authenticate with the session id instead of sending the password with every request.
+ *
+ * <p>Entries which are unused for longer than the idle limit are evicted on access, so rotated
+ * passwords do not leave sessions behind.
+ */
+public class CdSessionManager {
+
+  private static final Log log = LogFactory.getLog(CdSessionManager.class);
+  private static final long SESSION_LIFETIME =
+      TimeUnit.MINUTES.toMillis(
+          Long.getLong(CdSessionManager.class.getName() + ".sessionLifetimeMinutes", 30));
+  private static final long SESSION_IDLE_LIMIT =
+      TimeUnit.MINUTES.toMillis(
+          Long.getLong(CdSessionManager.class.getName() + ".sessionIdleLimitMinutes", 10));
+  private static final long LOGIN_RETRY_DELAY = TimeUnit.MINUTES.toMillis(1);
+  private static final CdSessionManager instance =
+      new CdSessionManager(
+          SESSION_LIFETIME, SESSION_IDLE_LIMIT, LOGIN_RETRY_DELAY, System::currentTimeMillis);
+
+  private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+  private final long sessionLifetime;
+  private final long sessionIdleLimit;
+  private final long loginRetryDelay;
+  private final LongSupplier clock;
+
+  CdSessionManager(
+      long sessionLifetime, long sessionIdleLimit, long loginRetryDelay, LongSupplier clock) {
+    this.sessionLifetime = sessionLifetime;
+    this.sessionIdleLimit = sessionIdleLimit;
+    this.loginRetryDelay = loginRetryDelay;
+    this.clock = clock;
+  }
+
+  public static CdSessionManager get() {
+    return instance;
+  }
+
+  public static String getSessionKey(String electricFlowUrl, String userName, String password) {
+    return electricFlowUrl + "\n" + userName + "\n" + DigestUtils.sha256Hex(password);
+  }
+
+  /**
+   * Returns a cached session id, logging in if there is none or it is close to expiry.
+   *
+   * @param sessionKey key built by {@link #getSessionKey(String, String, String)}
+   * @param login performs the login and returns the new session id
+   * @return session id, or null if the login failed and the caller should use basic auth
+   */
+  public String getSessionId(String sessionKey, SessionLogin login) {
+    long now = clock.getAsLong();
+    evictUnused(now);
+
+    while (true) {
+      Session session = sessions.computeIfAbsent(sessionKey, key -> new Session());
+      session.accessedAt = now;
+
+      synchronized (session) {
+        if (session.evicted) {
+          continue;
+        }
+
+        return getSessionId(session, login, now);
+      }
+    }
+  }
+
+  private String getSessionId(Session session, SessionLogin login, long now) {
+    if (session.sessionId != null
+        && now - session.createdAt < sessionLifetime
+        && now - session.lastUsedAt < sessionIdleLimit) {
+      session.lastUsedAt = now;
+      return session.sessionId;
+    }
+
+    session.sessionId = null;
+
+    if (now - session.loginFailedAt < loginRetryDelay) {
+      return null;
+    }
+
+    try {
+      session.sessionId = login.login();
+      session.createdAt = now;
+      session.lastUsedAt = now;
+    } catch (IOException | RuntimeException e) {
+      session.loginFailedAt = now;
+      log.warn("Login to CloudBees CD failed, falling back to basic authentication: " + e);
+    }
+
+    return session.sessionId;
+  }
+
+  // An entry which was not accessed for the idle limit and the retry delay holds neither a usable
+  // session nor a pending login backoff
+  private void evictUnused(long now) {
+    long unusedLimit = Math.max(sessionIdleLimit, loginRetryDelay);
+
+    for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+      Session session = entry.getValue();
+
+      if (now - session.accessedAt < unusedLimit) {
+        continue;
+      }
+
+      synchronized (session) {
+        if (now - session.accessedAt >= unusedLimit && sessions.remove(entry.getKey(), session)) {
+          session.evicted = true;
+        }
+      }
+    }
+  }
+
+  int getSessionCount() {
+    return sessions.size();
+  }
+
+  /**
+   * Drops a session which was rejected by the server. Nothing happens if the session was already
+   * replaced by another thread.
+   */
+  public void invalidate(String sessionKey, String sessionId) {
+    Session session = sessions.get(sessionKey);
+
+    if (session == null) {
+      return;
+    }
+
+    synchronized (session) {
+      if (Objects.equals(session.sessionId, sessionId)) {
+        session.sessionId = null;
+      }
+    }
+  }
+
+  @FunctionalInterface
+  public interface SessionLogin {
+
+    String login() throws IOException;
+  }
+
+  private static class Session {
+
+    private String sessionId;
+    private long createdAt;
+    private long lastUsedAt;
+    private long loginFailedAt;
+    private volatile long accessedAt;
+    private boolean evicted;
+  }
+}
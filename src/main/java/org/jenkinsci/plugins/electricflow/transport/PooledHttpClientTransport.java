@@ -0,0 +1,149 @@
+package org.jenkinsci.plugins.electricflow.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ProxySelector;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.HttpsURLConnection;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
+import org.jenkinsci.plugins.electricflow.RelaxedSSLContext;
+
+/**
+ * Keep-alive transport backed by a bounded Apache HttpClient connection pool. TLS sessions and
+ * TCP connections are reused between requests, idle connections are evicted in the background.
+ */
+public class PooledHttpClientTransport implements CdHttpTransport {
+
+  private static final Log log = LogFactory.getLog(PooledHttpClientTransport.class);
+
+  private final PoolingHttpClientConnectionManager connectionManager;
+  private final CloseableHttpClient httpClient;
+
+  public PooledHttpClientTransport(CdHttpTransportSettings settings) {
+    connectionManager =
+        new PoolingHttpClientConnectionManager(
+            getSocketFactoryRegistry(settings.isIgnoreSslConnectionErrors()));
+    connectionManager.setDefaultMaxPerRoute(settings.getMaxConnectionsPerRoute());
+    connectionManager.setMaxTotal(settings.getMaxConnectionsPerRoute() * 2);
+    connectionManager.setValidateAfterInactivity(2000);
+
+    RequestConfig requestConfig =
+        RequestConfig.custom()
+            .setConnectTimeout((int) TimeUnit.SECONDS.toMillis(settings.getConnectTimeout()))
+            .setConnectionRequestTimeout(
+                (int) TimeUnit.SECONDS.toMillis(settings.getConnectTimeout()))
+            .setSocketTimeout((int) TimeUnit.SECONDS.toMillis(settings.getReadTimeout()))
+            .build();
+
+    httpClient =
+        HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .setRoutePlanner(new SystemDefaultRoutePlanner(ProxySelector.getDefault()))
+            .evictExpiredConnections()
+            .evictIdleConnections(settings.getIdleTimeout(), TimeUnit.SECONDS)
+            .disableCookieManagement()
+            .build();
+  }
+
+  private static Registry<ConnectionSocketFactory> getSocketFactoryRegistry(
+      boolean ignoreSslConnectionErrors) {
+    SSLConnectionSocketFactory sslSocketFactory = null;
+
+    if (ignoreSslConnectionErrors) {
+      try {
+        sslSocketFactory =
+            new SSLConnectionSocketFactory(
+                RelaxedSSLContext.getInstance(), RelaxedSSLContext.allHostsValid);
+      } catch (KeyManagementException | NoSuchAlgorithmException e) {
+        if (log.isDebugEnabled()) {
+          log.debug(e.getMessage(), e);
+        }
+      }
+    }
+
+    if (sslSocketFactory == null) {
+      // Same trust settings as HttpsURLConnection used before the pool was introduced
+      sslSocketFactory =
+          new SSLConnectionSocketFactory(
+              HttpsURLConnection.getDefaultSSLSocketFactory(),
+              HttpsURLConnection.getDefaultHostnameVerifier());
+    }
+
+    return RegistryBuilder.<ConnectionSocketFactory>create()
+        .register("http", PlainConnectionSocketFactory.getSocketFactory())
+        .register("https", sslSocketFactory)
+        .build();
+  }
+
+  @Override
+  public <T> T execute(CdHttpRequest request, CdHttpResponseHandler<T> handler)
+      throws IOException {
+    RequestBuilder requestBuilder =
+        RequestBuilder.create(request.getMethod().name()).setUri(request.getUrl());
+
+    for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+      requestBuilder.setHeader(header.getKey(), header.getValue());
+    }
+
+    if (request.hasBody()) {
+      requestBuilder.setEntity(new ByteArrayEntity(request.getBody()));
+    }
+
+    if (log.isDebugEnabled()) {
+      log.debug("Endpoint: " + request.getUrl());
+    }
+
+    HttpUriRequest httpRequest = requestBuilder.build();
+
+    // Lets a cancelled asynchronous call close the connection instead of waiting for the response
+    CdAsyncExecutor.setAbortAction(httpRequest::abort);
+
+    try {
+      // The response entity is fully consumed by HttpClient after the handler returns,
+      // which hands the connection back to the pool instead of closing it.
+      return httpClient.execute(
+          httpRequest,
+          response -> {
+            HttpEntity entity = response.getEntity();
+            InputStream content =
+                entity != null ? entity.getContent() : new ByteArrayInputStream(new byte[0]);
+            return handler.handle(
+                response.getStatusLine().getStatusCode(),
+                response.getStatusLine().getReasonPhrase(),
+                content);
+          });
+    } finally {
+      CdAsyncExecutor.setAbortAction(null);
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      httpClient.close();
+    } catch (IOException e) {
+      log.warn("Failed to close CloudBees CD connection pool: " + e.getMessage(), e);
+    }
+    connectionManager.shutdown();
+  }
+}
@@ -0,0 +1,89 @@
+package org.jenkinsci.plugins.electricflow.transport;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+/**
+ * Transport handed out by {@link CdHttpTransports}. It opens its connection pool on first use and
+ * counts the requests in flight, so a retired transport is closed only once its last request
+ * completes. Clients which still hold a retired transport reopen a pool for their next request,
+ * which is closed again as soon as that request completes.
+ */
+class SharedTransport implements CdHttpTransport {
+
+  private final CdHttpTransportSettings settings;
+  private final Function<CdHttpTransportSettings, CdHttpTransport> poolFactory;
+
+  private CdHttpTransport pool;
+  private int inFlight;
+  private boolean retired;
+  private volatile long lastUsed = System.nanoTime();
+
+  SharedTransport(
+      CdHttpTransportSettings settings,
+      Function<CdHttpTransportSettings, CdHttpTransport> poolFactory) {
+    this.settings = settings;
+    this.poolFactory = poolFactory;
+  }
+
+  @Override
+  public <T> T execute(CdHttpRequest request, CdHttpResponseHandler<T> handler)
+      throws IOException {
+    CdHttpTransport current = acquire();
+
+    try {
+      return current.execute(request, handler);
+    } finally {
+      release();
+    }
+  }
+
+  /** Closes the pool once no request uses it any more. */
+  @Override
+  public synchronized void close() {
+    retired = true;
+    closeIfIdle();
+  }
+
+  synchronized boolean isOpen() {
+    return pool != null;
+  }
+
+  synchronized boolean isRetired() {
+    return retired;
+  }
+
+  long getLastUsed() {
+    return lastUsed;
+  }
+
+  void touch() {
+    lastUsed = System.nanoTime();
+  }
+
+  private synchronized CdHttpTransport acquire() {
+    if (pool == null) {
+      pool = poolFactory.apply(settings);
+    }
+
+    inFlight++;
+    touch();
+
+    return pool;
+  }
+
+  private synchronized void release() {
+    inFlight--;
+
+    if (retired) {
+      closeIfIdle();
+    }
+  }
+
+  private void closeIfIdle() {
+    if (inFlight == 0 && pool != null) {
+      pool.close();
+      pool = null;
+    }
+  }
+}
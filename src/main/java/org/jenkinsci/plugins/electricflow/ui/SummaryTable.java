@@ -0,0 +1,180 @@
+package org.jenkinsci.plugins.electricflow.ui;
+
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.Run;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+
+/**
+ * Build summary of a CloudBees CD step: a title and labelled rows. Only this data is kept in the
+ * build record, the HTML is rendered when the summary is displayed.
+ */
+public final class SummaryTable {
+
+  private final String title;
+  private final List<Row> rows;
+
+  public SummaryTable(String title) {
+    this(title, new ArrayList<>());
+  }
+
+  private SummaryTable(String title, List<Row> rows) {
+    this.title = title;
+    this.rows = rows;
+  }
+
+  @Initializer(before = InitMilestone.PLUGINS_STARTED)
+  public static void addAliases() {
+    Run.XSTREAM2.alias("cdSummaryRow", Row.class);
+  }
+
+  /** @return copy of this summary that can be extended without changing this one */
+  public SummaryTable copy() {
+    return new SummaryTable(title, new ArrayList<>(rows));
+  }
+
+  public String getTitle() {
+    return title;
+  }
+
+  public SummaryTable add(String label, String value) {
+    rows.add(new Row(RowType.TEXT, label, value, null));
+    return this;
+  }
+
+  public SummaryTable addLink(String label, String url, String text) {
+    rows.add(new Row(RowType.LINK, label, text, url));
+    return this;
+  }
+
+  /** Adds a row with a preformatted value, e.g. JSON. */
+  public SummaryTable addPreformatted(String label, String value) {
+    rows.add(new Row(RowType.PREFORMATTED, label, value, null));
+    return this;
+  }
+
+  /** Adds a heading row for the following {@link #addItem(String, String)} rows. */
+  public SummaryTable addSection(String name) {
+    rows.add(new Row(RowType.SECTION, name, null, null));
+    return this;
+  }
+
+  /**
+   * Adds an indented row of a section.
+   *
+   * @param label item label
+   * @param value item value, null for items without a value
+   * @return this summary
+   */
+  public SummaryTable addItem(String label, String value) {
+    rows.add(new Row(RowType.ITEM, label, value, null));
+    return this;
+  }
+
+  /** Adds a "Stages to run" section, if there are stages. */
+  public SummaryTable addStages(Collection<String> stages) {
+    if (!stages.isEmpty()) {
+      addSection("Stages to run");
+
+      for (String stage : stages) {
+        addItem(stage, null);
+      }
+    }
+
+    return this;
+  }
+
+  /**
+   * Adds a "Parameters" section, if there are parameters.
+   *
+   * @param parameters JSON objects of the parameters
+   * @param parameterName name of the name field
+   * @param parameterValue name of the value field
+   * @return this summary
+   */
+  public SummaryTable addParameters(
+      JSONArray parameters, String parameterName, String parameterValue) {
+    if (!parameters.isEmpty()) {
+      addSection("Parameters");
+
+      for (int i = 0; i < parameters.size(); i++) {
+        JSONObject json = parameters.getJSONObject(i);
+        addItem(json.getString(parameterName) + ":", json.getString(parameterValue));
+      }
+    }
+
+    return this;
+  }
+
+  /** @return HTML of the summary, all values are encoded */
+  public String toHtml() {
+    StringBuilder html = new StringBuilder();
+
+    html.append("<h3>")
+        .append(HtmlUtils.encodeForHtml(title))
+        .append("</h3>\n")
+        .append("<table cellspacing=\"2\" cellpadding=\"4\">\n");
+
+    for (Row row : rows) {
+      row.appendHtml(html);
+    }
+
+    return html.append("</table>").toString();
+  }
+
+  private enum RowType {
+    TEXT,
+    LINK,
+    PREFORMATTED,
+    SECTION,
+    ITEM
+  }
+
+  private static final class Row {
+
+    private final RowType type;
+    private final String label;
+    private final String value;
+    private final String url;
+
+    Row(RowType type, String label, String value, String url) {
+      this.type = type;
+      this.label = label;
+      this.value = value;
+      this.url = url;
+    }
+
+    void appendHtml(StringBuilder html) {
+      html.append("  <tr>\n    <td>");
+
+      if (type == RowType.SECTION) {
+        html.append("&nbsp;<b>").append(encode(label)).append("</b>");
+      } else if (type == RowType.ITEM) {
+        html.append("&nbsp;&nbsp;&nbsp;&nbsp;").append(encode(label));
+      } else {
+        html.append(encode(label));
+      }
+
+      html.append("</td>\n    <td>");
+
+      if (type == RowType.LINK) {
+        html.append("<a href='").append(encode(url)).append("'>").append(encode(value));
+        html.append("</a>");
+      } else if (type == RowType.PREFORMATTED) {
+        html.append("<pre>").append(encode(value)).append("</pre>");
+      } else if (value != null) {
+        html.append(encode(value));
+      }
+
+      html.append("</td>\n  </tr>\n");
+    }
+
+    private static String encode(String input) {
+      return input == null ? "" : HtmlUtils.encodeForHtml(input);
+    }
+  }
+}
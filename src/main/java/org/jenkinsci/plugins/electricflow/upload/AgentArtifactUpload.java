@@ -0,0 +1,48 @@
+package org.jenkinsci.plugins.electricflow.upload;
+
+import hudson.AbortException;
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import jenkins.MasterToSlaveFileCallable;
+import org.jenkinsci.plugins.electricflow.FileHelper;
+
+/**
+ * Publishes files of an agent workspace directly from the agent. The file pattern is resolved
+ * on the agent and the files are sent to CloudBees CD from there, nothing is copied to the
+ * controller.
+ */
+public class AgentArtifactUpload extends MasterToSlaveFileCallable<String> {
+
+  private static final long serialVersionUID = 1L;
+
+  private final ArtifactUploadRequest request;
+  private final String path;
+
+  /**
+   * @param request upload request, with a session that is valid on the server
+   * @param path comma separated file patterns, relative to the directory the callable runs on
+   */
+  public AgentArtifactUpload(ArtifactUploadRequest request, String path) {
+    this.request = request;
+    this.path = path;
+  }
+
+  @Override
+  public String invoke(File baseDir, VirtualChannel channel)
+      throws IOException, InterruptedException {
+    List<File> files = FileHelper.findFiles(baseDir, path);
+
+    if (files.isEmpty()) {
+      throw new AbortException(
+          "Upload result:  No files were found in path \""
+              + baseDir.getAbsolutePath()
+              + File.separator
+              + path
+              + "\".");
+    }
+
+    return request.send(files, baseDir.getAbsolutePath());
+  }
+}
@@ -0,0 +1,77 @@
+package org.jenkinsci.plugins.electricflow.upload;
+
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import jenkins.MasterToSlaveFileCallable;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jenkinsci.plugins.electricflow.FileHelper;
+
+/**
+ * Computes the SHA-256 hashes of the artifact files where the workspace is. Files are hashed in
+ * parallel, only the hashes are sent back.
+ */
+public class ArtifactHasher extends MasterToSlaveFileCallable<Map<String, String>> {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String path;
+
+  /** @param path comma separated file patterns, relative to the directory the callable runs on */
+  public ArtifactHasher(String path) {
+    this.path = path;
+  }
+
+  /** @return hex SHA-256 hash by artifact path, sorted by path */
+  @Override
+  public Map<String, String> invoke(File baseDir, VirtualChannel channel)
+      throws IOException, InterruptedException {
+    List<File> files = FileHelper.findFiles(baseDir, path);
+    Map<String, String> hashes = new TreeMap<>();
+
+    if (files.isEmpty()) {
+      return hashes;
+    }
+
+    String basePath = baseDir.getAbsolutePath();
+    int threads = Math.min(files.size(), Runtime.getRuntime().availableProcessors());
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+    try {
+      List<Future<String>> futures = new ArrayList<>();
+
+      for (File file : files) {
+        futures.add(executor.submit(() -> hash(file)));
+      }
+
+      for (int i = 0; i < files.size(); i++) {
+        String artifactPath =
+            files.get(i).getAbsolutePath().substring(basePath.length()).replaceAll("\\\\", "/");
+
+        hashes.put(artifactPath, futures.get(i).get());
+      }
+    } catch (ExecutionException e) {
+      throw new IOException("Failed to hash the artifact files: " + e.getCause().getMessage(), e);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return hashes;
+  }
+
+  private static String hash(File file) throws IOException {
+    try (InputStream input = Files.newInputStream(file.toPath())) {
+      return DigestUtils.sha256Hex(input);
+    }
+  }
+}
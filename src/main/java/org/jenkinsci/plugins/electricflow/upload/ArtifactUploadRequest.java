@@ -0,0 +1,116 @@
+package org.jenkinsci.plugins.electricflow.upload;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.List;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jenkinsci.plugins.electricflow.FileHelper;
+import org.jenkinsci.plugins.electricflow.MultipartUtility;
+
+/**
+ * Publishes files as an artifact version through publishArtifactAPI.cgi. Holds everything needed
+ * for the request, so it can also be sent from an agent.
+ */
+public class ArtifactUploadRequest implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final Log log = LogFactory.getLog(ArtifactUploadRequest.class);
+  private static final String CHARSET = "UTF-8";
+
+  private final String requestUrl;
+  private final boolean ignoreSslConnectionErrors;
+  private final String sessionId;
+  private final String repositoryName;
+  private final String artifactName;
+  private final String artifactVersion;
+  private final boolean uploadDirectory;
+  private int compressionLevel;
+
+  /**
+   * @param electricFlowUrl CloudBees CD server URL
+   * @param ignoreSslConnectionErrors true to accept any server certificate
+   * @param sessionId session used for the upload, it is serialized with the request when the
+   *     request is sent from an agent
+   * @param repositoryName artifact repository
+   * @param artifactName artifact name, "group:key"
+   * @param artifactVersion version to publish
+   * @param uploadDirectory true to upload the files of directories in the file list
+   */
+  public ArtifactUploadRequest(
+      String electricFlowUrl,
+      boolean ignoreSslConnectionErrors,
+      String sessionId,
+      String repositoryName,
+      String artifactName,
+      String artifactVersion,
+      boolean uploadDirectory) {
+    this.requestUrl = electricFlowUrl + "/commander/cgi-bin/publishArtifactAPI.cgi";
+    this.ignoreSslConnectionErrors = ignoreSslConnectionErrors;
+    this.sessionId = sessionId;
+    this.repositoryName = repositoryName;
+    this.artifactName = artifactName;
+    this.artifactVersion = artifactVersion;
+    this.uploadDirectory = uploadDirectory;
+  }
+
+  /**
+   * @param compressionLevel gzip level for the request body, 1 to 9, 0 to send it uncompressed
+   * @see MultipartUtility#setCompressionLevel(int)
+   */
+  public void setCompressionLevel(int compressionLevel) {
+    this.compressionLevel = compressionLevel;
+  }
+
+  /**
+   * Uploads the files.
+   *
+   * @param files files to upload
+   * @param uploadWorkspace directory the artifact paths are relative to
+   * @return response of the server
+   * @throws IOException if the upload fails
+   */
+  public String send(List<File> files, String uploadWorkspace) throws IOException {
+    MultipartUtility multipart =
+        new MultipartUtility(requestUrl, CHARSET, ignoreSslConnectionErrors);
+
+    multipart.setCompressionLevel(compressionLevel);
+
+    multipart.addFormField("artifactName", artifactName);
+    multipart.addFormField("artifactVersionVersion", artifactVersion);
+    multipart.addFormField("repositoryName", repositoryName);
+    multipart.addFormField("compress", "1");
+    multipart.addFormField("commanderSessionId", sessionId);
+
+    for (File file : files) {
+      if (file.isDirectory()) {
+
+        if (!uploadDirectory) {
+          continue;
+        }
+
+        List<File> dirFiles = FileHelper.getFilesFromDirectory(file);
+
+        for (File f : dirFiles) {
+          multipart.addFilePart("files", f, uploadWorkspace);
+        }
+      } else {
+        multipart.addFilePart("files", file, uploadWorkspace);
+      }
+    }
+
+    StringBuilder resultLine = new StringBuilder();
+
+    for (String line : multipart.finish()) {
+      resultLine.append(line);
+
+      if (log.isDebugEnabled()) {
+        log.debug("Response: " + line);
+      }
+    }
+
+    return resultLine.toString();
+  }
+}
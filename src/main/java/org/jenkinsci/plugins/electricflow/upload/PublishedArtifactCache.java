@@ -0,0 +1,92 @@
+package org.jenkinsci.plugins.electricflow.upload;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Remembers the content of artifact versions published from this controller, per server,
+ * configuration, repository and artifact version, so publishing the same files again can be
+ * skipped. Kept in memory only: after a restart the next publish uploads again.
+ */
+public final class PublishedArtifactCache {
+
+  private static final int MAX_ENTRIES =
+      Integer.getInteger(PublishedArtifactCache.class.getName() + ".maxEntries", 1000);
+
+  private static final PublishedArtifactCache INSTANCE = new PublishedArtifactCache();
+
+  private final Map<String, byte[]> digests =
+      new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+          return size() > MAX_ENTRIES;
+        }
+      };
+
+  PublishedArtifactCache() {}
+
+  public static PublishedArtifactCache get() {
+    return INSTANCE;
+  }
+
+  /**
+   * @param serverUrl CloudBees CD server URL the configuration resolved to
+   * @param configuration CloudBees CD configuration name
+   * @param repository artifact repository
+   * @param artifactVersionName "group:key:version"
+   * @param hashes file hashes by artifact path, see {@link ArtifactHasher}
+   * @return true if exactly these files were published as this artifact version
+   */
+  public synchronized boolean isPublished(
+      String serverUrl,
+      String configuration,
+      String repository,
+      String artifactVersionName,
+      Map<String, String> hashes) {
+    byte[] digest = digests.get(key(serverUrl, configuration, repository, artifactVersionName));
+
+    return digest != null && !hashes.isEmpty() && Arrays.equals(digest, digest(hashes));
+  }
+
+  /** Records a successful publish of the files as the artifact version. */
+  public synchronized void recordPublished(
+      String serverUrl,
+      String configuration,
+      String repository,
+      String artifactVersionName,
+      Map<String, String> hashes) {
+    digests.put(key(serverUrl, configuration, repository, artifactVersionName), digest(hashes));
+  }
+
+  public synchronized void clear() {
+    digests.clear();
+  }
+
+  private static String key(
+      String serverUrl, String configuration, String repository, String artifactVersionName) {
+    return serverUrl + "\n" + configuration + "\n" + repository + "\n" + artifactVersionName;
+  }
+
+  // One digest of all paths and hashes, in path order
+  private static byte[] digest(Map<String, String> hashes) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+      for (Map.Entry<String, String> entry : new TreeMap<>(hashes).entrySet()) {
+        String line = entry.getKey() + "\0" + entry.getValue() + "\n";
+        digest.update(line.getBytes(StandardCharsets.UTF_8));
+      }
+
+      return digest.digest();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -18,7 +18,7 @@ import org.jenkinsci.plugins.electricflow.Utils;
 import org.jenkinsci.plugins.electricflow.envvars.VariableInjectionAction;
 import org.jenkinsci.plugins.electricflow.factories.ElectricFlowClientFactory;
 import org.jenkinsci.plugins.electricflow.models.CallRestApiModel;
-import org.jenkinsci.plugins.electricflow.ui.HtmlUtils;
+import org.jenkinsci.plugins.electricflow.ui.SummaryTable;
 
 public class CallRestApiUtils {
 
@@ -49,9 +49,9 @@ public class CallRestApiUtils {
               HttpMethod.valueOf(callRestApiModel.getHttpMethod()),
               callRestApiModel.getBody(),
               callRestApiModel.getParameters(envReplacer));
-      String summaryHtml = getSummaryHtml(callRestApiModel, envReplacer, efClient, result);
+      SummaryTable summary = getSummary(callRestApiModel, envReplacer, efClient, result);
 
-      SummaryTextAction action = new SummaryTextAction(run, summaryHtml);
+      SummaryTextAction action = new SummaryTextAction(run, summary);
       run.addAction(action);
       run.save();
 
@@ -73,7 +73,7 @@ public class CallRestApiUtils {
     }
   }
 
-  private static String getSummaryHtml(
+  private static SummaryTable getSummary(
       CallRestApiModel callRestApiModel,
       EnvReplacer envReplacer,
       ElectricFlowClient efClient,
@@ -85,79 +85,30 @@ public class CallRestApiUtils {
     String url =
         efClient.getElectricFlowUrl() + configuration.getElectricFlowApiVersion() + urlPath;
 
-    String summaryText =
-        "<h3>CloudBees CD Generic REST API</h3>"
-            + "<table cellspacing=\"2\" cellpadding=\"4\"> \n"
-            + "  <tr>\n"
-            + "    <td style='width:20%;'>URL Path:</td>\n"
-            + "    <td><a href='"
-            + HtmlUtils.encodeForHtml(url)
-            + "'>"
-            + HtmlUtils.encodeForHtml(url)
-            + "</a></td>   \n"
-            + "  </tr>\n"
-            + "  <tr>\n"
-            + "    <td>HTTP Method:</td>\n"
-            + "    <td>"
-            + HtmlUtils.encodeForHtml(callRestApiModel.getHttpMethod())
-            + "</td>   \n"
-            + "  </tr>\n";
+    SummaryTable summary =
+        new SummaryTable("CloudBees CD Generic REST API")
+            .addLink("URL Path:", url, url)
+            .add("HTTP Method:", callRestApiModel.getHttpMethod());
 
     if (!HttpMethod.GET.equals(HttpMethod.valueOf(callRestApiModel.getHttpMethod()))) {
-
       if (!callRestApiModel.getParameters().isEmpty()) {
-        StringBuilder strBuilder = new StringBuilder(summaryText);
-
-        strBuilder.append(
-            "  <tr>\n"
-                + "    <td>&nbsp;<b>Parameters</b></td>\n"
-                + "    <td></td>    \n"
-                + "  </tr>\n");
+        summary.addSection("Parameters");
 
         for (Pair pair : callRestApiModel.getParameters(envReplacer)) {
-          strBuilder
-              .append("  <tr>\n" + "    <td>&nbsp;&nbsp;&nbsp;&nbsp;")
-              .append(HtmlUtils.encodeForHtml(pair.getKey()))
-              .append(":</td>\n" + "    <td>")
-              .append(HtmlUtils.encodeForHtml(pair.getValue()))
-              .append("</td>    \n" + "  </tr>\n");
+          summary.addItem(pair.getKey() + ":", pair.getValue());
         }
-
-        summaryText = strBuilder.toString();
       } else if (!callRestApiModel.getBody().isEmpty()) {
-        summaryText =
-            summaryText
-                + "  <tr>\n"
-                + "    <td>Body:</td>\n"
-                + "    <td>"
-                + HtmlUtils.encodeForHtml(formatJsonOutput(callRestApiModel.getBody()))
-                + "</td>    \n"
-                + "  </tr>\n";
+        summary.add("Body:", formatJsonOutput(callRestApiModel.getBody()));
       }
     }
 
     if (callRestApiModel.isEnvVarNameForResultSet()) {
-      summaryText =
-          summaryText
-              + "  <tr>\n"
-              + "    <td>Environment variable name for storing result:</td>\n"
-              + "    <td>"
-              + HtmlUtils.encodeForHtml(callRestApiModel.getEnvVarNameForResult())
-              + "</td>    \n"
-              + "  </tr>\n";
+      summary.add(
+          "Environment variable name for storing result:",
+          callRestApiModel.getEnvVarNameForResult());
     }
 
-    summaryText =
-        summaryText
-            + "  <tr>\n"
-            + "    <td>Result:</td>\n"
-            + "    <td><pre>"
-            + HtmlUtils.encodeForHtml(formatJsonOutput(result))
-            + "</pre></td>    \n"
-            + "  </tr>\n";
-    summaryText = summaryText + "</table>";
-
-    return summaryText;
+    return summary.addPreformatted("Result:", formatJsonOutput(result));
   }
 
   public static ListBoxModel doFillConfigurationItems(Item item) {
@@ -0,0 +1,114 @@
+package org.jenkinsci.plugins.electricflow.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared Jackson readers for CloudBees CD REST responses. Readers are immutable and thread-safe,
+ * so they are created once per response type and reused by all clients.
+ */
+public final class CdJsonReaders {
+
+  private static final ObjectMapper MAPPER =
+      new ObjectMapper()
+          .enable(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_USING_DEFAULT_VALUE)
+          .enable(DeserializationFeature.ACCEPT_EMPTY_STRING_AS_NULL_OBJECT)
+          .enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+          .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+  private static final Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+
+  private CdJsonReaders() {}
+
+  public static ObjectReader forType(Class<?> type) {
+    return READERS.computeIfAbsent(type, MAPPER::readerFor);
+  }
+
+  public static <T> T read(InputStream content, Class<T> type) throws IOException {
+    return forType(type).readValue(content);
+  }
+
+  public static <T> T read(byte[] content, Class<T> type) throws IOException {
+    return forType(type).readValue(content);
+  }
+
+  /**
+   * Collects the values of {@code nameField} from the objects of the top-level {@code arrayField}
+   * array, e.g. all applicationName values of a getApplications response. Everything else in the
+   * document is skipped without being materialised.
+   *
+   * @param content response body
+   * @param arrayField name of the top-level array (or single object)
+   * @param nameField name of the field to collect from each element
+   * @return collected values in the response order
+   * @throws IOException if the content is not valid JSON
+   */
+  public static List<String> readNames(InputStream content, String arrayField, String nameField)
+      throws IOException {
+    List<String> result = new ArrayList<>();
+
+    try (JsonParser parser = MAPPER.getFactory().createParser(content)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return result;
+      }
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+
+        if (!arrayField.equals(fieldName)) {
+          parser.skipChildren();
+          continue;
+        }
+
+        if (token == JsonToken.START_OBJECT) {
+          readName(parser, nameField, result);
+        } else if (token == JsonToken.START_ARRAY) {
+          while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() == JsonToken.START_OBJECT) {
+              readName(parser, nameField, result);
+            } else {
+              parser.skipChildren();
+            }
+          }
+        }
+      }
+    }
+
+    return result;
+  }
+
+  private static void readName(JsonParser parser, String nameField, List<String> result)
+      throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+
+      if (nameField.equals(fieldName) && token.isScalarValue()) {
+        result.add(parser.getText());
+      } else {
+        parser.skipChildren();
+      }
+    }
+  }
+
+  /**
+   * Reads a value from a response body stream.
+   *
+   * @param <T> value type
+   */
+  @FunctionalInterface
+  public interface StreamReader<T> {
+
+    T read(InputStream content) throws IOException;
+  }
+}
@@ -2,6 +2,8 @@ package org.jenkinsci.plugins.electricflow;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.concurrent.TimeUnit;
+import org.jenkinsci.plugins.electricflow.test.LocalHttpSink;
 import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
@@ -32,4 +34,22 @@ public class ElectricFlowClientTest {
 
     assertEquals(efc.getElectricFlowUrl(), FLOW_ENDPOINT);
   }
+
+  @Test
+  public void runRestAPIAsync() throws Exception {
+    try (LocalHttpSink sink = new LocalHttpSink()) {
+      sink.setResponse(200, "{\"project\":[]}");
+      ElectricFlowClient efc =
+          new ElectricFlowClient(
+              sink.getUrl(), FLOW_USER, FLOW_PASSWORD, FLOW_REST_API_URI_PATH, false);
+
+      String response =
+          efc.runRestAPIAsync("/projects", HttpMethod.GET, "").get(30, TimeUnit.SECONDS);
+
+      assertEquals("{\"project\":[]}", response);
+      assertEquals(
+          FLOW_REST_API_URI_PATH + "/projects",
+          sink.getRequests().get(sink.getRequests().size() - 1).getUri());
+    }
+  }
 }
@@ -0,0 +1,124 @@
+package org.jenkinsci.plugins.electricflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jenkinsci.plugins.electricflow.test.LocalHttpSink;
+import org.junit.Test;
+
+public class MultipartUtilityTest {
+
+  @Test
+  public void bodyIsSentWithItsLength() throws Exception {
+    File dir = Files.createTempDirectory("multipart").toFile();
+
+    try (LocalHttpSink sink = new LocalHttpSink()) {
+      // Larger than the copy buffer
+      byte[] content = new byte[600 * 1024 + 3];
+      new Random(1).nextBytes(content);
+      File large = new File(dir, "large.bin");
+      Files.write(large.toPath(), content);
+      File small = new File(dir, "small.txt");
+      Files.write(small.toPath(), "small".getBytes(StandardCharsets.UTF_8));
+
+      MultipartUtility multipart = new MultipartUtility(sink.getUrl() + "/upload", "UTF-8", false);
+      multipart.addFormField("artifactName", "group:key");
+      multipart.addFilePart("files", large, dir.getAbsolutePath());
+      multipart.addFilePart("files", small, dir.getAbsolutePath());
+
+      List<String> response = multipart.finish();
+
+      assertEquals(Collections.singletonList("Artifact-Published-OK"), response);
+      assertEquals(1, sink.getRequests().size());
+
+      LocalHttpSink.Request request = sink.getRequests().get(0);
+      assertEquals("POST", request.getMethod());
+      String contentLength = String.valueOf(multipart.getContentLength());
+      assertEquals(contentLength, request.getHeader("Content-Length"));
+      assertEquals(multipart.getContentLength(), request.getBodyLength());
+
+      String body = new String(request.getBody(), StandardCharsets.ISO_8859_1);
+      assertTrue(body.contains("name=\"artifactName\""));
+      assertTrue(body.contains("filename=\"/large.bin\""));
+      assertTrue(body.contains(new String(content, StandardCharsets.ISO_8859_1)));
+      assertTrue(body.contains("filename=\"/small.txt\""));
+    } finally {
+      FileUtils.deleteDirectory(dir);
+    }
+  }
+
+  @Test
+  public void bodyIsCompressedWhileItIsSent() throws Exception {
+    File dir = Files.createTempDirectory("multipart").toFile();
+
+    try (LocalHttpSink sink = new LocalHttpSink()) {
+      StringBuilder text = new StringBuilder();
+
+      for (int i = 0; i < 20000; i++) {
+        text.append("line ").append(i).append('\n');
+      }
+
+      File textFile = new File(dir, "build.log");
+      Files.write(textFile.toPath(), text.toString().getBytes(StandardCharsets.UTF_8));
+      byte[] random = new byte[200 * 1024];
+      new Random(1).nextBytes(random);
+      File jarFile = new File(dir, "app.jar");
+      Files.write(jarFile.toPath(), random);
+
+      MultipartUtility multipart = new MultipartUtility(sink.getUrl(), "UTF-8", false);
+      multipart.setCompressionLevel(6);
+      multipart.addFilePart("files", textFile, dir.getAbsolutePath());
+      multipart.addFilePart("files", jarFile, dir.getAbsolutePath());
+
+      assertEquals(Collections.singletonList("Artifact-Published-OK"), multipart.finish());
+
+      LocalHttpSink.Request request = sink.getRequests().get(0);
+      assertEquals("gzip", request.getHeader("Content-Encoding"));
+      assertTrue(request.getBodyLength() < multipart.getContentLength());
+
+      byte[] body;
+
+      try (GZIPInputStream input =
+          new GZIPInputStream(new ByteArrayInputStream(request.getBody()))) {
+        body = IOUtils.toByteArray(input);
+      }
+
+      assertEquals(multipart.getContentLength(), body.length);
+
+      String decoded = new String(body, StandardCharsets.ISO_8859_1);
+      assertTrue(decoded.contains(text.toString()));
+      assertTrue(decoded.contains(new String(random, StandardCharsets.ISO_8859_1)));
+    } finally {
+      FileUtils.deleteDirectory(dir);
+    }
+  }
+
+  @Test
+  public void errorStatusFails() throws Exception {
+    try (LocalHttpSink sink = new LocalHttpSink()) {
+      sink.setResponse(500, "error");
+
+      MultipartUtility multipart = new MultipartUtility(sink.getUrl(), "UTF-8", false);
+      multipart.addFormField("artifactName", "group:key");
+
+      try {
+        multipart.finish();
+        fail("Expected an IOException");
+      } catch (IOException e) {
+        assertEquals("Server returned non-OK status: 500", e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package org.jenkinsci.plugins.electricflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jenkinsci.plugins.electricflow.test.LocalHttpSink;
+import org.junit.Test;
+
+/**
+ * Upload throughput against a local HTTP server. Only runs with -Delectricflow.benchmarks=true,
+ * the measured throughput is logged.
+ */
+public class MultipartUtilityThroughputTest {
+
+  private static final Log log = LogFactory.getLog(MultipartUtilityThroughputTest.class);
+
+  private static final int FILES = Integer.getInteger("electricflow.benchmarks.files", 32);
+  private static final int FILE_SIZE =
+      Integer.getInteger("electricflow.benchmarks.fileSizeKb", 4 * 1024) * 1024;
+  private static final int ROUNDS = 3;
+
+  @Test
+  public void uploadThroughput() throws Exception {
+    assumeTrue(Boolean.getBoolean("electricflow.benchmarks"));
+
+    File dir = Files.createTempDirectory("multipart-benchmark").toFile();
+
+    try (LocalHttpSink sink = new LocalHttpSink()) {
+      sink.discardBodies();
+
+      List<File> files = createFiles(dir);
+      long totalBytes = (long) FILES * FILE_SIZE;
+
+      // Warm up both modes before measuring
+      upload(sink.getUrl(), files, dir, false);
+      upload(sink.getUrl(), files, dir, true);
+
+      long allocatedNanos = 0;
+      long pooledNanos = 0;
+
+      for (int i = 0; i < ROUNDS; i++) {
+        long start = System.nanoTime();
+        upload(sink.getUrl(), files, dir, false);
+        allocatedNanos += System.nanoTime() - start;
+
+        start = System.nanoTime();
+        upload(sink.getUrl(), files, dir, true);
+        pooledNanos += System.nanoTime() - start;
+      }
+
+      String result =
+          String.format(
+              "Upload of %d files, %d MB: buffer per request %.1f MB/s, pooled buffers %.1f MB/s",
+              FILES,
+              totalBytes >> 20,
+              megabytesPerSecond(totalBytes * ROUNDS, allocatedNanos),
+              megabytesPerSecond(totalBytes * ROUNDS, pooledNanos));
+
+      log.info(result);
+      assertEquals(result, 2 * (ROUNDS + 1), sink.getRequests().size());
+    } finally {
+      FileUtils.deleteDirectory(dir);
+    }
+  }
+
+  private static List<File> createFiles(File dir) throws IOException {
+    List<File> files = new ArrayList<>();
+    byte[] content = new byte[FILE_SIZE];
+    Random random = new Random(1);
+
+    for (int i = 0; i < FILES; i++) {
+      random.nextBytes(content);
+      File file = new File(dir, "file" + i + ".bin");
+      Files.write(file.toPath(), content);
+      files.add(file);
+    }
+
+    return files;
+  }
+
+  private static void upload(String url, List<File> files, File dir, boolean pooledBuffers)
+      throws IOException {
+    MultipartUtility multipart = new MultipartUtility(url, "UTF-8", false);
+    multipart.setPooledBuffers(pooledBuffers);
+    multipart.addFormField("artifactName", "group:key");
+
+    for (File file : files) {
+      multipart.addFilePart("files", file, dir.getAbsolutePath());
+    }
+
+    multipart.finish();
+  }
+
+  private static double megabytesPerSecond(long bytes, long nanos) {
+    return bytes / 1048576.0 / (nanos / 1e9);
+  }
+}
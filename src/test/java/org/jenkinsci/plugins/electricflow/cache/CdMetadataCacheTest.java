@@ -0,0 +1,95 @@
+package org.jenkinsci.plugins.electricflow.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jenkinsci.plugins.electricflow.ElectricFlowClient;
+import org.jenkinsci.plugins.electricflow.cache.CdMetadataCache.MetadataType;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CdMetadataCacheTest {
+
+  private final CdMetadataCache cache = CdMetadataCache.get();
+
+  private final ElectricFlowClient client = client("https://cd.example.com", "admin");
+
+  @Before
+  public void setUp() {
+    cache.flush();
+  }
+
+  @Test
+  public void valuesAreCachedPerParentPath() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    CdMetadataCache.Loader<List<String>> loader =
+        () -> Arrays.asList("app" + loads.incrementAndGet());
+
+    assertEquals("app1", cache.get("conf", client, MetadataType.APPLICATIONS, loader, "p1").get(0));
+    assertEquals("app1", cache.get("conf", client, MetadataType.APPLICATIONS, loader, "p1").get(0));
+    assertEquals("app2", cache.get("conf", client, MetadataType.APPLICATIONS, loader, "p2").get(0));
+    assertEquals("app3", cache.get("conf", client, MetadataType.ENVIRONMENTS, loader, "p1").get(0));
+    assertEquals(3, loads.get());
+    assertEquals(3, cache.getSize());
+
+    cache.flush("conf");
+    assertEquals("app4", cache.get("conf", client, MetadataType.APPLICATIONS, loader, "p1").get(0));
+  }
+
+  @Test
+  public void valuesAreCachedPerServerAndUser() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    CdMetadataCache.Loader<List<String>> loader =
+        () -> Arrays.asList("project" + loads.incrementAndGet());
+    ElectricFlowClient otherServer = client("https://cd2.example.com", "admin");
+    ElectricFlowClient otherUser = client("https://cd.example.com", "folder-user");
+
+    assertEquals("project1", cache.get("conf", client, MetadataType.PROJECTS, loader).get(0));
+    assertEquals("project2", cache.get("conf", otherServer, MetadataType.PROJECTS, loader).get(0));
+    assertEquals("project3", cache.get("conf", otherUser, MetadataType.PROJECTS, loader).get(0));
+    assertEquals("project1", cache.get("conf", client, MetadataType.PROJECTS, loader).get(0));
+  }
+
+  @Test
+  public void valueLoadedDuringFlushIsNotCached() throws Exception {
+    CdMetadataCache.Loader<List<String>> flushingLoader =
+        () -> {
+          cache.flush("conf");
+          return Arrays.asList("stale");
+        };
+
+    assertEquals("stale", cache.get("conf", client, MetadataType.PROJECTS, flushingLoader).get(0));
+    assertEquals(0, cache.getSize());
+    assertEquals(
+        "fresh",
+        cache.get("conf", client, MetadataType.PROJECTS, () -> Arrays.asList("fresh")).get(0));
+  }
+
+  @Test
+  public void failedLoadsAreNotCached() throws Exception {
+    try {
+      cache.get(
+          "conf",
+          client,
+          MetadataType.PROJECTS,
+          () -> {
+            throw new IOException("Connection refused");
+          });
+      fail("Loader exception expected");
+    } catch (IOException expected) {
+      // expected
+    }
+
+    assertEquals(0, cache.getSize());
+    assertEquals(
+        "p", cache.get("conf", client, MetadataType.PROJECTS, () -> Arrays.asList("p")).get(0));
+  }
+
+  private static ElectricFlowClient client(String url, String user) {
+    return new ElectricFlowClient(url, user, "password", "/rest/v1.0", false);
+  }
+}
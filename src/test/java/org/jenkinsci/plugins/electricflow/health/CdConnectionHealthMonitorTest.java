@@ -0,0 +1,165 @@
+package org.jenkinsci.plugins.electricflow.health;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jenkinsci.plugins.electricflow.health.CdConnectionHealthMonitor.Health;
+import org.jenkinsci.plugins.electricflow.health.CdConnectionHealthMonitor.Status;
+import org.junit.Test;
+
+public class CdConnectionHealthMonitorTest {
+
+  private final AtomicLong now = new AtomicLong(1000000);
+  private final Queue<Runnable> scheduledProbes = new ArrayDeque<>();
+  private final AtomicInteger probes = new AtomicInteger();
+
+  private volatile long probeLatency;
+  private volatile boolean serverDown;
+
+  private final CdConnectionHealthMonitor monitor =
+      new CdConnectionHealthMonitor(
+          (configuration, overrideCredential) -> {
+            probes.incrementAndGet();
+            now.addAndGet(probeLatency);
+
+            if (serverDown) {
+              throw new IOException("Connection refused");
+            }
+          },
+          scheduledProbes::add,
+          now::get);
+
+  @Test
+  public void firstLookupDoesNotWaitForProbe() {
+    Health health = monitor.getHealth("conf", null);
+
+    assertEquals(Status.UNKNOWN, health.getStatus());
+    assertTrue(monitor.isAvailable("conf", null));
+    assertEquals(0, probes.get());
+
+    // Only one probe is scheduled until it has run
+    assertEquals(1, scheduledProbes.size());
+
+    runScheduledProbes();
+    assertEquals(Status.UP, monitor.getHealth("conf", null).getStatus());
+    assertTrue(scheduledProbes.isEmpty());
+  }
+
+  @Test
+  public void upStateIsRefreshedPeriodically() {
+    monitor.getHealth("conf", null);
+    runScheduledProbes();
+
+    now.addAndGet(CdConnectionHealthMonitor.UP_REFRESH_MILLIS - 1);
+    monitor.getHealth("conf", null);
+    assertTrue(scheduledProbes.isEmpty());
+
+    now.addAndGet(1);
+    probeLatency = CdConnectionHealthMonitor.DEGRADED_LATENCY_MILLIS + 1;
+    assertEquals(Status.UP, monitor.getHealth("conf", null).getStatus());
+    runScheduledProbes();
+
+    Health health = monitor.getHealth("conf", null);
+    assertEquals(Status.DEGRADED, health.getStatus());
+    assertEquals(CdConnectionHealthMonitor.DEGRADED_LATENCY_MILLIS + 1, health.getLatencyMillis());
+  }
+
+  @Test
+  public void failedProbesAreRetriedWithBackoff() {
+    serverDown = true;
+    monitor.getHealth("conf", null);
+    runScheduledProbes();
+
+    Health health = monitor.getHealth("conf", null);
+    assertEquals(Status.DOWN, health.getStatus());
+    assertEquals("Connection refused", health.getMessage());
+    assertFalse(monitor.isAvailable("conf", null));
+
+    long backoff = CdConnectionHealthMonitor.MIN_BACKOFF_MILLIS;
+
+    for (int i = 0; i < 3; i++) {
+      now.addAndGet(backoff - 1);
+      monitor.getHealth("conf", null);
+      assertTrue(scheduledProbes.isEmpty());
+
+      now.addAndGet(1);
+      monitor.getHealth("conf", null);
+      runScheduledProbes();
+      backoff *= 2;
+    }
+
+    assertEquals(4, probes.get());
+
+    serverDown = false;
+    now.addAndGet(backoff);
+    monitor.getHealth("conf", null);
+    runScheduledProbes();
+    assertEquals(Status.UP, monitor.getHealth("conf", null).getStatus());
+
+    // A success resets the backoff
+    serverDown = true;
+    now.addAndGet(CdConnectionHealthMonitor.UP_REFRESH_MILLIS);
+    monitor.getHealth("conf", null);
+    runScheduledProbes();
+    now.addAndGet(CdConnectionHealthMonitor.MIN_BACKOFF_MILLIS);
+    monitor.getHealth("conf", null);
+    assertEquals(1, scheduledProbes.size());
+  }
+
+  @Test
+  public void statesOfChangedConfigurationsAreDropped() {
+    monitor.retain(Collections.singletonMap("conf", "url1"));
+    serverDown = true;
+    monitor.getHealth("conf", null);
+    runScheduledProbes();
+    assertEquals(Status.DOWN, monitor.getHealth("conf", null).getStatus());
+
+    monitor.retain(Collections.singletonMap("conf", "url1"));
+    assertEquals(Status.DOWN, monitor.getHealth("conf", null).getStatus());
+
+    monitor.retain(Collections.singletonMap("conf", "url2"));
+    assertEquals(Status.UNKNOWN, monitor.getHealth("conf", null).getStatus());
+
+    monitor.retain(Collections.emptyMap());
+    assertEquals(0, monitor.getStateCount());
+  }
+
+  @Test
+  public void rejectedProbeIsScheduledAgain() {
+    AtomicInteger rejected = new AtomicInteger();
+    CdConnectionHealthMonitor busyMonitor =
+        new CdConnectionHealthMonitor(
+            (configuration, overrideCredential) -> probes.incrementAndGet(),
+            task -> {
+              if (rejected.getAndIncrement() == 0) {
+                throw new RejectedExecutionException("Queue is full");
+              }
+              scheduledProbes.add(task);
+            },
+            now::get);
+
+    assertEquals(Status.UNKNOWN, busyMonitor.getHealth("conf", null).getStatus());
+    assertTrue(scheduledProbes.isEmpty());
+
+    busyMonitor.getHealth("conf", null);
+    runScheduledProbes();
+    assertEquals(Status.UP, busyMonitor.getHealth("conf", null).getStatus());
+    assertEquals(1, probes.get());
+  }
+
+  private void runScheduledProbes() {
+    Runnable probe;
+
+    while ((probe = scheduledProbes.poll()) != null) {
+      probe.run();
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package org.jenkinsci.plugins.electricflow.rest;
+
+import static org.junit.Assert.assertEquals;
+
+import com.gargoylesoftware.htmlunit.HttpMethod;
+import com.gargoylesoftware.htmlunit.WebRequest;
+import com.gargoylesoftware.htmlunit.WebResponse;
+import hudson.model.FreeStyleProject;
+import hudson.model.Item;
+import java.net.URL;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONObject;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
+
+public class ElectricFlowEFRunAPIActionTest {
+
+  @ClassRule public static JenkinsRule jenkinsRule = new JenkinsRule();
+
+  private static FreeStyleProject project;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    jenkinsRule.jenkins.setSecurityRealm(jenkinsRule.createDummySecurityRealm());
+    jenkinsRule.jenkins.setAuthorizationStrategy(
+        new MockAuthorizationStrategy()
+            .grant(Jenkins.READ, Item.READ)
+            .everywhere()
+            .to("reader", "builder")
+            .grant(Item.BUILD)
+            .everywhere()
+            .to("builder"));
+
+    project = jenkinsRule.createFreeStyleProject("notified");
+  }
+
+  @Test
+  public void notificationRequiresBuildPermission() throws Exception {
+    assertEquals(403, notifyCompletion("reader", "{\"jobId\":\"job-1\"}").getStatusCode());
+  }
+
+  @Test
+  public void bodyMustBeJsonObject() throws Exception {
+    assertEquals(400, notifyCompletion("builder", "jobId=job-1").getStatusCode());
+  }
+
+  @Test
+  public void runIdIsRequired() throws Exception {
+    assertEquals(400, notifyCompletion("builder", "{\"jobId\":\" \"}").getStatusCode());
+  }
+
+  @Test
+  public void notificationWithoutWaitingBuilds() throws Exception {
+    WebResponse response = notifyCompletion("builder", "{\"flowRuntimeId\":\"runtime-1\"}");
+
+    assertEquals(200, response.getStatusCode());
+
+    JSONObject result = JSONObject.fromObject(response.getContentAsString());
+    assertEquals("ok", result.getString("status"));
+    assertEquals(0, result.getInt("waitingRuns"));
+  }
+
+  private static WebResponse notifyCompletion(String user, String body) throws Exception {
+    JenkinsRule.WebClient webClient = jenkinsRule.createWebClient().login(user);
+    webClient.getOptions().setThrowExceptionOnFailingStatusCode(false);
+
+    WebRequest request =
+        new WebRequest(
+            new URL(jenkinsRule.getURL(), project.getUrl() + "efrun/notifyCompletion"),
+            HttpMethod.POST);
+    request.setAdditionalHeader("Content-Type", "application/json");
+    request.setRequestBody(body);
+
+    return webClient.getPage(webClient.addCrumb(request)).getWebResponse();
+  }
+}
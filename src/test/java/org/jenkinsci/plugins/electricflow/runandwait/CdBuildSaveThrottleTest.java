@@ -0,0 +1,53 @@
+package org.jenkinsci.plugins.electricflow.runandwait;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdJobOutcome;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdJobStatus;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.GetJobStatusResponseData;
+import org.junit.Test;
+
+public class CdBuildSaveThrottleTest {
+
+  private final AtomicInteger saves = new AtomicInteger();
+
+  @Test
+  public void unchangedStatusIsNotSaved() throws Exception {
+    CdBuildSaveThrottle throttle = new CdBuildSaveThrottle(saves::incrementAndGet, 0);
+
+    throttle.onStatus(job(CdJobStatus.running, CdJobOutcome.success));
+    throttle.onStatus(job(CdJobStatus.running, CdJobOutcome.success));
+    throttle.onStatus(job(CdJobStatus.running, CdJobOutcome.success));
+    assertEquals(1, saves.get());
+
+    throttle.onStatus(job(CdJobStatus.running, CdJobOutcome.warning));
+    assertEquals(2, saves.get());
+
+    throttle.flush();
+    assertEquals(2, saves.get());
+  }
+
+  @Test
+  public void changesWithinIntervalAreSavedOnFlush() throws Exception {
+    CdBuildSaveThrottle throttle = new CdBuildSaveThrottle(saves::incrementAndGet, 60_000);
+
+    throttle.onStatus(job(CdJobStatus.runnable, CdJobOutcome.success));
+    assertEquals(1, saves.get());
+
+    throttle.onStatus(job(CdJobStatus.running, CdJobOutcome.success));
+    throttle.onStatus(job(CdJobStatus.running, CdJobOutcome.error));
+    assertEquals(1, saves.get());
+
+    throttle.flush();
+    assertEquals(2, saves.get());
+  }
+
+  private static CdRunStatus job(CdJobStatus status, CdJobOutcome outcome) {
+    GetJobStatusResponseData data = new GetJobStatusResponseData();
+    data.setJobId("1");
+    data.setStatus(status);
+    data.setOutcome(outcome);
+    return CdRunStatus.of(data);
+  }
+}
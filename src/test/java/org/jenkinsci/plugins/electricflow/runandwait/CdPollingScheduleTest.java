@@ -0,0 +1,86 @@
+package org.jenkinsci.plugins.electricflow.runandwait;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.jenkinsci.plugins.electricflow.RunAndWaitOption;
+import org.junit.Test;
+
+public class CdPollingScheduleTest {
+
+  private final Random random = new Random(42);
+
+  @Test
+  public void fixedIntervalIsNotRandomized() {
+    RunAndWaitOption option = new RunAndWaitOption();
+    option.setCheckInterval(7);
+
+    for (int checks = 0; checks < 10; checks++) {
+      assertEquals(7000, CdPollingSchedule.nextDelayMillis(option, checks, 0, -1, random));
+    }
+  }
+
+  @Test
+  public void adaptiveIntervalGrowsUpToMaximum() {
+    RunAndWaitOption option = adaptive(30);
+
+    assertBetween(800, 1200, CdPollingSchedule.nextDelayMillis(option, 0, 0, -1, random));
+    assertBetween(3200, 4800, CdPollingSchedule.nextDelayMillis(option, 2, 0, -1, random));
+    assertBetween(24000, 36000, CdPollingSchedule.nextDelayMillis(option, 10, 0, -1, random));
+    assertBetween(24000, 36000, CdPollingSchedule.nextDelayMillis(option, 1000, 0, -1, random));
+  }
+
+  @Test
+  public void expectedDurationDelaysChecksTillExpectedEnd() {
+    RunAndWaitOption option = adaptive(600);
+
+    // 10 minutes expected, 2 minutes elapsed: half of the remaining 8 minutes
+    assertBetween(
+        192000, 288000, CdPollingSchedule.nextDelayMillis(option, 0, 120000, 600000, random));
+    // Close to the expected end the checks are frequent again
+    assertBetween(800, 1200, CdPollingSchedule.nextDelayMillis(option, 5, 599000, 600000, random));
+    // Past the expected end the interval grows again
+    assertBetween(800, 1200, CdPollingSchedule.nextDelayMillis(option, 8, 601000, 600000, random));
+    assertBetween(
+        40000, 60000, CdPollingSchedule.nextDelayMillis(option, 9, 700000, 600000, random));
+  }
+
+  @Test
+  public void completionCallbackOnlyKeepsFirstCheck() {
+    RunAndWaitOption option = new RunAndWaitOption();
+    option.setCheckInterval(5);
+    option.setCompletionCallback(true);
+    long fallback = CdPollingSchedule.CALLBACK_FALLBACK_INTERVAL_MILLIS;
+
+    assertEquals(5000, CdPollingSchedule.nextDelayMillis(option, 0, 0, -1, random));
+    assertBetween(
+        Math.round(fallback * 0.8),
+        Math.round(fallback * 1.2),
+        CdPollingSchedule.nextDelayMillis(option, 1, 5000, -1, random));
+  }
+
+  @Test
+  public void adaptiveDelaysAreJittered() {
+    RunAndWaitOption option = adaptive(60);
+    long first = CdPollingSchedule.nextDelayMillis(option, 3, 0, -1, random);
+    boolean differs = false;
+
+    for (int i = 0; i < 10 && !differs; i++) {
+      differs = CdPollingSchedule.nextDelayMillis(option, 3, 0, -1, random) != first;
+    }
+
+    assertTrue(differs);
+  }
+
+  private static RunAndWaitOption adaptive(int maxCheckInterval) {
+    RunAndWaitOption option = new RunAndWaitOption();
+    option.setAdaptiveCheckInterval(true);
+    option.setMaxCheckInterval(maxCheckInterval);
+    return option;
+  }
+
+  private static void assertBetween(long min, long max, long actual) {
+    assertTrue(actual + " is not between " + min + " and " + max, actual >= min && actual <= max);
+  }
+}
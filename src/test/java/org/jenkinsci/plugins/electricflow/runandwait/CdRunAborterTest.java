@@ -0,0 +1,52 @@
+package org.jenkinsci.plugins.electricflow.runandwait;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class CdRunAborterTest {
+
+  private final PrintStream logger = new PrintStream(new ByteArrayOutputStream());
+  private final AtomicInteger attempts = new AtomicInteger();
+
+  @Test
+  public void failedAbortIsRetried() {
+    boolean aborted =
+        CdRunAborter.abort(
+            () -> {
+              if (attempts.incrementAndGet() < 3) {
+                throw new IOException("Connection refused");
+              }
+            },
+            "CD job 1",
+            logger,
+            3,
+            1);
+
+    assertTrue(aborted);
+    assertEquals(3, attempts.get());
+  }
+
+  @Test
+  public void retriesAreBounded() {
+    boolean aborted =
+        CdRunAborter.abort(
+            () -> {
+              attempts.incrementAndGet();
+              throw new IOException("Connection refused");
+            },
+            "CD job 1",
+            logger,
+            2,
+            1);
+
+    assertFalse(aborted);
+    assertEquals(2, attempts.get());
+  }
+}
@@ -0,0 +1,151 @@
+package org.jenkinsci.plugins.electricflow.runandwait;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import org.jenkinsci.plugins.electricflow.exceptions.PluginException;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdJobOutcome;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdJobStatus;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdPipelineStatus;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.GetJobStatusResponseData;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.GetPipelineRuntimeDetailsResponseData;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.PipelineRuntimeStageDetails;
+import org.junit.Test;
+
+public class CdRunStatusTest {
+
+  @Test
+  public void runningJobIsNotCompleted() throws Exception {
+    CdRunStatus status = CdRunStatus.of(job(CdJobStatus.running, CdJobOutcome.success));
+
+    assertTrue(status.isKnown());
+    assertFalse(status.isCompleted());
+    status.checkKnown();
+  }
+
+  @Test
+  public void unknownJobStatusIsRejected() {
+    CdRunStatus status = CdRunStatus.of(job(CdJobStatus.unknown, CdJobOutcome.unknown));
+
+    assertFalse(status.isKnown());
+    try {
+      status.checkKnown();
+      fail("Unknown status must be rejected");
+    } catch (PluginException e) {
+      assertEquals("Unexpected format of CD job status response", e.getMessage());
+    }
+  }
+
+  @Test
+  public void jobOutcome() throws Exception {
+    CdRunStatus warning = CdRunStatus.of(job(CdJobStatus.completed, CdJobOutcome.warning));
+    CdRunStatus error = CdRunStatus.of(job(CdJobStatus.completed, CdJobOutcome.error));
+
+    assertTrue(warning.isCompleted());
+    assertTrue(warning.isSuccessful());
+    warning.checkOutcome();
+
+    assertFalse(error.isSuccessful());
+    try {
+      error.checkOutcome();
+      fail("Error outcome must be rejected");
+    } catch (PluginException e) {
+      assertEquals("CD job completed with error outcome", e.getMessage());
+    }
+  }
+
+  @Test
+  public void pipelineRuntimeCompletion() throws Exception {
+    CdRunStatus running = CdRunStatus.of(pipeline(null, CdPipelineStatus.running));
+    CdRunStatus success = CdRunStatus.of(pipeline(true, CdPipelineStatus.success));
+    CdRunStatus aborted = CdRunStatus.of(pipeline(true, CdPipelineStatus.ABORT));
+
+    assertTrue(running.isKnown());
+    assertFalse(running.isCompleted());
+
+    assertTrue(success.isCompleted());
+    success.checkOutcome();
+
+    assertFalse(aborted.isSuccessful());
+    try {
+      aborted.checkOutcome();
+      fail("Aborted pipeline must be rejected");
+    } catch (PluginException e) {
+      assertEquals("CD pipeline completed with ABORT status", e.getMessage());
+    }
+  }
+
+  @Test
+  public void onlyJobChangesAreDescribed() {
+    CdRunStatus first = CdRunStatus.of(job(CdJobStatus.running, CdJobOutcome.success));
+    CdRunStatus same = CdRunStatus.of(job(CdJobStatus.running, CdJobOutcome.success));
+    CdRunStatus completed = CdRunStatus.of(job(CdJobStatus.completed, CdJobOutcome.error));
+
+    assertEquals(Collections.singletonList(first.toString()), first.getChangesSince(null));
+    assertTrue(same.getChangesSince(first).isEmpty());
+    assertEquals(
+        Arrays.asList(
+            "CD job 1 status: running -> completed", "CD job 1 outcome: success -> error"),
+        completed.getChangesSince(same));
+  }
+
+  @Test
+  public void stageAndTaskTransitionsAreDescribed() {
+    GetPipelineRuntimeDetailsResponseData before = pipeline(false, CdPipelineStatus.running);
+    before.getStages().add(stage("QA", "running", task("Deploy", "running")));
+
+    GetPipelineRuntimeDetailsResponseData after = pipeline(false, CdPipelineStatus.running);
+    after.getStages().add(stage("QA", "success", task("Deploy", "success")));
+    after.getStages().add(stage("Prod", null));
+
+    CdRunStatus first = CdRunStatus.of(before);
+
+    assertEquals(
+        Arrays.asList(first.toString(), "stage QA: running", "task QA/Deploy: running"),
+        first.getChangesSince(null));
+    assertEquals(
+        Arrays.asList(
+            "stage QA: running -> success",
+            "task QA/Deploy: running -> success",
+            "stage Prod: running"),
+        CdRunStatus.of(after).getChangesSince(first));
+  }
+
+  private static PipelineRuntimeStageDetails stage(
+      String name, String status, PipelineRuntimeStageDetails.Task... tasks) {
+    PipelineRuntimeStageDetails stage = new PipelineRuntimeStageDetails();
+    stage.setStageName(name);
+    stage.setStatus(status);
+    stage.setTasks(new ArrayList<>(Arrays.asList(tasks)));
+    return stage;
+  }
+
+  private static PipelineRuntimeStageDetails.Task task(String name, String status) {
+    PipelineRuntimeStageDetails.Task task = new PipelineRuntimeStageDetails.Task();
+    task.setTaskName(name);
+    task.setStatus(status);
+    return task;
+  }
+
+  private static GetJobStatusResponseData job(CdJobStatus status, CdJobOutcome outcome) {
+    GetJobStatusResponseData data = new GetJobStatusResponseData();
+    data.setJobId("1");
+    data.setStatus(status);
+    data.setOutcome(outcome);
+    return data;
+  }
+
+  private static GetPipelineRuntimeDetailsResponseData pipeline(
+      Boolean completed, CdPipelineStatus status) {
+    GetPipelineRuntimeDetailsResponseData data = new GetPipelineRuntimeDetailsResponseData();
+    data.setFlowRuntimeId("1");
+    data.setCompleted(completed);
+    data.setStatus(status);
+    return data;
+  }
+}
@@ -0,0 +1,263 @@
+package org.jenkinsci.plugins.electricflow.runandwait;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jenkinsci.plugins.electricflow.RunAndWaitOption;
+import org.jenkinsci.plugins.electricflow.exceptions.PluginException;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdJobOutcome;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdJobStatus;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.GetJobStatusResponseData;
+import org.junit.Test;
+
+public class CdWaitServiceTest {
+
+  private static final String JOB_NAME = "folder/job";
+
+  private final CdWaitService service = CdWaitService.get();
+
+  @Test
+  public void dueRunsOfOneServerAreCheckedWithOneRequest() throws Exception {
+    List<Collection<String>> requests = new CopyOnWriteArrayList<>();
+    CdWaitService.StatusFetcher fetcher =
+        (type, ids) -> {
+          requests.add(new ArrayList<>(ids));
+          Map<String, CdRunStatus> statuses = new HashMap<>();
+          for (String id : ids) {
+            statuses.put(id, completedJob(id));
+          }
+          return statuses;
+        };
+
+    List<CompletableFuture<CdRunStatus>> results = new ArrayList<>();
+    for (String id : new String[] {"job-1", "job-2", "job-3"}) {
+      results.add(register("server-a", fetcher, id));
+    }
+
+    for (CompletableFuture<CdRunStatus> result : results) {
+      assertTrue(result.get(30, TimeUnit.SECONDS).isCompleted());
+    }
+
+    // Waits registered together are due together and checked by one request
+    assertTrue(requests.size() < results.size());
+    assertEquals(3, requests.stream().mapToInt(Collection::size).sum());
+  }
+
+  @Test
+  public void missingRunFailsOnlyItsWait() throws Exception {
+    CdWaitService.StatusFetcher fetcher =
+        (type, ids) -> {
+          Map<String, CdRunStatus> statuses = new HashMap<>();
+          statuses.put("job-found", completedJob("job-found"));
+          return statuses;
+        };
+
+    CompletableFuture<CdRunStatus> found = register("server-b", fetcher, "job-found");
+    CompletableFuture<CdRunStatus> missing = register("server-b", fetcher, "job-missing");
+
+    assertTrue(found.get(30, TimeUnit.SECONDS).isCompleted());
+    try {
+      missing.get(30, TimeUnit.SECONDS);
+      fail("Wait for a missing run must fail");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof PluginException);
+      assertEquals("CD job job-missing was not found", e.getCause().getMessage());
+    }
+  }
+
+  @Test
+  public void failedStatusRequestIsRetried() throws Exception {
+    AtomicInteger requests = new AtomicInteger();
+    CdWaitService.StatusFetcher fetcher =
+        (type, ids) -> {
+          if (requests.incrementAndGet() == 1) {
+            throw new IOException("Connection reset");
+          }
+
+          Map<String, CdRunStatus> statuses = new HashMap<>();
+          for (String id : ids) {
+            statuses.put(id, completedJob(id));
+          }
+          return statuses;
+        };
+
+    CompletableFuture<CdRunStatus> first = register("server-e", fetcher, "job-1");
+    CompletableFuture<CdRunStatus> second = register("server-e", fetcher, "job-2");
+
+    assertTrue(first.get(30, TimeUnit.SECONDS).isCompleted());
+    assertTrue(second.get(30, TimeUnit.SECONDS).isCompleted());
+    assertTrue(requests.get() >= 2);
+  }
+
+  @Test
+  public void statusIsRequestedWithClientOfWaitingBuild() throws Exception {
+    AtomicInteger cancelledRequests = new AtomicInteger();
+    CdWaitService.StatusFetcher cancelledFetcher =
+        (type, ids) -> {
+          cancelledRequests.incrementAndGet();
+          throw new IOException("Client of a finished build");
+        };
+    CdWaitService.StatusFetcher fetcher =
+        (type, ids) -> {
+          Map<String, CdRunStatus> statuses = new HashMap<>();
+          for (String id : ids) {
+            statuses.put(id, completedJob(id));
+          }
+          return statuses;
+        };
+
+    RunAndWaitOption option = new RunAndWaitOption();
+    option.setCheckInterval(600);
+    CdWaitService.Registration cancelled =
+        service.register(
+            "server-f",
+            cancelledFetcher,
+            JOB_NAME,
+            CdRunType.JOB,
+            "job-cancelled",
+            option,
+            0,
+            null);
+    CompletableFuture<CdRunStatus> waiting = register("server-f", fetcher, "job-waiting");
+    cancelled.cancel();
+
+    assertTrue(waiting.get(30, TimeUnit.SECONDS).isCompleted());
+    assertEquals(0, cancelledRequests.get());
+  }
+
+  @Test
+  public void statusIsRequestedOnCdClientExecutor() throws Exception {
+    List<String> threads = new CopyOnWriteArrayList<>();
+    CdWaitService.StatusFetcher fetcher =
+        (type, ids) -> {
+          threads.add(Thread.currentThread().getName());
+          Map<String, CdRunStatus> statuses = new HashMap<>();
+          for (String id : ids) {
+            statuses.put(id, completedJob(id));
+          }
+          return statuses;
+        };
+
+    assertTrue(register("server-g", fetcher, "job-1").get(30, TimeUnit.SECONDS).isCompleted());
+
+    // Blocking requests must not hold the shared timer threads
+    assertTrue(threads.toString(), threads.get(0).startsWith("CloudBees CD client"));
+  }
+
+  @Test
+  public void waitFailsAfterDeadline() throws Exception {
+    CdWaitService.StatusFetcher fetcher =
+        (type, ids) -> {
+          Map<String, CdRunStatus> statuses = new HashMap<>();
+          for (String id : ids) {
+            statuses.put(id, job(id, CdJobStatus.running));
+          }
+          return statuses;
+        };
+
+    CompletableFuture<CdRunStatus> running =
+        register("server-c", fetcher, "job-running", System.currentTimeMillis() + 1500);
+
+    try {
+      running.get(30, TimeUnit.SECONDS);
+      fail("Wait for a run that is not completed must time out");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof CdWaitTimeoutException);
+    }
+    assertEquals(0, service.getActiveCount());
+  }
+
+  @Test
+  public void completionNotificationChecksRightAway() throws Exception {
+    CdWaitService.StatusFetcher fetcher =
+        (type, ids) -> {
+          Map<String, CdRunStatus> statuses = new HashMap<>();
+          for (String id : ids) {
+            statuses.put(id, completedJob(id));
+          }
+          return statuses;
+        };
+    RunAndWaitOption option = new RunAndWaitOption();
+    option.setCheckInterval(600);
+    option.setCompletionCallback(true);
+
+    CompletableFuture<CdRunStatus> notified =
+        register("server-d", fetcher, "job-notified", 0, option);
+
+    assertEquals(0, service.notifyCompleted(JOB_NAME, CdRunType.PIPELINE_RUNTIME, "job-notified"));
+    assertEquals(0, service.notifyCompleted("other-job", CdRunType.JOB, "job-notified"));
+    assertEquals(1, service.notifyCompleted(JOB_NAME, CdRunType.JOB, "job-notified"));
+    assertTrue(notified.get(10, TimeUnit.SECONDS).isCompleted());
+  }
+
+  private CompletableFuture<CdRunStatus> register(
+      String groupKey, CdWaitService.StatusFetcher fetcher, String id) {
+    return register(groupKey, fetcher, id, 0);
+  }
+
+  private CompletableFuture<CdRunStatus> register(
+      String groupKey, CdWaitService.StatusFetcher fetcher, String id, long deadline) {
+    RunAndWaitOption option = new RunAndWaitOption();
+    option.setCheckInterval(1);
+
+    return register(groupKey, fetcher, id, deadline, option);
+  }
+
+  private CompletableFuture<CdRunStatus> register(
+      String groupKey,
+      CdWaitService.StatusFetcher fetcher,
+      String id,
+      long deadline,
+      RunAndWaitOption option) {
+    CompletableFuture<CdRunStatus> result = new CompletableFuture<>();
+
+    service.register(
+        groupKey,
+        fetcher,
+        JOB_NAME,
+        CdRunType.JOB,
+        id,
+        option,
+        deadline,
+        new CdWaitService.Callback() {
+          @Override
+          public void onStatus(CdRunStatus status) {}
+
+          @Override
+          public void onCompleted(CdRunStatus status) {
+            result.complete(status);
+          }
+
+          @Override
+          public void onFailure(Throwable cause) {
+            result.completeExceptionally(cause);
+          }
+        });
+
+    return result;
+  }
+
+  private static CdRunStatus completedJob(String id) {
+    return job(id, CdJobStatus.completed);
+  }
+
+  private static CdRunStatus job(String id, CdJobStatus status) {
+    GetJobStatusResponseData data = new GetJobStatusResponseData();
+    data.setJobId(id);
+    data.setStatus(status);
+    data.setOutcome(CdJobOutcome.success);
+    return CdRunStatus.of(data);
+  }
+}
@@ -0,0 +1,154 @@
+package org.jenkinsci.plugins.electricflow.test;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Local HTTP server that records the requests it receives and answers with a fixed response. */
+public class LocalHttpSink implements AutoCloseable {
+
+  private final HttpServer server;
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final List<Request> requests = new CopyOnWriteArrayList<>();
+  private final AtomicInteger failures = new AtomicInteger();
+
+  private volatile int status = 200;
+  private volatile String response = "Artifact-Published-OK";
+  private volatile boolean keepBodies = true;
+  private volatile String failedUri;
+
+  public LocalHttpSink() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/", this::handle);
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  /** @return base URL of the server, without a trailing slash */
+  public String getUrl() {
+    return "http://"
+        + server.getAddress().getAddress().getHostAddress()
+        + ":"
+        + server.getAddress().getPort();
+  }
+
+  public void setResponse(int status, String response) {
+    this.status = status;
+    this.response = response;
+  }
+
+  /** Answers the next requests with 503, without recording them. */
+  public void failNextRequests(int count) {
+    failures.set(count);
+  }
+
+  /** Answers all requests to the URI with 503, without recording them. */
+  public void failRequestsTo(String uri) {
+    failedUri = uri;
+  }
+
+  /** Only counts the received bytes instead of keeping them, for large uploads. */
+  public void discardBodies() {
+    keepBodies = false;
+  }
+
+  public List<Request> getRequests() {
+    return requests;
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    long length = 0;
+    byte[] buffer = new byte[64 * 1024];
+
+    try (InputStream input = exchange.getRequestBody()) {
+      int read;
+
+      while ((read = input.read(buffer)) != -1) {
+        if (keepBodies) {
+          body.write(buffer, 0, read);
+        }
+        length += read;
+      }
+    }
+
+    if (exchange.getRequestURI().toString().equals(failedUri)
+        || failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+      exchange.sendResponseHeaders(503, -1);
+      exchange.close();
+      return;
+    }
+
+    requests.add(
+        new Request(
+            exchange.getRequestMethod(),
+            exchange.getRequestURI().toString(),
+            exchange.getRequestHeaders(),
+            body.toByteArray(),
+            length));
+
+    byte[] responseBytes = response.getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(status, responseBytes.length);
+
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(responseBytes);
+    }
+  }
+
+  public static final class Request {
+
+    private final String method;
+    private final String uri;
+    private final Headers headers;
+    private final byte[] body;
+    private final long bodyLength;
+
+    Request(String method, String uri, Headers headers, byte[] body, long bodyLength) {
+      this.method = method;
+      this.uri = uri;
+      this.headers = headers;
+      this.body = body;
+      this.bodyLength = bodyLength;
+    }
+
+    public String getMethod() {
+      return method;
+    }
+
+    public String getUri() {
+      return uri;
+    }
+
+    /** @return first value of the request header, null if it was not sent */
+    public String getHeader(String name) {
+      return headers.getFirst(name);
+    }
+
+    /** @return received body, empty if bodies are discarded */
+    public byte[] getBody() {
+      return body;
+    }
+
+    public long getBodyLength() {
+      return bodyLength;
+    }
+  }
+}
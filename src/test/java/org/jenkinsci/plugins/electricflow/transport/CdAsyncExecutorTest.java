@@ -0,0 +1,177 @@
+package org.jenkinsci.plugins.electricflow.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class CdAsyncExecutorTest {
+
+  @Test
+  public void resultOfTheCallIsReturned() throws Exception {
+    CompletableFuture<String> projects = CdAsyncExecutor.supplyAsync(() -> "projects");
+    assertEquals("projects", projects.get(10, TimeUnit.SECONDS));
+
+    CompletableFuture<String> failed =
+        CdAsyncExecutor.supplyAsync(
+            () -> {
+              throw new IOException("Connection refused");
+            });
+
+    try {
+      failed.get(10, TimeUnit.SECONDS);
+      fail("ExecutionException expected");
+    } catch (ExecutionException expected) {
+      assertEquals("Connection refused", expected.getCause().getMessage());
+    }
+  }
+
+  @Test
+  public void cancelDuringExecutionRunsAbortAction() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch aborted = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+
+    CompletableFuture<String> future =
+        CdAsyncExecutor.supplyAsync(
+            () -> {
+              CdAsyncExecutor.setAbortAction(aborted::countDown);
+              started.countDown();
+
+              try {
+                new CountDownLatch(1).await(10, TimeUnit.SECONDS);
+              } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new InterruptedIOException();
+              } finally {
+                CdAsyncExecutor.setAbortAction(null);
+              }
+
+              return "not cancelled";
+            });
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+
+    assertTrue(future.cancel(true));
+
+    assertTrue(aborted.await(10, TimeUnit.SECONDS));
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void abortActionRegisteredAfterCancelRunsImmediately() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    AtomicBoolean cancelled = new AtomicBoolean();
+    CountDownLatch aborted = new CountDownLatch(1);
+
+    CompletableFuture<String> future =
+        CdAsyncExecutor.supplyAsync(
+            () -> {
+              started.countDown();
+
+              // The request is about to start when the future is cancelled
+              while (!cancelled.get()) {
+                Thread.yield();
+              }
+
+              CdAsyncExecutor.setAbortAction(aborted::countDown);
+              CdAsyncExecutor.setAbortAction(null);
+              return "not cancelled";
+            });
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+
+    future.cancel(true);
+    cancelled.set(true);
+
+    assertTrue(aborted.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void cancelledTaskDoesNotStart() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    List<CompletableFuture<String>> busy = occupyWorkers(release);
+
+    try {
+      AtomicInteger calls = new AtomicInteger();
+      CompletableFuture<String> queued =
+          CdAsyncExecutor.supplyAsync(() -> "call " + calls.incrementAndGet());
+
+      assertTrue(queued.cancel(true));
+      release.countDown();
+      waitFor(busy);
+
+      // A task submitted after the cancelled one has run, so the cancelled one was skipped
+      assertEquals("next", CdAsyncExecutor.supplyAsync(() -> "next").get(10, TimeUnit.SECONDS));
+      assertEquals(0, calls.get());
+    } finally {
+      release.countDown();
+    }
+  }
+
+  @Test
+  public void fullQueueRejectsTask() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    List<CompletableFuture<String>> busy = occupyWorkers(release);
+
+    try {
+      for (int i = 0; i < CdAsyncExecutor.MAX_QUEUED_TASKS; i++) {
+        busy.add(CdAsyncExecutor.supplyAsync(() -> "queued"));
+      }
+
+      CompletableFuture<String> rejected = CdAsyncExecutor.supplyAsync(() -> "rejected");
+
+      try {
+        rejected.get(10, TimeUnit.SECONDS);
+        fail("RejectedExecutionException expected");
+      } catch (ExecutionException expected) {
+        assertTrue(expected.getCause() instanceof RejectedExecutionException);
+      }
+    } finally {
+      release.countDown();
+    }
+
+    waitFor(busy);
+  }
+
+  private static List<CompletableFuture<String>> occupyWorkers(CountDownLatch release)
+      throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(CdAsyncExecutor.MAX_THREADS);
+    List<CompletableFuture<String>> futures = new ArrayList<>();
+
+    for (int i = 0; i < CdAsyncExecutor.MAX_THREADS; i++) {
+      futures.add(
+          CdAsyncExecutor.supplyAsync(
+              () -> {
+                started.countDown();
+
+                try {
+                  assertTrue(release.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                  throw new InterruptedIOException(e.getMessage());
+                }
+
+                return "busy";
+              }));
+    }
+
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    return futures;
+  }
+
+  private static void waitFor(List<CompletableFuture<String>> futures) throws Exception {
+    for (CompletableFuture<String> future : futures) {
+      future.get(10, TimeUnit.SECONDS);
+    }
+  }
+}
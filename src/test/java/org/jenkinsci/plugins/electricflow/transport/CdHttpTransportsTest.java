@@ -0,0 +1,116 @@
+package org.jenkinsci.plugins.electricflow.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.IOUtils;
+import org.jenkinsci.plugins.electricflow.HttpMethod;
+import org.jenkinsci.plugins.electricflow.test.LocalHttpSink;
+import org.junit.Test;
+
+public class CdHttpTransportsTest {
+
+  private static final CdHttpTransportSettings SETTINGS = CdHttpTransportSettings.defaults(false);
+
+  @Test
+  public void removedConfigurationPoolIsClosedOnceIdle() throws Exception {
+    ExecutorService threads = Executors.newSingleThreadExecutor();
+
+    try (LocalHttpSink sink = new LocalHttpSink()) {
+      SharedTransport transport =
+          (SharedTransport) CdHttpTransports.get("removed", sink.getUrl(), SETTINGS);
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+
+      Future<String> inFlight =
+          threads.submit(
+              () ->
+                  transport.execute(
+                      new CdHttpRequest(HttpMethod.GET, sink.getUrl() + "/projects"),
+                      (status, reason, content) -> {
+                        started.countDown();
+                        await(release);
+                        return IOUtils.toString(content, "UTF-8");
+                      }));
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+
+      CdHttpTransports.retain(Collections.emptySet());
+
+      assertTrue(transport.isRetired());
+      assertTrue(transport.isOpen());
+
+      release.countDown();
+
+      assertEquals("Artifact-Published-OK", inFlight.get(10, TimeUnit.SECONDS));
+      assertFalse(transport.isOpen());
+
+      // A client which still holds the retired transport keeps working
+      assertEquals(200, get(transport, sink.getUrl()));
+      assertFalse(transport.isOpen());
+
+      assertNotSame(transport, CdHttpTransports.get("removed", sink.getUrl(), SETTINGS));
+    } finally {
+      threads.shutdownNow();
+    }
+  }
+
+  @Test
+  public void unchangedConfigurationPoolIsKept() throws Exception {
+    try (LocalHttpSink sink = new LocalHttpSink()) {
+      SharedTransport transport =
+          (SharedTransport) CdHttpTransports.get("kept", sink.getUrl(), SETTINGS);
+      assertEquals(200, get(transport, sink.getUrl()));
+
+      // The sink url consists of the scheme, host and port only, like the key route
+      CdHttpTransports.TransportKey key =
+          new CdHttpTransports.TransportKey("kept", sink.getUrl(), SETTINGS);
+      CdHttpTransports.retain(Collections.singleton(key));
+
+      assertFalse(transport.isRetired());
+      assertTrue(transport.isOpen());
+      assertSame(transport, CdHttpTransports.get("kept", sink.getUrl() + "/rest", SETTINGS));
+
+      transport.close();
+    }
+  }
+
+  @Test
+  public void urlPoolsAreCapped() {
+    List<SharedTransport> created = new ArrayList<>();
+
+    for (int i = 0; i <= CdHttpTransports.MAX_URL_TRANSPORTS; i++) {
+      created.add(
+          (SharedTransport) CdHttpTransports.forUrl("https://cd" + i + ".example.com", false));
+    }
+
+    assertEquals(CdHttpTransports.MAX_URL_TRANSPORTS, CdHttpTransports.getUrlTransportCount());
+    assertTrue(created.get(0).isRetired());
+    assertFalse(created.get(created.size() - 1).isRetired());
+  }
+
+  private static int get(CdHttpTransport transport, String url) throws IOException {
+    return transport.execute(
+        new CdHttpRequest(HttpMethod.GET, url + "/projects"), (status, reason, content) -> status);
+  }
+
+  private static void await(CountDownLatch latch) throws IOException {
+    try {
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      throw new InterruptedIOException(e.getMessage());
+    }
+  }
+}
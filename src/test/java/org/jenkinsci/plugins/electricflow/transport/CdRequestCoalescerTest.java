@@ -0,0 +1,183 @@
+package org.jenkinsci.plugins.electricflow.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+import org.junit.Test;
+
+public class CdRequestCoalescerTest {
+
+  // Strings are immutable, so the waiting callers may share them
+  private static final UnaryOperator<String> IMMUTABLE = UnaryOperator.identity();
+
+  private final CdRequestCoalescer coalescer = CdRequestCoalescer.get();
+
+  @Test
+  public void concurrentIdenticalCallsShareOneExecution() throws Exception {
+    AtomicInteger executions = new AtomicInteger();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService threads = Executors.newFixedThreadPool(4);
+
+    try {
+      Future<String> leader =
+          threads.submit(
+              () ->
+                  coalescer.execute(
+                      "GET /projects",
+                      () -> {
+                        executions.incrementAndGet();
+                        started.countDown();
+                        await(release);
+                        return "projects";
+                      },
+                      IMMUTABLE));
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+
+      long coalescedBefore = coalescer.getCoalescedCount();
+      Future<String> follower1 =
+          threads.submit(() -> coalescer.execute("GET /projects", () -> "unexpected", IMMUTABLE));
+      Future<String> follower2 =
+          threads.submit(() -> coalescer.execute("GET /projects", () -> "unexpected", IMMUTABLE));
+
+      while (coalescer.getCoalescedCount() < coalescedBefore + 2) {
+        Thread.sleep(10);
+      }
+      release.countDown();
+
+      assertEquals("projects", leader.get(10, TimeUnit.SECONDS));
+      assertEquals("projects", follower1.get(10, TimeUnit.SECONDS));
+      assertEquals("projects", follower2.get(10, TimeUnit.SECONDS));
+      assertEquals(1, executions.get());
+    } finally {
+      threads.shutdownNow();
+    }
+  }
+
+  @Test
+  public void completedCallsAreNotReused() throws Exception {
+    assertEquals("first", coalescer.execute("GET /pipelines", () -> "first", IMMUTABLE));
+    assertEquals("second", coalescer.execute("GET /pipelines", () -> "second", IMMUTABLE));
+
+    try {
+      coalescer.execute(
+          "GET /pipelines",
+          () -> {
+            throw new IOException("Connection refused");
+          },
+          IMMUTABLE);
+      fail("IOException expected");
+    } catch (IOException expected) {
+      assertEquals("Connection refused", expected.getMessage());
+    }
+  }
+
+  @Test
+  public void waitingCallersReceiveCopies() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService threads = Executors.newFixedThreadPool(2);
+
+    try {
+      Future<List<String>> leader =
+          threads.submit(
+              () ->
+                  coalescer.execute(
+                      "GET /applications",
+                      () -> {
+                        started.countDown();
+                        await(release);
+                        return new ArrayList<>(Arrays.asList("app"));
+                      },
+                      ArrayList::new));
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+
+      long coalescedBefore = coalescer.getCoalescedCount();
+      Future<List<String>> follower =
+          threads.submit(
+              () ->
+                  coalescer.execute(
+                      "GET /applications", () -> new ArrayList<>(), ArrayList::new));
+
+      while (coalescer.getCoalescedCount() < coalescedBefore + 1) {
+        Thread.sleep(10);
+      }
+      release.countDown();
+
+      List<String> leaderResult = leader.get(10, TimeUnit.SECONDS);
+      List<String> followerResult = follower.get(10, TimeUnit.SECONDS);
+      followerResult.add("modified");
+
+      assertNotSame(leaderResult, followerResult);
+      assertEquals(Arrays.asList("app"), leaderResult);
+    } finally {
+      threads.shutdownNow();
+    }
+  }
+
+  @Test
+  public void cancelledCallIsRepeatedForWaitingCallers() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService threads = Executors.newFixedThreadPool(2);
+
+    try {
+      Future<String> leader =
+          threads.submit(
+              () ->
+                  coalescer.execute(
+                      "GET /releases",
+                      () -> {
+                        started.countDown();
+                        await(release);
+                        // What an aborted request fails with
+                        throw new InterruptedIOException("Request aborted");
+                      },
+                      IMMUTABLE));
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+
+      long coalescedBefore = coalescer.getCoalescedCount();
+      Future<String> follower =
+          threads.submit(() -> coalescer.execute("GET /releases", () -> "releases", IMMUTABLE));
+
+      while (coalescer.getCoalescedCount() < coalescedBefore + 1) {
+        Thread.sleep(10);
+      }
+      release.countDown();
+
+      try {
+        leader.get(10, TimeUnit.SECONDS);
+        fail("ExecutionException expected");
+      } catch (ExecutionException expected) {
+        assertTrue(expected.getCause() instanceof InterruptedIOException);
+      }
+
+      assertEquals("releases", follower.get(10, TimeUnit.SECONDS));
+    } finally {
+      threads.shutdownNow();
+    }
+  }
+
+  private static void await(CountDownLatch latch) throws IOException {
+    try {
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      throw new InterruptedIOException(e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package org.jenkinsci.plugins.electricflow.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+public class CdSessionManagerTest {
+
+  private static final long LIFETIME = TimeUnit.MINUTES.toMillis(30);
+  private static final long IDLE_LIMIT = TimeUnit.MINUTES.toMillis(10);
+  private static final long RETRY_DELAY = TimeUnit.MINUTES.toMillis(1);
+
+  private final AtomicLong now = new AtomicLong(TimeUnit.DAYS.toMillis(1));
+  private final AtomicInteger logins = new AtomicInteger();
+  private final CdSessionManager manager =
+      new CdSessionManager(LIFETIME, IDLE_LIMIT, RETRY_DELAY, now::get);
+
+  @Test
+  public void sessionIsReusedUntilItExpires() {
+    assertEquals("session1", manager.getSessionId("key", this::login));
+
+    for (int i = 0; i < 5; i++) {
+      advance(TimeUnit.MINUTES.toMillis(5));
+      assertEquals("session1", manager.getSessionId("key", this::login));
+    }
+
+    advance(TimeUnit.MINUTES.toMillis(5));
+    assertEquals("session2", manager.getSessionId("key", this::login));
+    assertEquals(2, logins.get());
+  }
+
+  @Test
+  public void idleSessionIsReplaced() {
+    assertEquals("session1", manager.getSessionId("key", this::login));
+
+    advance(IDLE_LIMIT - 1);
+    assertEquals("session1", manager.getSessionId("key", this::login));
+
+    advance(IDLE_LIMIT);
+    assertEquals("session2", manager.getSessionId("key", this::login));
+  }
+
+  @Test
+  public void failedLoginIsRetriedAfterDelay() {
+    CdSessionManager.SessionLogin failingLogin =
+        () -> {
+          logins.incrementAndGet();
+          throw new IOException("Unauthorized");
+        };
+
+    assertNull(manager.getSessionId("key", failingLogin));
+
+    advance(RETRY_DELAY - 1);
+    assertNull(manager.getSessionId("key", this::login));
+    assertEquals(1, logins.get());
+
+    advance(1);
+    assertEquals("session2", manager.getSessionId("key", this::login));
+  }
+
+  @Test
+  public void invalidateDropsOnlyTheRejectedSession() {
+    assertEquals("session1", manager.getSessionId("key", this::login));
+
+    manager.invalidate("key", "outdated");
+    assertEquals("session1", manager.getSessionId("key", this::login));
+
+    manager.invalidate("key", "session1");
+    assertEquals("session2", manager.getSessionId("key", this::login));
+
+    manager.invalidate("unknown", "session2");
+    assertEquals(1, manager.getSessionCount());
+  }
+
+  @Test
+  public void unusedEntriesAreEvicted() {
+    manager.getSessionId("old-password", this::login);
+    manager.getSessionId("override", this::login);
+    assertEquals(2, manager.getSessionCount());
+
+    advance(IDLE_LIMIT);
+    manager.getSessionId("new-password", this::login);
+
+    assertEquals(1, manager.getSessionCount());
+    assertEquals("session4", manager.getSessionId("old-password", this::login));
+  }
+
+  private String login() {
+    return "session" + logins.incrementAndGet();
+  }
+
+  private void advance(long millis) {
+    now.addAndGet(millis);
+  }
+}
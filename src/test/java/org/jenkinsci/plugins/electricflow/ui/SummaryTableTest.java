@@ -0,0 +1,45 @@
+package org.jenkinsci.plugins.electricflow.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+public class SummaryTableTest {
+
+  @Test
+  public void valuesAreEncoded() {
+    String html =
+        new SummaryTable("<Title>")
+            .add("Name:", "<script>alert(1)</script>")
+            .addLink("Link:", "https://cd/?a=1&b='2'", "run <1>")
+            .toHtml();
+
+    assertTrue(html.startsWith("<h3>&lt;Title&gt;</h3>"));
+    assertFalse(html.contains("<script>"));
+    assertTrue(html.contains("&lt;script&gt;"));
+    assertTrue(html.contains("run &lt;1&gt;</a>"));
+    assertFalse(html.contains("'2'"));
+  }
+
+  @Test
+  public void sectionItemsAreIndented() {
+    String html = new SummaryTable("Title").addStages(Arrays.asList("QA", "Prod")).toHtml();
+
+    assertTrue(html.contains("<td>&nbsp;<b>Stages to run</b></td>"));
+    assertTrue(html.contains("<td>&nbsp;&nbsp;&nbsp;&nbsp;Prod</td>"));
+  }
+
+  @Test
+  public void copyDoesNotChangeOriginal() {
+    SummaryTable summary = new SummaryTable("Title").add("Name:", "value");
+    String html = summary.toHtml();
+
+    SummaryTable copy = summary.copy().add("CD Job Status:", "running");
+
+    assertEquals(html, summary.toHtml());
+    assertTrue(copy.toHtml().contains("running"));
+  }
+}
@@ -0,0 +1,153 @@
+package org.jenkinsci.plugins.electricflow.upload;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import hudson.AbortException;
+import hudson.FilePath;
+import hudson.model.TaskListener;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import org.jenkinsci.plugins.electricflow.ElectricFlowClient;
+import org.jenkinsci.plugins.electricflow.test.LocalHttpSink;
+import org.jenkinsci.plugins.electricflow.transport.CdSessionManager;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.test.JenkinsRule;
+
+public class AgentArtifactUploadTest {
+
+  private static final String LOGIN_RESPONSE = "{\"sessionId\":\"login\"}";
+
+  @ClassRule public static JenkinsRule jenkinsRule = new JenkinsRule();
+
+  @Rule public TemporaryFolder workspace = new TemporaryFolder();
+
+  @Test
+  public void matchedFilesAreUploadedFromTheWorkspace() throws Exception {
+    write("target/app.jar");
+    write("target/app.pom");
+    write("README.md");
+
+    try (LocalHttpSink sink = new LocalHttpSink()) {
+      sink.setResponse(200, LOGIN_RESPONSE);
+      ElectricFlowClient client = client(sink, "upload");
+
+      upload(client, "target/*.JAR, readme.md");
+
+      List<LocalHttpSink.Request> requests = sink.getRequests();
+      LocalHttpSink.Request request = requests.get(1);
+      assertEquals("/commander/cgi-bin/publishArtifactAPI.cgi", request.getUri());
+
+      String body = new String(request.getBody(), StandardCharsets.ISO_8859_1);
+      assertTrue(body.contains("filename=\"/target/app.jar\""));
+      assertTrue(body.contains("filename=\"/README.md\""));
+      assertFalse(body.contains("app.pom"));
+      assertTrue(body.contains("login"));
+    }
+  }
+
+  @Test
+  public void uploadUsesItsOwnSessionAndLogsItOut() throws Exception {
+    write("app.jar");
+
+    try (LocalHttpSink sink = new LocalHttpSink()) {
+      sink.setResponse(200, LOGIN_RESPONSE);
+      ElectricFlowClient client = client(sink, "dedicated");
+      CdSessionManager sessionManager = CdSessionManager.get();
+      sessionManager.getSessionId(client.getSessionKey(), () -> "shared");
+
+      upload(client, "app.jar");
+
+      List<LocalHttpSink.Request> requests = sink.getRequests();
+      assertEquals(3, requests.size());
+      assertEquals("/rest/v1.0/sessions", requests.get(0).getUri());
+      assertEquals("POST", requests.get(0).getMethod());
+
+      // The shared session of the controller is never sent to the agent
+      String body = new String(requests.get(1).getBody(), StandardCharsets.ISO_8859_1);
+      assertTrue(body.contains("login"));
+      assertFalse(body.contains("shared"));
+
+      assertEquals("/rest/v1.0/sessions", requests.get(2).getUri());
+      assertEquals("DELETE", requests.get(2).getMethod());
+      assertEquals("sessionId=login", requests.get(2).getHeader("Cookie"));
+      assertEquals("shared", sessionManager.getSessionId(client.getSessionKey(), () -> "next"));
+    }
+  }
+
+  @Test
+  public void failedUploadLogsOutTheSession() throws Exception {
+    write("app.jar");
+
+    try (LocalHttpSink sink = new LocalHttpSink()) {
+      sink.setResponse(200, LOGIN_RESPONSE);
+      sink.failRequestsTo("/commander/cgi-bin/publishArtifactAPI.cgi");
+      ElectricFlowClient client = client(sink, "failed");
+
+      try {
+        upload(client, "app.jar");
+        fail("IOException expected");
+      } catch (IOException expected) {
+        assertFalse(expected instanceof AbortException);
+      }
+
+      List<LocalHttpSink.Request> requests = sink.getRequests();
+      assertEquals(2, requests.size());
+      assertEquals("DELETE", requests.get(1).getMethod());
+    }
+  }
+
+  @Test
+  public void noMatchingFilesAbortsWithoutUploading() throws Exception {
+    write("app.jar");
+
+    try (LocalHttpSink sink = new LocalHttpSink()) {
+      sink.setResponse(200, LOGIN_RESPONSE);
+      ElectricFlowClient client = client(sink, "nothing");
+
+      try {
+        upload(client, "*.war");
+        fail("AbortException expected");
+      } catch (AbortException expected) {
+        assertTrue(expected.getMessage().contains("No files were found"));
+      }
+
+      // Only the login and the logout of the upload session are sent
+      List<LocalHttpSink.Request> requests = sink.getRequests();
+      assertEquals(2, requests.size());
+      assertEquals("/rest/v1.0/sessions", requests.get(1).getUri());
+      assertEquals("DELETE", requests.get(1).getMethod());
+    }
+  }
+
+  private String upload(ElectricFlowClient client, String path) throws Exception {
+    return client.uploadArtifactFromAgent(
+        TaskListener.NULL,
+        "default",
+        "group:key",
+        "1.0",
+        path,
+        false,
+        new FilePath(workspace.getRoot()),
+        0);
+  }
+
+  // Every test logs in as its own user, so the sessions of the tests are kept apart
+  private static ElectricFlowClient client(LocalHttpSink sink, String user) {
+    return new ElectricFlowClient(sink.getUrl(), user, "password", "/rest/v1.0", false);
+  }
+
+  private void write(String path) throws IOException {
+    File file = new File(workspace.getRoot(), path);
+    Files.createDirectories(file.getParentFile().toPath());
+    Files.write(file.toPath(), new byte[16]);
+  }
+}
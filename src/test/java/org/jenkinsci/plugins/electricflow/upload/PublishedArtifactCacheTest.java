@@ -0,0 +1,72 @@
+package org.jenkinsci.plugins.electricflow.upload;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+public class PublishedArtifactCacheTest {
+
+  private static final String SERVER = "https://cd.example.com";
+
+  private final PublishedArtifactCache cache = new PublishedArtifactCache();
+
+  @Test
+  public void filesAreHashedByArtifactPath() throws Exception {
+    File dir = Files.createTempDirectory("hashes").toFile();
+
+    try {
+      write(new File(dir, "a.txt"), "a");
+      write(new File(dir, "sub/b.txt"), "b");
+
+      Map<String, String> hashes = new ArtifactHasher("**/*.txt").invoke(dir, null);
+
+      assertEquals(2, hashes.size());
+      assertEquals(DigestUtils.sha256Hex("a"), hashes.get("/a.txt"));
+      assertEquals(DigestUtils.sha256Hex("b"), hashes.get("/sub/b.txt"));
+    } finally {
+      FileUtils.deleteDirectory(dir);
+    }
+  }
+
+  @Test
+  public void onlyIdenticalPublishIsSkipped() throws Exception {
+    File dir = Files.createTempDirectory("hashes").toFile();
+
+    try {
+      write(new File(dir, "a.txt"), "a");
+      write(new File(dir, "b.txt"), "b");
+      Map<String, String> published = new ArtifactHasher("*.txt").invoke(dir, null);
+
+      assertFalse(cache.isPublished(SERVER, "config", "default", "group:key:1.0", published));
+
+      cache.recordPublished(SERVER, "config", "default", "group:key:1.0", published);
+
+      assertTrue(cache.isPublished(SERVER, "config", "default", "group:key:1.0", published));
+      assertFalse(cache.isPublished(SERVER, "config", "default", "group:key:1.1", published));
+      assertFalse(cache.isPublished(SERVER, "config", "other", "group:key:1.0", published));
+      assertFalse(
+          cache.isPublished(
+              "https://other.example.com", "config", "default", "group:key:1.0", published));
+
+      write(new File(dir, "b.txt"), "changed");
+      Map<String, String> changed = new ArtifactHasher("*.txt").invoke(dir, null);
+
+      assertFalse(cache.isPublished(SERVER, "config", "default", "group:key:1.0", changed));
+    } finally {
+      FileUtils.deleteDirectory(dir);
+    }
+  }
+
+  private static void write(File file, String content) throws Exception {
+    Files.createDirectories(file.getParentFile().toPath());
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+  }
+}
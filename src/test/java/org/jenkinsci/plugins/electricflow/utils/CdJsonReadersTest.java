@@ -0,0 +1,76 @@
+package org.jenkinsci.plugins.electricflow.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.CdPipelineStatus;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.GetPipelineRuntimeDetailsResponseData;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.jobs.GetPipelineRuntimesDetailsResponseData;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.releases.GetReleasesResponseData;
+import org.jenkinsci.plugins.electricflow.models.cdrestdata.releases.ReleaseData;
+import org.junit.Test;
+
+public class CdJsonReadersTest {
+
+  @Test
+  public void readNamesSkipsOtherFields() throws IOException {
+    String json =
+        "{\"application\":[{\"applicationName\":\"app1\",\"tierMaps\":{\"tierMap\":[{\"x\":1}]}},"
+            + "{\"description\":\"\",\"applicationName\":\"app2\"}],\"other\":[1,2]}";
+
+    assertEquals(
+        Arrays.asList("app1", "app2"),
+        CdJsonReaders.readNames(stream(json), "application", "applicationName"));
+  }
+
+  @Test
+  public void readNamesAcceptsSingleObjectAndEmptyDocument() throws IOException {
+    assertEquals(
+        Collections.singletonList("proc"),
+        CdJsonReaders.readNames(
+            stream("{\"procedure\":{\"procedureName\":\"proc\"}}"), "procedure", "procedureName"));
+    assertTrue(CdJsonReaders.readNames(stream("{}"), "procedure", "procedureName").isEmpty());
+  }
+
+  @Test
+  public void readReleasesWithStages() throws IOException {
+    String json =
+        "{\"release\":[{\"releaseId\":\"1\",\"releaseName\":\"r1\",\"pipelineId\":\"p1\","
+            + "\"stages\":{\"stage\":[{\"name\":\"Dev\"},{\"name\":\"QA\"},{\"name\":\"Dev\"}]}},"
+            + "{\"releaseId\":\"2\",\"releaseName\":\"r2\",\"stages\":\"\"}]}";
+    GetReleasesResponseData responseData =
+        CdJsonReaders.read(stream(json), GetReleasesResponseData.class);
+
+    ReleaseData first = responseData.getReleases().get(0);
+    assertEquals("r1", first.getReleaseName());
+    assertNull(first.getFlowRuntimeId());
+    assertEquals(Arrays.asList("Dev", "QA"), first.getStageNames());
+    assertTrue(responseData.getReleases().get(1).getStageNames().isEmpty());
+  }
+
+  @Test
+  public void readPipelineRuntimeWithUnknownStatus() throws IOException {
+    String json =
+        "{\"flowRuntime\":[{\"flowRuntimeId\":\"42\",\"completed\":\"1\",\"status\":\"new\"}]}";
+    GetPipelineRuntimeDetailsResponseData runtime =
+        CdJsonReaders.read(
+                json.getBytes(StandardCharsets.UTF_8), GetPipelineRuntimesDetailsResponseData.class)
+            .getFlowRuntimes()
+            .get(0);
+
+    assertEquals("42", runtime.getFlowRuntimeId());
+    assertTrue(runtime.isCompleted());
+    assertEquals(CdPipelineStatus.unknown, runtime.getStatus());
+  }
+
+  private static InputStream stream(String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+}